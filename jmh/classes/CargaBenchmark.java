@@ -0,0 +1,61 @@
+package classes;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Carga do catálogo (a construção do MotorEventos: eventos e usuários em paralelo, depois as presenças)
+// e gravação dos eventos. 10 milhões de eventos: -p eventos=10000000 -jvmArgsAppend -Xmx12g (ou
+// -Dsistema.eventos.armazem=foraheap).
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = { DadosSinteticos.DURABILIDADE, DadosSinteticos.SEM_LEMBRETES,
+        DadosSinteticos.SEM_RELATORIO, DadosSinteticos.MEMORIA })
+public class CargaBenchmark {
+
+    @Param({ "10000", "1000000" })
+    public int eventos;
+
+    private MotorEventos motor;
+
+    @Setup(Level.Trial)
+    public void Preparar() throws IOException {
+        DadosSinteticos.Preparar(eventos);
+        motor = new MotorEventos();
+    }
+
+    @TearDown(Level.Trial)
+    public void Apagar() throws IOException {
+        motor.Encerrar();
+        DadosSinteticos.Apagar();
+    }
+
+    @Benchmark
+    public Object CarregarMotor() throws IOException {
+        MotorEventos carregado = new MotorEventos();
+        carregado.Encerrar();
+        return carregado;
+    }
+
+    @Benchmark
+    public Object SalvarEventos() throws IOException {
+        motor.SalvarEventos();
+        return motor;
+    }
+}
@@ -0,0 +1,105 @@
+package classes;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Consultas de eventos (futuros e passados, primeira página e completos, ocorrendo agora) e de usuários
+// (por ID, pelo nome completo e pelo nome aproximado). IDs e nomes saem de um conjunto fixo sorteado com
+// a semente dos dados, em rodízio.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { DadosSinteticos.DURABILIDADE, DadosSinteticos.SEM_LEMBRETES,
+        DadosSinteticos.SEM_RELATORIO, DadosSinteticos.MEMORIA })
+public class ConsultasBenchmark {
+
+    private static final int QUANTIDADE = 1024; // potência de 2
+
+    @Param({ "10000", "1000000" })
+    public int eventos;
+
+    private MotorEventos motor;
+    private int[] ids;
+    private String[] nomes;
+    private int proximo;
+
+    @Setup(Level.Trial)
+    public void Preparar() throws IOException {
+        DadosSinteticos.Preparar(eventos);
+        motor = new MotorEventos();
+        GeradorDados gerador = DadosSinteticos.Gerador();
+        Random aleatorio = new Random(GeradorDados.SEMENTE_PADRAO);
+        ids = new int[QUANTIDADE];
+        nomes = new String[QUANTIDADE];
+        for (int i = 0; i < QUANTIDADE; i++) {
+            ids[i] = 1 + aleatorio.nextInt(DadosSinteticos.Usuarios(eventos));
+            nomes[i] = gerador.NomeCompleto();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void Apagar() throws IOException {
+        motor.Encerrar();
+        DadosSinteticos.Apagar();
+    }
+
+    @Benchmark
+    public Object BuscarEventosFuturos() {
+        return motor.BuscarEventosFuturos(null, 50);
+    }
+
+    @Benchmark
+    public Object BuscarEventosPassados() {
+        return motor.BuscarEventosPassados(null, 50);
+    }
+
+    @Benchmark
+    public Object EventosFuturos() {
+        return motor.EventosFuturos();
+    }
+
+    @Benchmark
+    public Object EventosPassados() {
+        return motor.EventosPassados();
+    }
+
+    @Benchmark
+    public Object EventosOcorrendoEm() {
+        return motor.EventosOcorrendoEm(LocalDateTime.now());
+    }
+
+    @Benchmark
+    public Object BuscarUsuarioPorId() {
+        return motor.BuscarUsuarioPorId(ids[proximo++ & (QUANTIDADE - 1)]);
+    }
+
+    @Benchmark
+    public Object BuscarUsuariosPorNome() {
+        return motor.BuscarUsuariosPorNome(nomes[proximo++ & (QUANTIDADE - 1)]);
+    }
+
+    // O mesmo nome ainda sendo digitado (sobrenome incompleto), como no balcão
+    @Benchmark
+    public Object BuscarUsuariosAproximado() {
+        String nome = nomes[proximo++ & (QUANTIDADE - 1)];
+        return motor.BuscarUsuariosAproximado(nome.substring(0, nome.length() - 2), 20);
+    }
+}
@@ -0,0 +1,69 @@
+package classes;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+// Dados sintéticos das medições (ver GeradorDados), gravados no diretório atual, porque o motor usa
+// caminhos relativos. O diretório precisa começar vazio (mvn -Pjmh exec:exec roda em target/jmh-dados);
+// Apagar remove tudo o que as medições criaram.
+final class DadosSinteticos {
+
+    // Propriedades das JVMs das medições (@Fork): mede a operação, não o intervalo de gravação em lote
+    static final String DURABILIDADE = "-Dsistema.persistencia.durabilidade=async";
+    static final String SEM_LEMBRETES = "-Dsistema.lembretes.destino=nenhum";
+    static final String SEM_RELATORIO = "-Dsistema.metricas.intervalo=0";
+    static final String MEMORIA = "-Xmx4g";
+
+    private DadosSinteticos() {
+    }
+
+    // Início do dia atual: a proporção de eventos passados, em andamento e futuros é sempre a mesma
+    static LocalDateTime Base() {
+        return LocalDate.now().atStartOfDay();
+    }
+
+    static GeradorDados Gerador() {
+        return new GeradorDados(GeradorDados.SEMENTE_PADRAO, Base());
+    }
+
+    static int Usuarios(int eventos) {
+        return Math.max(100, eventos / 10);
+    }
+
+    // Método para gravar os arquivos sem partição e fazer a primeira carga, que os divide por cidade (como
+    // em uma instalação antiga)
+    static void Preparar(int eventos) throws IOException {
+        String[] existentes = new File(".").list();
+        if (existentes == null || existentes.length > 0) {
+            throw new IllegalStateException("As medições precisam de um diretório vazio: os arquivos de dados são "
+                    + "criados e apagados em " + new File(".").getAbsoluteFile().getParent());
+        }
+        GeradorDados gerador = Gerador();
+        gerador.GravarEventos(eventos, new File("events.data"));
+        gerador.GravarUsuarios(Usuarios(eventos), new File("users.data"));
+        new MotorEventos().Encerrar();
+    }
+
+    static void Apagar() {
+        File[] arquivos = new File(".").listFiles();
+        if (arquivos != null) {
+            for (File arquivo : arquivos) {
+                Apagar(arquivo);
+            }
+        }
+    }
+
+    private static void Apagar(File arquivo) {
+        File[] filhos = arquivo.listFiles();
+        if (filhos != null) {
+            for (File filho : filhos) {
+                Apagar(filho);
+            }
+        }
+        if (!arquivo.delete()) {
+            System.out.println("Não foi possível apagar " + arquivo);
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package classes;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Formato de linha de events.data: cada operação converte um evento (ou uma linha) de um conjunto fixo,
+// em rodízio
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FormatoBenchmark {
+
+    private static final int QUANTIDADE = 1 << 14; // potência de 2
+
+    private Evento[] eventos;
+    private String[] linhas;
+    private int proximo;
+
+    @Setup
+    public void Preparar() {
+        GeradorDados gerador = DadosSinteticos.Gerador();
+        eventos = new Evento[QUANTIDADE];
+        linhas = new String[QUANTIDADE];
+        for (int i = 0; i < QUANTIDADE; i++) {
+            eventos[i] = gerador.Evento(i + 1);
+            linhas[i] = eventos[i].toFileString();
+        }
+    }
+
+    @Benchmark
+    public String ToFileString() {
+        return eventos[proximo++ & (QUANTIDADE - 1)].toFileString();
+    }
+
+    @Benchmark
+    public Object FromFileString() {
+        return Evento.fromFileString(linhas[proximo++ & (QUANTIDADE - 1)], 0);
+    }
+}
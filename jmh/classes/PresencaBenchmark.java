@@ -0,0 +1,107 @@
+package classes;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Caminho do check-in: MarcarPresenca com pares (usuário, evento) sorteados (a sequência continua entre
+// as iterações, então repetições são raras) e VerificarPresencaUsuario em pares fixos, metade com
+// presença marcada no preparo e metade sem. Cada par é de um usuário e de um evento futuro da mesma
+// cidade, os únicos que o MotorEventos aceita.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = { DadosSinteticos.DURABILIDADE, DadosSinteticos.SEM_LEMBRETES,
+        DadosSinteticos.SEM_RELATORIO, DadosSinteticos.MEMORIA })
+public class PresencaBenchmark {
+
+    private static final int QUANTIDADE = 1024; // potência de 2
+
+    @Param({ "10000", "1000000" })
+    public int eventos;
+
+    private MotorEventos motor;
+    private Random aleatorio;
+    private int[][] usuariosPorCidade; // IDs dos usuários de cada cidade
+    private int[][] futurosPorCidade; // IDs dos eventos futuros da mesma cidade
+    private int[][] verificados;
+    private int proximo;
+
+    @Setup(Level.Trial)
+    public void Preparar() throws IOException {
+        DadosSinteticos.Preparar(eventos);
+        motor = new MotorEventos();
+        aleatorio = new Random(GeradorDados.SEMENTE_PADRAO);
+        List<int[]> usuariosDaCidade = new ArrayList<>();
+        List<int[]> futurosDaCidade = new ArrayList<>();
+        Set<String> cidades = new TreeSet<>();
+        for (Usuario usuario : motor.GetUsuarios()) {
+            cidades.add(usuario.GetCidade());
+        }
+        for (String cidade : cidades) {
+            int[] futuros = motor.EventosFuturos(cidade).stream().mapToInt(Evento::GetId).toArray();
+            if (futuros.length > 0) {
+                usuariosDaCidade.add(motor.BuscarUsuariosPorCidade(cidade).stream().mapToInt(Usuario::GetId).toArray());
+                futurosDaCidade.add(futuros);
+            }
+        }
+        usuariosPorCidade = usuariosDaCidade.toArray(new int[0][]);
+        futurosPorCidade = futurosDaCidade.toArray(new int[0][]);
+        verificados = new int[QUANTIDADE][];
+        for (int i = 0; i < QUANTIDADE; i++) {
+            verificados[i] = Sortear();
+            if (i % 2 == 0) {
+                motor.MarcarPresenca(motor.BuscarUsuarioPorId(verificados[i][0]),
+                        motor.BuscarEventoPorId(verificados[i][1]));
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void Apagar() throws IOException {
+        motor.Encerrar();
+        DadosSinteticos.Apagar();
+    }
+
+    private int[] Sortear() {
+        int cidade = aleatorio.nextInt(usuariosPorCidade.length);
+        return new int[] { Sorteado(usuariosPorCidade[cidade]), Sorteado(futurosPorCidade[cidade]) };
+    }
+
+    private int Sorteado(int[] ids) {
+        return ids[aleatorio.nextInt(ids.length)];
+    }
+
+    @Benchmark
+    public Object MarcarPresenca() throws IOException {
+        int cidade = aleatorio.nextInt(usuariosPorCidade.length);
+        return motor.MarcarPresenca(motor.BuscarUsuarioPorId(Sorteado(usuariosPorCidade[cidade])),
+                motor.BuscarEventoPorId(Sorteado(futurosPorCidade[cidade])));
+    }
+
+    @Benchmark
+    public boolean VerificarPresencaUsuario() {
+        int[] par = verificados[proximo++ & (QUANTIDADE - 1)];
+        return motor.VerificarPresencaUsuario(par[0], motor.BuscarEventoPorId(par[1]));
+    }
+}
@@ -0,0 +1,204 @@
+package classes;
+
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Classe para lembrar os participantes de que um evento vai começar.
+// Cada presença confirmada agenda um lembrete para cada antecedência configurada (ex: 1 dia e 1 hora
+// antes do início) em uma roda de tempo (RodaTemporal), onde agendar e cancelar custam O(1) mesmo com
+// milhões de lembretes pendentes. Uma thread avança a roda a cada tick e entrega os lembretes vencidos
+// ao destino configurado. Lembretes cujo horário já passou não são agendados: na carga, eles podem ter
+// sido entregues antes de o programa parar.
+class AgendadorLembretes {
+
+    // Para onde os lembretes vencidos são enviados
+    public interface Destino {
+        void Entregar(List<Lembrete> lembretes) throws IOException;
+
+        default void Fechar() throws IOException {
+        }
+    }
+
+    public static class Lembrete {
+        private final int idUsuario;
+        private final Evento evento;
+        private final int antecedencia; // em minutos
+
+        Lembrete(int idUsuario, Evento evento, int antecedencia) {
+            this.idUsuario = idUsuario;
+            this.evento = evento;
+            this.antecedencia = antecedencia;
+        }
+
+        public int GetIdUsuario() {
+            return idUsuario;
+        }
+
+        public Evento GetEvento() {
+            return evento;
+        }
+
+        public int GetAntecedencia() {
+            return antecedencia;
+        }
+
+        @Override
+        public String toString() {
+            return "Usuário " + idUsuario + ": o evento " + evento.GetNome() + " (ID " + evento.GetId()
+                    + ") começa em " + evento.GetHorarioInicio().format(Evento.FORMATO_DATA_HORA) + " ("
+                    + antecedencia + " min)";
+        }
+    }
+
+    // Destino que anexa uma linha por lembrete a um arquivo texto
+    public static class DestinoArquivo implements Destino {
+        private final PrintWriter writer;
+
+        public DestinoArquivo(String nomeArquivo) throws IOException {
+            writer = new PrintWriter(new BufferedWriter(new FileWriter(nomeArquivo, true)));
+        }
+
+        @Override
+        public synchronized void Entregar(List<Lembrete> lembretes) throws IOException {
+            String agora = LocalDateTime.now().format(Evento.FORMATO_DATA_HORA);
+            for (Lembrete lembrete : lembretes) {
+                writer.println(agora + ";" + lembrete);
+            }
+            writer.flush();
+            if (writer.checkError()) {
+                throw new IOException("falha ao escrever o arquivo de lembretes");
+            }
+        }
+
+        @Override
+        public synchronized void Fechar() {
+            writer.close();
+        }
+    }
+
+    // Destino que só guarda os lembretes em memória (ex: para conferir o que foi entregue)
+    public static class DestinoMemoria implements Destino {
+        private final List<Lembrete> entregues = new ArrayList<>();
+
+        @Override
+        public synchronized void Entregar(List<Lembrete> lembretes) {
+            entregues.addAll(lembretes);
+        }
+
+        public synchronized List<Lembrete> GetEntregues() {
+            return new ArrayList<>(entregues);
+        }
+    }
+
+    private final int[] antecedencias; // em minutos
+    private final Destino destino;
+    private final RodaTemporal<Lembrete> roda;
+    // Tarefas de cada presença (chave: evento e usuário), para cancelar todas juntas
+    private final Map<Long, List<RodaTemporal.Tarefa<Lembrete>>> porPresenca = new HashMap<>();
+    private final long tick;
+    private ScheduledExecutorService relogio;
+
+    // Construtor; 'tick' é a resolução da roda em ms
+    public AgendadorLembretes(int[] antecedencias, Destino destino, long tick) {
+        this.antecedencias = antecedencias.clone();
+        this.destino = destino;
+        this.tick = tick;
+        this.roda = new RodaTemporal<>(tick, 64, System.currentTimeMillis());
+    }
+
+    // Método para começar a entregar os lembretes em segundo plano
+    public synchronized void Iniciar() {
+        if (relogio != null) {
+            return;
+        }
+        relogio = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "lembretes");
+            thread.setDaemon(true);
+            return thread;
+        });
+        relogio.scheduleAtFixedRate(this::EntregarVencidos, tick, tick, TimeUnit.MILLISECONDS);
+    }
+
+    // Método para agendar os lembretes de um participante do evento
+    public synchronized void Agendar(Evento evento, int idUsuario) {
+        long inicio = evento.GetHorarioInicio().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        long agora = System.currentTimeMillis();
+        List<RodaTemporal.Tarefa<Lembrete>> tarefas = null;
+        for (int antecedencia : antecedencias) {
+            long prazo = inicio - TimeUnit.MINUTES.toMillis(antecedencia);
+            if (prazo <= agora) {
+                continue;
+            }
+            if (tarefas == null) {
+                tarefas = porPresenca.computeIfAbsent(Chave(evento.GetId(), idUsuario), k -> new ArrayList<>(2));
+            }
+            tarefas.add(roda.Agendar(prazo, new Lembrete(idUsuario, evento, antecedencia)));
+        }
+    }
+
+    // Método para cancelar os lembretes pendentes de um participante do evento
+    public synchronized void Cancelar(int idEvento, int idUsuario) {
+        List<RodaTemporal.Tarefa<Lembrete>> tarefas = porPresenca.remove(Chave(idEvento, idUsuario));
+        if (tarefas != null) {
+            for (RodaTemporal.Tarefa<Lembrete> tarefa : tarefas) {
+                roda.Cancelar(tarefa);
+            }
+        }
+    }
+
+    // Quantidade de lembretes agendados que ainda não foram entregues
+    public synchronized int Pendentes() {
+        return roda.Tamanho();
+    }
+
+    // Método para avançar a roda até agora e entregar o que venceu (chamado pela thread a cada tick)
+    public void EntregarVencidos() {
+        List<Lembrete> vencidos = new ArrayList<>();
+        synchronized (this) {
+            roda.Avancar(System.currentTimeMillis(), vencidos);
+            for (Lembrete lembrete : vencidos) {
+                Long chave = Chave(lembrete.evento.GetId(), lembrete.idUsuario);
+                List<RodaTemporal.Tarefa<Lembrete>> tarefas = porPresenca.get(chave);
+                if (tarefas != null) {
+                    tarefas.removeIf(tarefa -> tarefa.GetValor() == lembrete);
+                    if (tarefas.isEmpty()) {
+                        porPresenca.remove(chave);
+                    }
+                }
+            }
+        }
+        if (vencidos.isEmpty()) {
+            return;
+        }
+        try {
+            destino.Entregar(vencidos);
+        } catch (IOException e) {
+            System.out.println("Erro ao entregar lembretes: " + e.getMessage());
+        }
+    }
+
+    // Método para parar a thread e fechar o destino; lembretes pendentes são reagendados na próxima carga
+    public void Encerrar() throws IOException {
+        synchronized (this) {
+            if (relogio != null) {
+                relogio.shutdownNow();
+            }
+        }
+        destino.Fechar();
+    }
+
+    private static long Chave(int idEvento, int idUsuario) {
+        return ((long) idEvento << 32) | (idUsuario & 0xFFFFFFFFL);
+    }
+}
@@ -0,0 +1,336 @@
+package classes;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Armazém de eventos fora do heap, para catálogos muito grandes (ligado com sistema.eventos.armazem=foraheap).
+// Cada evento ocupa uma posição (slot) em colunas de largura fixa, um int por campo, em ByteBuffers diretos;
+// nome e descrição ficam em uma área de textos separada (também direta) e endereço e cidade são códigos do
+// DicionarioTextos. O coletor de lixo não vê nada disso: não há um objeto por evento no heap.
+// Consultas por período e por cidade varrem as colunas direto, sem criar objetos; só os eventos do
+// resultado viram um Evento, criado na hora de cada acesso.
+// O que muda em um evento (participantes, vagas e lista de espera) continua no heap: o evento é "fixado"
+// (Fixar) antes da primeira alteração e, daí em diante, todo acesso a ele retorna essa mesma instância.
+// Assim como ListaConcorrente, inclusões são serializadas entre si e leituras não usam trava.
+class ArmazemEventos {
+
+    // Colunas, na ordem em que ficam no vetor de colunas
+    private static final int ID = 0;
+    private static final int INICIO = 1; // minutos desde 01/01/1970
+    private static final int FIM = 2; // minutos desde 01/01/1970
+    private static final int PARTICAO = 3; // código da cidade normalizada (ver IndiceUsuarios.Normalizar)
+    private static final int CIDADE = 4; // código da cidade como foi cadastrada
+    private static final int ENDERECO = 5;
+    private static final int CATEGORIA = 6; // Categoria.ordinal()
+    private static final int CAPACIDADE = 7;
+    private static final int NOME = 8; // posição na área de textos
+    private static final int DESCRICAO = 9; // posição na área de textos
+    private static final int COLUNAS = 10;
+
+    private static final Categoria[] CATEGORIAS = Categoria.values();
+
+    // Colunas e área de textos são trocadas por cópias maiores quando enchem; as antigas continuam válidas
+    // para quem já as leu, e as novas são publicadas antes da quantidade
+    private volatile IntBuffer[] colunas;
+    private volatile ByteBuffer textos;
+    private volatile IntBuffer slotPorId; // slot + 1 de cada ID; 0 = não existe
+    private volatile int quantidade;
+    private int fimTextos;
+    private final Map<Integer, Evento> fixados = new ConcurrentHashMap<>();
+
+    public ArmazemEventos() {
+        colunas = new IntBuffer[COLUNAS];
+        for (int i = 0; i < COLUNAS; i++) {
+            colunas[i] = NovaColuna(1024);
+        }
+        textos = ByteBuffer.allocateDirect(64 * 1024);
+        slotPorId = NovaColuna(1024);
+    }
+
+    private static IntBuffer NovaColuna(int capacidade) {
+        return ByteBuffer.allocateDirect(capacidade * Integer.BYTES).order(ByteOrder.nativeOrder()).asIntBuffer();
+    }
+
+    private static IntBuffer Ampliar(IntBuffer coluna, int capacidade) {
+        IntBuffer nova = NovaColuna(capacidade);
+        nova.put(coluna.duplicate().clear());
+        return nova;
+    }
+
+    // Método para incluir um evento; retorna false se já existe um evento com o mesmo ID
+    public synchronized boolean Adicionar(Evento evento) {
+        int id = evento.GetId();
+        if (Contem(id)) {
+            return false;
+        }
+        IntBuffer[] atuais = colunas;
+        if (quantidade == atuais[ID].capacity()) {
+            atuais = atuais.clone();
+            for (int i = 0; i < COLUNAS; i++) {
+                atuais[i] = Ampliar(atuais[i], quantidade * 2);
+            }
+            colunas = atuais;
+        }
+        IntBuffer slots = slotPorId;
+        if (id >= slots.capacity()) {
+            slots = Ampliar(slots, Math.max(id + 1, slots.capacity() * 2));
+            slotPorId = slots;
+        }
+        int slot = quantidade;
+        atuais[ID].put(slot, id);
+        atuais[INICIO].put(slot, evento.GetInicioMinutos());
+        atuais[FIM].put(slot, evento.GetFimMinutos());
+        DicionarioTextos dicionario = DicionarioTextos.COMPARTILHADO;
+        atuais[PARTICAO].put(slot, dicionario.Codigo(IndiceUsuarios.Normalizar(evento.GetCidade())));
+        atuais[CIDADE].put(slot, dicionario.Codigo(evento.GetCidade()));
+        atuais[ENDERECO].put(slot, dicionario.Codigo(evento.GetEndereco()));
+        atuais[CATEGORIA].put(slot, evento.GetCategoria().ordinal());
+        atuais[CAPACIDADE].put(slot, evento.GetCapacidade());
+        atuais[NOME].put(slot, GravarTexto(evento.GetNome()));
+        atuais[DESCRICAO].put(slot, GravarTexto(evento.GetDescricao()));
+        slots.put(id, slot + 1);
+        quantidade = slot + 1;
+        return true;
+    }
+
+    // Grava um texto (tamanho em bytes + UTF-8) no fim da área de textos e retorna a sua posição
+    private int GravarTexto(String texto) {
+        byte[] bytes = texto.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer atual = textos;
+        long necessario = (long) fimTextos + Integer.BYTES + bytes.length;
+        if (necessario > atual.capacity()) {
+            if (necessario > Integer.MAX_VALUE) {
+                throw new IllegalStateException("Área de textos fora do heap cheia (2 GB)");
+            }
+            ByteBuffer nova = ByteBuffer.allocateDirect((int) Math.min(Integer.MAX_VALUE,
+                    Math.max(necessario, atual.capacity() * 2L)));
+            nova.put(atual.duplicate().position(0).limit(fimTextos));
+            atual = nova;
+            textos = atual;
+        }
+        int posicao = fimTextos;
+        atual.putInt(posicao, bytes.length);
+        atual.put(posicao + Integer.BYTES, bytes);
+        fimTextos = posicao + Integer.BYTES + bytes.length;
+        return posicao;
+    }
+
+    private String LerTexto(int posicao) {
+        ByteBuffer atual = textos;
+        byte[] bytes = new byte[atual.getInt(posicao)];
+        atual.get(posicao + Integer.BYTES, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    public int Quantidade() {
+        return quantidade;
+    }
+
+    public boolean Contem(int id) {
+        return Slot(id) >= 0;
+    }
+
+    // Slot do evento, ou -1 se não existir; a quantidade é lida antes, para só enxergar slots já publicados
+    private int Slot(int id) {
+        int total = quantidade;
+        IntBuffer slots = slotPorId;
+        int slot = id < 0 || id >= slots.capacity() ? -1 : slots.get(id) - 1;
+        return slot < total ? slot : -1;
+    }
+
+    // Evento com o ID, ou null se não existir. Sem alterações, é uma cópia nova a cada chamada.
+    public Evento Buscar(int id) {
+        Evento fixado = fixados.get(id);
+        if (fixado != null) {
+            return fixado;
+        }
+        int slot = Slot(id);
+        return slot < 0 ? null : Criar(colunas, slot);
+    }
+
+    // Instância do evento que guarda as suas alterações; deve ser usada em tudo que altera ou lê
+    // participantes, vagas e lista de espera
+    public Evento Fixar(Evento evento) {
+        Evento fixado = fixados.get(evento.GetId());
+        return fixado != null ? fixado : fixados.computeIfAbsent(evento.GetId(), id -> evento);
+    }
+
+    // Eventos fixados, os únicos que podem ter participantes ou lista de espera
+    public Collection<Evento> Fixados() {
+        return fixados.values();
+    }
+
+    private Evento Criar(IntBuffer[] colunas, int slot) {
+        int id = colunas[ID].get(slot);
+        Evento fixado = fixados.get(id);
+        if (fixado != null) {
+            return fixado;
+        }
+        return new Evento(id, LerTexto(colunas[NOME].get(slot)), colunas[ENDERECO].get(slot),
+                colunas[CIDADE].get(slot), CATEGORIAS[colunas[CATEGORIA].get(slot)], colunas[INICIO].get(slot),
+                colunas[FIM].get(slot), LerTexto(colunas[DESCRICAO].get(slot)), colunas[CAPACIDADE].get(slot));
+    }
+
+    // Lista que cria cada evento quando é lida; 'chaves' traz o ID nos 32 bits de baixo
+    private class Vista extends AbstractList<Evento> {
+        private final long[] chaves;
+        private final int inicio;
+        private final int tamanho;
+
+        Vista(long[] chaves, int inicio, int tamanho) {
+            this.chaves = chaves;
+            this.inicio = inicio;
+            this.tamanho = tamanho;
+        }
+
+        @Override
+        public Evento get(int indice) {
+            if (indice < 0 || indice >= tamanho) {
+                throw new IndexOutOfBoundsException("Índice " + indice + " fora da lista de tamanho " + tamanho);
+            }
+            return Buscar((int) chaves[inicio + indice]);
+        }
+
+        @Override
+        public int size() {
+            return tamanho;
+        }
+    }
+
+    // Chave de ordenação: o valor da coluna nos 32 bits de cima e o ID (desempate) nos de baixo
+    private static long Chave(int valor, int id) {
+        return ((long) valor << 32) | (id & 0xFFFFFFFFL);
+    }
+
+    // Varre as colunas e retorna, ordenadas, as chaves dos eventos da partição (-1 = todas) com o valor de
+    // 'coluna' em [de, ate]. Só lê ints das colunas; nenhum Evento é criado.
+    private long[] Varrer(int coluna, int particao, int de, int ate) {
+        int total = quantidade;
+        IntBuffer[] atuais = colunas;
+        IntBuffer valores = atuais[coluna];
+        IntBuffer particoes = atuais[PARTICAO];
+        IntBuffer ids = atuais[ID];
+        long[] chaves = new long[Math.min(total, 1024)];
+        int encontrados = 0;
+        for (int slot = 0; slot < total; slot++) {
+            int valor = valores.get(slot);
+            if (valor < de || valor > ate || (particao != -1 && particoes.get(slot) != particao)) {
+                continue;
+            }
+            if (encontrados == chaves.length) {
+                chaves = Arrays.copyOf(chaves, chaves.length * 2);
+            }
+            chaves[encontrados++] = Chave(valor, ids.get(slot));
+        }
+        chaves = Arrays.copyOf(chaves, encontrados);
+        Arrays.sort(chaves);
+        return chaves;
+    }
+
+    // Código da partição de uma cidade, ou -2 se nenhum evento foi cadastrado nela (-1 = todas as cidades)
+    private static int Particao(String cidade) {
+        if (cidade == null) {
+            return -1;
+        }
+        int codigo = DicionarioTextos.COMPARTILHADO.CodigoExistente(IndiceUsuarios.Normalizar(cidade));
+        return codigo < 0 ? -2 : codigo;
+    }
+
+    // Eventos de todas as cidades, em ordem de ID. O tamanho é o da varredura: 'quantidade' pode ter
+    // crescido depois dela, com um Adicionar concorrente
+    public List<Evento> Eventos() {
+        long[] chaves = Varrer(ID, -1, Integer.MIN_VALUE, Integer.MAX_VALUE);
+        return new Vista(chaves, 0, chaves.length);
+    }
+
+    // Eventos de uma cidade, em ordem de ID (ex: para o snapshot da partição)
+    public List<Evento> EventosDaCidade(String cidade) {
+        long[] chaves = Varrer(ID, Particao(cidade), Integer.MIN_VALUE, Integer.MAX_VALUE);
+        return new Vista(chaves, 0, chaves.length);
+    }
+
+    // Eventos que começam depois de 'agora', do mais próximo para o mais distante, com a mesma ordem e
+    // os mesmos cursores de IndiceTemporal; 'cidade' nula = todas as cidades
+    public IndiceTemporal.Pagina EventosFuturos(String cidade, LocalDateTime agora, IndiceTemporal.Cursor cursor,
+            int limite) {
+        long[] chaves = Varrer(INICIO, Particao(cidade), Evento.ParaMinutos(agora) + 1, Integer.MAX_VALUE);
+        // O cursor é a chave do próximo evento a retornar
+        int primeiro = cursor == null ? 0 : Posicao(chaves, CursorParaChave(cursor));
+        int tamanho = Math.min(limite, chaves.length - primeiro);
+        int proximo = primeiro + tamanho;
+        return new IndiceTemporal.Pagina(new ArrayList<>(new Vista(chaves, primeiro, tamanho)),
+                proximo < chaves.length ? CursorDe(chaves[proximo]) : null);
+    }
+
+    // Eventos que terminaram antes de 'agora', do mais recente para o mais antigo
+    public IndiceTemporal.Pagina EventosPassados(String cidade, LocalDateTime agora, IndiceTemporal.Cursor cursor,
+            int limite) {
+        long[] chaves = Varrer(FIM, Particao(cidade), Integer.MIN_VALUE, Evento.ParaMinutosAcima(agora) - 1);
+        // As chaves estão em ordem crescente: a página é lida de trás para frente a partir do cursor
+        int ultimo = (cursor == null ? chaves.length : Posicao(chaves, CursorParaChave(cursor) + 1)) - 1;
+        int tamanho = Math.min(limite, ultimo + 1);
+        long[] pagina = new long[tamanho];
+        for (int i = 0; i < tamanho; i++) {
+            pagina[i] = chaves[ultimo - i];
+        }
+        int proximo = ultimo - tamanho;
+        return new IndiceTemporal.Pagina(new ArrayList<>(new Vista(pagina, 0, tamanho)),
+                proximo >= 0 ? CursorDe(chaves[proximo]) : null);
+    }
+
+    // Posição da primeira chave maior ou igual a 'chave'
+    private static int Posicao(long[] chaves, long chave) {
+        int posicao = Arrays.binarySearch(chaves, chave);
+        return posicao >= 0 ? posicao : -posicao - 1;
+    }
+
+    private static long CursorParaChave(IndiceTemporal.Cursor cursor) {
+        return Chave(cursor.GetHorario(), (int) cursor.GetSequencia());
+    }
+
+    private static IndiceTemporal.Cursor CursorDe(long chave) {
+        return new IndiceTemporal.Cursor((int) (chave >> 32), (int) chave);
+    }
+
+    // Eventos que se sobrepõem à janela [a, b] (início < b e término > a), ordenados pelo início, como em
+    // IndiceIntervalos
+    public List<Evento> OcorrendoEntre(LocalDateTime a, LocalDateTime b) {
+        int total = quantidade;
+        IntBuffer[] atuais = colunas;
+        IntBuffer inicios = atuais[INICIO];
+        IntBuffer fins = atuais[FIM];
+        IntBuffer ids = atuais[ID];
+        int deMinutos = Evento.ParaMinutos(a);
+        int ateMinutos = Evento.ParaMinutosAcima(b);
+        long[] chaves = new long[16];
+        int encontrados = 0;
+        for (int slot = 0; slot < total; slot++) {
+            int inicio = inicios.get(slot);
+            if (inicio >= ateMinutos || fins.get(slot) <= deMinutos) {
+                continue;
+            }
+            if (encontrados == chaves.length) {
+                chaves = Arrays.copyOf(chaves, chaves.length * 2);
+            }
+            chaves[encontrados++] = Chave(inicio, ids.get(slot));
+        }
+        Arrays.sort(chaves, 0, encontrados);
+        return new ArrayList<>(new Vista(chaves, 0, encontrados));
+    }
+
+    // Bytes ocupados fora do heap (colunas, área de textos e tabela de IDs)
+    public long BytesForaDoHeap() {
+        long bytes = (long) colunas[ID].capacity() * Integer.BYTES * COLUNAS;
+        return bytes + textos.capacity() + (long) slotPorId.capacity() * Integer.BYTES;
+    }
+}
@@ -0,0 +1,279 @@
+package classes;
+
+import java.io.*;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+// Classe para persistir registros como um snapshot completo mais um log de alterações.
+// Cada alteração é anexada ao log (custo O(1)); quando o log passa do limite configurado,
+// uma thread em segundo plano grava um snapshot novo e descarta o log antigo.
+class ArquivoLog<T> implements PersistenciaAssincrona.Descarregavel {
+
+    // Forma de gravar o snapshot
+    public interface EscritorSnapshot<T> {
+        void Gravar(List<T> registros, OutputStream destino) throws IOException;
+    }
+
+    private final File snapshot; // ex: events.data
+    private final File snapshotNovo; // snapshot sendo gravado pela compactação
+    private final File log; // ex: events.log
+    private final File logAntigo; // log congelado durante a compactação
+    private final long limiteLog; // tamanho (aproximado, em bytes) que dispara a compactação
+    private final EscritorSnapshot<T> escritor;
+    private final Supplier<List<T>> estadoAtual;
+    private final ExecutorService compactador;
+
+    private PrintWriter writer;
+    private FileOutputStream saida; // arquivo por baixo de writer, para Forcar
+    private long tamanhoLog;
+    private boolean compactando;
+
+    // Construtor para snapshots no formato texto, com uma linha por registro
+    public ArquivoLog(String nomeSnapshot, String nomeLog, long limiteLog, Function<T, String> serializador,
+            Supplier<List<T>> estadoAtual) {
+        this(nomeSnapshot, nomeLog, limiteLog, (registros, destino) -> {
+            PrintWriter snapshotWriter = new PrintWriter(new BufferedWriter(new OutputStreamWriter(destino)));
+            for (T registro : registros) {
+                snapshotWriter.println(serializador.apply(registro));
+            }
+            snapshotWriter.flush();
+        }, estadoAtual);
+    }
+
+    // Construtor
+    public ArquivoLog(String nomeSnapshot, String nomeLog, long limiteLog, EscritorSnapshot<T> escritor,
+            Supplier<List<T>> estadoAtual) {
+        this.snapshot = new File(nomeSnapshot);
+        this.snapshotNovo = new File(nomeSnapshot + ".novo");
+        this.log = new File(nomeLog);
+        this.logAntigo = new File(nomeLog + ".old");
+        this.limiteLog = limiteLog;
+        this.escritor = escritor;
+        this.estadoAtual = estadoAtual;
+        this.compactador = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "compactador-" + nomeLog);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // Método para deixar os arquivos consistentes e retornar, na ordem em que devem ser lidos,
+    // os que existem (snapshot e log). Depois disso o log fica aberto para novas alterações.
+    public synchronized List<File> PrepararCarga() throws IOException {
+        RecuperarCompactacaoInterrompida();
+        DescartarRegistroIncompleto(log);
+        List<File> arquivos = new ArrayList<>();
+        if (snapshot.exists()) {
+            arquivos.add(snapshot);
+        }
+        if (log.exists()) {
+            arquivos.add(log);
+        }
+        tamanhoLog = log.length();
+        writer = AbrirLog();
+        return arquivos;
+    }
+
+    // Método para anexar um registro ao log; ele fica em buffer até Descarregar ser chamado
+    public synchronized void Anexar(String registro) throws IOException {
+        if (writer == null) {
+            writer = AbrirLog();
+        }
+        writer.println(registro);
+        tamanhoLog += registro.length() + 1;
+        Metricas.Contar(Metricas.Contador.REGISTROS_GRAVADOS, 1);
+        Metricas.Contar(Metricas.Contador.BYTES_GRAVADOS, registro.length() + 1);
+
+        if (tamanhoLog >= limiteLog && !compactando) {
+            IniciarCompactacao();
+        }
+    }
+
+    // Método para enviar ao arquivo os registros anexados desde a última chamada
+    @Override
+    public synchronized void Descarregar() throws IOException {
+        if (writer == null) {
+            return;
+        }
+        writer.flush();
+        if (writer.checkError()) {
+            throw new IOException("falha ao escrever em " + log.getName());
+        }
+    }
+
+    // Método para forçar ao disco (fsync) o que já foi descarregado
+    @Override
+    public synchronized void Forcar() throws IOException {
+        if (writer != null) {
+            saida.getFD().sync();
+        }
+    }
+
+    // Método para fechar o log (ex: depois de uma carga só para leitura); não espera a compactação em andamento
+    public synchronized void Fechar() throws IOException {
+        compactador.shutdown();
+        if (writer != null) {
+            writer.close();
+            boolean erro = writer.checkError();
+            writer = null;
+            saida = null;
+            if (erro) {
+                throw new IOException("falha ao escrever em " + log.getName());
+            }
+        }
+    }
+
+    // Método para gravar um snapshot novo agora, esperando a gravação terminar
+    public void CompactarAgora() throws IOException {
+        Future<?> compactacao;
+        synchronized (this) {
+            while (compactando) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("compactação interrompida");
+                }
+            }
+            compactacao = IniciarCompactacao();
+        }
+        try {
+            compactacao.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("compactação interrompida");
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof UncheckedIOException
+                    ? ((UncheckedIOException) e.getCause()).getCause()
+                    : new IOException(e.getCause());
+        }
+    }
+
+    // Método para congelar o log atual e agendar a gravação de um snapshot novo
+    private Future<?> IniciarCompactacao() throws IOException {
+        List<T> copia = new ArrayList<>(estadoAtual.get());
+
+        if (writer == null) {
+            writer = AbrirLog();
+        }
+        writer.close();
+        if (writer.checkError()) {
+            throw new IOException("falha ao escrever em " + log.getName());
+        }
+        if (logAntigo.exists()) {
+            // Uma compactação anterior falhou e o log antigo ainda não está em nenhum snapshot: o log atual
+            // é juntado a ele, como na recuperação, em vez de substituí-lo
+            AnexarAoLogAntigo();
+            Files.delete(log.toPath());
+        } else {
+            Files.move(log.toPath(), logAntigo.toPath());
+        }
+        writer = AbrirLog();
+        tamanhoLog = 0;
+        compactando = true;
+
+        return compactador.submit(() -> Compactar(copia));
+    }
+
+    // Método executado em segundo plano para gravar o snapshot.
+    // O ponto de confirmação é a exclusão do log antigo: antes dela o snapshot novo é ignorado
+    // na recuperação; depois dela o snapshot novo é promovido.
+    private void Compactar(List<T> registros) {
+        long medicao = Metricas.Iniciar();
+        try {
+            try (FileOutputStream out = new FileOutputStream(snapshotNovo)) {
+                escritor.Gravar(registros, out);
+                out.getFD().sync();
+            }
+            Metricas.Contar(Metricas.Contador.SNAPSHOTS_GRAVADOS, 1);
+            Metricas.Contar(Metricas.Contador.REGISTROS_GRAVADOS, registros.size());
+            Metricas.Contar(Metricas.Contador.BYTES_GRAVADOS, snapshotNovo.length());
+            Files.delete(logAntigo.toPath());
+            PromoverSnapshotNovo();
+        } catch (IOException e) {
+            System.out.println("Erro ao compactar " + log.getName() + ": " + e.getMessage());
+            throw new UncheckedIOException(e);
+        } finally {
+            Metricas.Registrar(Metricas.Operacao.COMPACTAR_LOG, medicao);
+            synchronized (this) {
+                compactando = false;
+                notifyAll();
+            }
+        }
+    }
+
+    // Método para deixar os arquivos consistentes caso o programa tenha parado no meio de uma compactação
+    private void RecuperarCompactacaoInterrompida() throws IOException {
+        if (snapshotNovo.exists()) {
+            if (logAntigo.exists()) {
+                // O snapshot novo pode estar incompleto; o snapshot antigo + log antigo continuam válidos
+                Files.delete(snapshotNovo.toPath());
+            } else {
+                PromoverSnapshotNovo();
+            }
+        }
+        if (logAntigo.exists()) {
+            // Junta o log antigo e o atual em um só, para que a próxima compactação não sobrescreva
+            // registros que ainda não estão em nenhum snapshot
+            DescartarRegistroIncompleto(logAntigo);
+            if (log.exists()) {
+                AnexarAoLogAntigo();
+            }
+            Files.move(logAntigo.toPath(), log.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    // Uma queda no meio de uma gravação pode deixar o último registro do log pela metade (sem o fim de
+    // linha). Ele nunca foi confirmado a quem o gravou, então é cortado do arquivo: na carga ele não
+    // seria lido corretamente, e o próximo registro anexado seria juntado à mesma linha.
+    private static void DescartarRegistroIncompleto(File arquivo) throws IOException {
+        if (!arquivo.exists() || arquivo.length() == 0) {
+            return;
+        }
+        try (RandomAccessFile acesso = new RandomAccessFile(arquivo, "rw")) {
+            long fim = acesso.length();
+            while (fim > 0) {
+                acesso.seek(fim - 1);
+                if (acesso.read() == '\n') {
+                    break;
+                }
+                fim--;
+            }
+            if (fim < acesso.length()) {
+                System.out.println("Registro incompleto descartado no fim de " + arquivo.getPath() + " ("
+                        + (acesso.length() - fim) + " bytes)");
+                acesso.setLength(fim);
+            }
+        }
+    }
+
+    // Copia o log atual para o final do log antigo
+    private void AnexarAoLogAntigo() throws IOException {
+        try (OutputStream out = new FileOutputStream(logAntigo, true)) {
+            Files.copy(log.toPath(), out);
+        }
+    }
+
+    private PrintWriter AbrirLog() throws IOException {
+        saida = new FileOutputStream(log, true);
+        return new PrintWriter(new BufferedWriter(new OutputStreamWriter(saida)));
+    }
+
+    private void PromoverSnapshotNovo() throws IOException {
+        try {
+            Files.move(snapshotNovo.toPath(), snapshot.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(snapshotNovo.toPath(), snapshot.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
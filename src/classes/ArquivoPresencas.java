@@ -0,0 +1,307 @@
+package classes;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// Arquivo binário de presenças com registros de tamanho fixo:
+// (idUsuario int, idEvento int, instante long em milissegundos, flags int).
+// A marcação anexa um registro; o cancelamento liga o bit de "cancelado" no próprio registro.
+// Inscrições na lista de espera de um evento lotado são registros com o bit "espera", na ordem de chegada;
+// a promoção para presença desliga esse bit no próprio registro.
+// Uma thread em segundo plano regrava o arquivo sem os registros cancelados quando eles se acumulam.
+// Registros anexados ficam em buffer até Descarregar, para que um lote vire uma única escrita.
+class ArquivoPresencas implements PersistenciaAssincrona.Descarregavel {
+
+    // Recebe os registros ativos durante uma leitura do arquivo
+    public interface LeitorRegistro {
+        void Ler(int idUsuario, int idEvento, long instante, boolean espera);
+    }
+
+    private static final int MAGICO = 0x50525342; // "PRSB"
+    private static final int VERSAO = 1;
+    private static final int TAMANHO_CABECALHO = 8;
+    static final int TAMANHO_REGISTRO = 20;
+    private static final int POSICAO_FLAGS = 16;
+    private static final int FLAG_CANCELADO = 1;
+    private static final int FLAG_ESPERA = 2;
+
+    private final File arquivo;
+    private final File arquivoNovo;
+    private final long minimoCancelados; // só compacta a partir desta quantidade de registros cancelados
+    private final ExecutorService compactador;
+
+    private FileChannel canal;
+    private final ByteBuffer pendentes = ByteBuffer.allocate(TAMANHO_REGISTRO * 256);
+    // Índice de posições: (idEvento, idUsuario) -> posição do registro ativo no arquivo
+    private final Map<Long, Long> posicoes = new HashMap<>();
+    private long totalRegistros;
+    private long cancelados;
+    private boolean compactacaoAgendada;
+
+    // Construtor
+    public ArquivoPresencas(String nomeArquivo, long minimoCancelados) {
+        this.arquivo = new File(nomeArquivo);
+        this.arquivoNovo = new File(nomeArquivo + ".novo");
+        this.minimoCancelados = minimoCancelados;
+        this.compactador = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "compactador-" + nomeArquivo);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // Retorna false se o arquivo ainda não existia (ele é criado vazio)
+    public boolean Existe() {
+        return arquivo.exists();
+    }
+
+    // Método para abrir o arquivo, montar o índice de posições e entregar os registros ativos
+    public synchronized void Carregar(LeitorRegistro leitor) throws IOException {
+        if (arquivoNovo.exists()) {
+            Files.delete(arquivoNovo.toPath()); // compactação interrompida; o arquivo original continua válido
+        }
+        canal = Abrir(arquivo);
+        posicoes.clear();
+        totalRegistros = 0;
+        cancelados = 0;
+        Percorrer(canal, (posicao, idUsuario, idEvento, instante, flags) -> {
+            totalRegistros++;
+            if ((flags & FLAG_CANCELADO) != 0) {
+                cancelados++;
+            } else {
+                posicoes.put(Chave(idEvento, idUsuario), posicao);
+                leitor.Ler(idUsuario, idEvento, instante, (flags & FLAG_ESPERA) != 0);
+            }
+        });
+    }
+
+    // Método para entregar os registros ativos na ordem em que foram gravados
+    public synchronized void PercorrerAtivos(LeitorRegistro leitor) throws IOException {
+        Descarregar();
+        Percorrer(canal, (posicao, idUsuario, idEvento, instante, flags) -> {
+            if ((flags & FLAG_CANCELADO) == 0) {
+                leitor.Ler(idUsuario, idEvento, instante, (flags & FLAG_ESPERA) != 0);
+            }
+        });
+    }
+
+    // Método para anexar uma presença (ou inscrição na lista de espera, se 'espera') ao final do arquivo
+    // (fica em buffer até Descarregar)
+    public synchronized void Anexar(int idUsuario, int idEvento, long instante, boolean espera) throws IOException {
+        if (!pendentes.hasRemaining()) {
+            Descarregar();
+        }
+        long posicao = TAMANHO_CABECALHO + totalRegistros * TAMANHO_REGISTRO;
+        pendentes.putInt(idUsuario).putInt(idEvento).putLong(instante).putInt(espera ? FLAG_ESPERA : 0);
+        totalRegistros++;
+        posicoes.put(Chave(idEvento, idUsuario), posicao);
+    }
+
+    // Método para gravar no arquivo os registros anexados que ainda estão em buffer
+    @Override
+    public synchronized void Descarregar() throws IOException {
+        if (pendentes.position() == 0) {
+            return;
+        }
+        long posicao = TAMANHO_CABECALHO + totalRegistros * TAMANHO_REGISTRO - pendentes.position();
+        pendentes.flip();
+        int escritos = Escrever(canal, pendentes, posicao);
+        pendentes.clear();
+        Metricas.Contar(Metricas.Contador.REGISTROS_GRAVADOS, escritos / TAMANHO_REGISTRO);
+        Metricas.Contar(Metricas.Contador.BYTES_GRAVADOS, escritos);
+    }
+
+    // Método para forçar ao disco (fsync) os registros e as marcações já gravados no arquivo
+    @Override
+    public synchronized void Forcar() throws IOException {
+        if (canal != null) {
+            canal.force(false);
+        }
+    }
+
+    // Método para cancelar uma presença (ou inscrição na lista de espera) marcando o registro;
+    // retorna false se ela não existia
+    public synchronized boolean Cancelar(int idUsuario, int idEvento) throws IOException {
+        Long posicao = posicoes.remove(Chave(idEvento, idUsuario));
+        if (posicao == null) {
+            return false;
+        }
+        GravarFlags(posicao, FLAG_CANCELADO);
+        cancelados++;
+
+        if (!compactacaoAgendada && cancelados >= minimoCancelados && cancelados * 2 >= totalRegistros) {
+            compactacaoAgendada = true;
+            compactador.submit(this::Compactar);
+        }
+        return true;
+    }
+
+    // Método para transformar uma inscrição na lista de espera em presença; retorna false se ela não existia
+    public synchronized boolean Promover(int idUsuario, int idEvento) throws IOException {
+        Long posicao = posicoes.get(Chave(idEvento, idUsuario));
+        if (posicao == null) {
+            return false;
+        }
+        GravarFlags(posicao, 0);
+        return true;
+    }
+
+    private void GravarFlags(long posicao, int flags) throws IOException {
+        long inicioPendentes = TAMANHO_CABECALHO + totalRegistros * TAMANHO_REGISTRO - pendentes.position();
+        if (posicao >= inicioPendentes) {
+            // O registro ainda está no buffer
+            pendentes.putInt((int) (posicao - inicioPendentes) + POSICAO_FLAGS, flags);
+        } else {
+            ByteBuffer buffer = ByteBuffer.allocate(4);
+            buffer.putInt(flags).flip();
+            Metricas.Contar(Metricas.Contador.BYTES_GRAVADOS, Escrever(canal, buffer, posicao + POSICAO_FLAGS));
+        }
+    }
+
+    // Quantidade de presenças e inscrições na lista de espera ativas (não canceladas)
+    public synchronized int Ativos() {
+        return posicoes.size();
+    }
+
+    public synchronized void Fechar() throws IOException {
+        if (canal != null) {
+            Descarregar();
+            canal.close();
+        }
+    }
+
+    // Método executado em segundo plano para regravar o arquivo apenas com os registros ativos
+    private synchronized void Compactar() {
+        compactacaoAgendada = false;
+        long medicao = Metricas.Iniciar();
+        FileChannel novo = null;
+        try {
+            // Uma compactação que falhou antes, nesta execução, pode ter deixado o arquivo novo pela metade
+            Files.deleteIfExists(arquivoNovo.toPath());
+            novo = Abrir(arquivoNovo);
+            Descarregar();
+            Map<Long, Long> novasPosicoes = CopiarAtivos(novo);
+            novo.force(true);
+
+            // O canal antigo continua aberto até a troca dar certo: se ela falhar, nada muda. Depois dela,
+            // o canal do arquivo novo já é o do arquivo, sem precisar reabri-lo.
+            try {
+                Files.move(arquivoNovo.toPath(), arquivo.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE);
+            } catch (AtomicMoveNotSupportedException e) {
+                Files.move(arquivoNovo.toPath(), arquivo.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+            FileChannel antigo = canal;
+            canal = novo;
+            novo = null;
+            posicoes.clear();
+            posicoes.putAll(novasPosicoes);
+            totalRegistros = novasPosicoes.size();
+            cancelados = 0;
+            antigo.close();
+        } catch (IOException e) {
+            System.out.println("Erro ao compactar " + arquivo.getName() + ": " + e.getMessage());
+        } finally {
+            if (novo != null) {
+                // A troca não aconteceu: descarta o arquivo novo e continua com o original
+                try {
+                    novo.close();
+                    Files.deleteIfExists(arquivoNovo.toPath());
+                } catch (IOException e) {
+                    System.out.println("Erro ao descartar " + arquivoNovo.getName() + ": " + e.getMessage());
+                }
+            }
+            Metricas.Registrar(Metricas.Operacao.COMPACTAR_PRESENCAS, medicao);
+        }
+    }
+
+    // Copia os registros ativos para 'destino' e retorna as novas posições deles
+    private Map<Long, Long> CopiarAtivos(FileChannel destino) throws IOException {
+        Map<Long, Long> novasPosicoes = new HashMap<>();
+        ByteBuffer buffer = ByteBuffer.allocate(TAMANHO_REGISTRO * 1024);
+        long[] posicaoEscrita = { TAMANHO_CABECALHO };
+        Percorrer(canal, (posicao, idUsuario, idEvento, instante, flags) -> {
+            if ((flags & FLAG_CANCELADO) != 0) {
+                return;
+            }
+            if (!buffer.hasRemaining()) {
+                buffer.flip();
+                posicaoEscrita[0] += Escrever(destino, buffer, posicaoEscrita[0]);
+                buffer.clear();
+            }
+            novasPosicoes.put(Chave(idEvento, idUsuario), posicaoEscrita[0] + buffer.position());
+            buffer.putInt(idUsuario).putInt(idEvento).putLong(instante).putInt(flags);
+        });
+        buffer.flip();
+        Escrever(destino, buffer, posicaoEscrita[0]);
+        return novasPosicoes;
+    }
+
+    private interface LeitorBruto {
+        void Ler(long posicao, int idUsuario, int idEvento, long instante, int flags) throws IOException;
+    }
+
+    private static void Percorrer(FileChannel origem, LeitorBruto leitor) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(TAMANHO_REGISTRO * 1024);
+        long posicao = TAMANHO_CABECALHO;
+        long fim = origem.size();
+        while (posicao + TAMANHO_REGISTRO <= fim) {
+            buffer.clear();
+            buffer.limit((int) Math.min(buffer.capacity(), (fim - posicao) / TAMANHO_REGISTRO * TAMANHO_REGISTRO));
+            while (buffer.hasRemaining()) {
+                if (origem.read(buffer, posicao + buffer.position()) < 0) {
+                    break;
+                }
+            }
+            buffer.flip();
+            Metricas.Contar(Metricas.Contador.BYTES_LIDOS, buffer.remaining());
+            Metricas.Contar(Metricas.Contador.REGISTROS_LIDOS, buffer.remaining() / TAMANHO_REGISTRO);
+            while (buffer.remaining() >= TAMANHO_REGISTRO) {
+                leitor.Ler(posicao, buffer.getInt(), buffer.getInt(), buffer.getLong(), buffer.getInt());
+                posicao += TAMANHO_REGISTRO;
+            }
+        }
+    }
+
+    // Abre o arquivo para leitura e escrita, gravando o cabeçalho se ele estiver vazio
+    private static FileChannel Abrir(File arquivo) throws IOException {
+        FileChannel canal = FileChannel.open(arquivo.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        ByteBuffer cabecalho = ByteBuffer.allocate(TAMANHO_CABECALHO);
+        if (canal.size() == 0) {
+            cabecalho.putInt(MAGICO).putInt(VERSAO).flip();
+            Escrever(canal, cabecalho, 0);
+        } else {
+            canal.read(cabecalho, 0);
+            cabecalho.flip();
+            if (cabecalho.remaining() < TAMANHO_CABECALHO || cabecalho.getInt() != MAGICO
+                    || cabecalho.getInt() != VERSAO) {
+                canal.close();
+                throw new IOException(arquivo.getName() + " não é um arquivo de presenças válido");
+            }
+        }
+        return canal;
+    }
+
+    private static int Escrever(FileChannel destino, ByteBuffer buffer, long posicao) throws IOException {
+        int escritos = 0;
+        while (buffer.hasRemaining()) {
+            escritos += destino.write(buffer, posicao + escritos);
+        }
+        return escritos;
+    }
+
+    private static long Chave(int idEvento, int idUsuario) {
+        return ((long) idEvento << 32) | (idUsuario & 0xFFFFFFFFL);
+    }
+}
@@ -0,0 +1,185 @@
+package classes;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+// Classe para carregar arquivos de registros (uma linha por registro) em paralelo.
+// Cada arquivo é dividido em trechos de bytes que terminam em fim de linha; os trechos são lidos
+// e interpretados no pool fork-join e o resultado é montado na ordem original das linhas.
+class CarregadorParalelo {
+
+    // Converte uma linha em registro; 'idPadrao' é a posição da linha (a partir de 1) no conjunto de arquivos
+    public interface ParserLinha<T> {
+        T Ler(ParserRegistros parser, String linha, int idPadrao);
+    }
+
+    // Tempos de uma carga, em nanossegundos
+    public static class Tempos {
+        long leitura;
+        long parse;
+        long indices;
+        int registros;
+
+        @Override
+        public String toString() {
+            return "leitura " + leitura / 1_000_000 + " ms, parse " + parse / 1_000_000 + " ms, índices "
+                    + indices / 1_000_000 + " ms (" + registros + " registros)";
+        }
+    }
+
+    // Trechos menores que isso não compensam uma tarefa separada
+    private static final long TAMANHO_MINIMO_TRECHO = 1024 * 1024;
+
+    private static class Trecho {
+        final File arquivo;
+        final long inicio;
+        final long fim;
+        byte[] bytes;
+        int linhas; // linhas não vazias no trecho
+        int primeiraLinha; // quantidade de linhas não vazias antes deste trecho
+
+        Trecho(File arquivo, long inicio, long fim) {
+            this.arquivo = arquivo;
+            this.inicio = inicio;
+            this.fim = fim;
+        }
+    }
+
+    // Método para carregar os arquivos, na ordem informada, como uma única sequência de registros
+    public static <T> List<T> Carregar(List<File> arquivos, ParserLinha<T> parserLinha, Tempos tempos)
+            throws IOException {
+        long inicio = System.nanoTime();
+        List<Trecho> trechos = new ArrayList<>();
+        for (File arquivo : arquivos) {
+            trechos.addAll(Dividir(arquivo));
+        }
+        try {
+            trechos.parallelStream().forEach(CarregadorParalelo::Ler);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        int totalLinhas = 0;
+        for (Trecho trecho : trechos) {
+            trecho.primeiraLinha = totalLinhas;
+            totalLinhas += trecho.linhas;
+        }
+        long lido = System.nanoTime();
+
+        Charset charset = Charset.defaultCharset();
+        List<List<T>> partes = trechos.parallelStream()
+                .map(trecho -> Interpretar(trecho, charset, parserLinha))
+                .collect(Collectors.toList());
+        List<T> registros = new ArrayList<>(totalLinhas);
+        for (List<T> parte : partes) {
+            registros.addAll(parte);
+        }
+
+        tempos.leitura = lido - inicio;
+        tempos.parse = System.nanoTime() - lido;
+        tempos.registros = registros.size();
+        Metricas.Contar(Metricas.Contador.REGISTROS_LIDOS, registros.size());
+        return registros;
+    }
+
+    // Divide o arquivo em trechos cujos limites ficam logo depois de um '\n'
+    private static List<Trecho> Dividir(File arquivo) throws IOException {
+        List<Trecho> trechos = new ArrayList<>();
+        long tamanho = arquivo.length();
+        if (tamanho == 0) {
+            return trechos;
+        }
+        int quantidade = (int) Math.max(1,
+                Math.min(tamanho / TAMANHO_MINIMO_TRECHO, ForkJoinPool.getCommonPoolParallelism() * 4L));
+
+        try (FileChannel canal = FileChannel.open(arquivo.toPath(), StandardOpenOption.READ)) {
+            long inicio = 0;
+            for (int i = 1; i <= quantidade && inicio < tamanho; i++) {
+                long fim = i == quantidade ? tamanho : ProximoFimDeLinha(canal, Math.max(inicio, tamanho * i / quantidade));
+                if (fim > inicio) {
+                    trechos.add(new Trecho(arquivo, inicio, fim));
+                    inicio = fim;
+                }
+            }
+        }
+        return trechos;
+    }
+
+    // Posição logo depois do primeiro '\n' a partir de 'posicao' (ou o fim do arquivo)
+    private static long ProximoFimDeLinha(FileChannel canal, long posicao) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(8192);
+        while (true) {
+            buffer.clear();
+            int lidos = canal.read(buffer, posicao);
+            if (lidos <= 0) {
+                return canal.size();
+            }
+            for (int i = 0; i < lidos; i++) {
+                if (buffer.get(i) == '\n') {
+                    return posicao + i + 1;
+                }
+            }
+            posicao += lidos;
+        }
+    }
+
+    // Lê os bytes do trecho e conta as linhas não vazias
+    private static void Ler(Trecho trecho) {
+        try (FileChannel canal = FileChannel.open(trecho.arquivo.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer buffer = ByteBuffer.allocate((int) (trecho.fim - trecho.inicio));
+            while (buffer.hasRemaining() && canal.read(buffer, trecho.inicio + buffer.position()) > 0) {
+                // continua até preencher o trecho
+            }
+            trecho.bytes = buffer.array();
+            Metricas.Contar(Metricas.Contador.BYTES_LIDOS, trecho.bytes.length);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        int linhas = 0;
+        boolean linhaComConteudo = false;
+        for (byte b : trecho.bytes) {
+            if (b == '\n') {
+                if (linhaComConteudo) {
+                    linhas++;
+                }
+                linhaComConteudo = false;
+            } else if (b != '\r') {
+                linhaComConteudo = true;
+            }
+        }
+        trecho.linhas = linhaComConteudo ? linhas + 1 : linhas;
+    }
+
+    private static <T> List<T> Interpretar(Trecho trecho, Charset charset, ParserLinha<T> parserLinha) {
+        ParserRegistros parser = new ParserRegistros();
+        String texto = new String(trecho.bytes, charset);
+        trecho.bytes = null;
+        List<T> registros = new ArrayList<>(trecho.linhas);
+        int posicaoLinha = trecho.primeiraLinha;
+        int inicio = 0;
+        while (inicio < texto.length()) {
+            int fim = texto.indexOf('\n', inicio);
+            if (fim < 0) {
+                fim = texto.length();
+            }
+            int fimConteudo = fim;
+            while (fimConteudo > inicio && texto.charAt(fimConteudo - 1) == '\r') {
+                fimConteudo--;
+            }
+            if (fimConteudo > inicio) {
+                registros.add(parserLinha.Ler(parser, texto.substring(inicio, fimConteudo), ++posicaoLinha));
+            }
+            inicio = fim + 1;
+        }
+        return registros;
+    }
+}
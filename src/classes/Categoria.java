@@ -0,0 +1,45 @@
+package classes;
+
+import java.util.Locale;
+
+// Categorias de evento aceitas pelo sistema. O nome é o texto gravado nos arquivos e mostrado ao usuário.
+enum Categoria {
+    FESTAS("festas"),
+    EVENTOS_ESPORTIVOS("eventos esportivos"),
+    SHOWS("shows");
+
+    private final String nome;
+
+    Categoria(String nome) {
+        this.nome = nome;
+    }
+
+    public String GetNome() {
+        return nome;
+    }
+
+    // Categoria com o nome informado (sem diferenciar maiúsculas de minúsculas), ou null se não existir
+    public static Categoria De(String nome) {
+        String normalizado = nome.trim().toLowerCase(Locale.ROOT);
+        for (Categoria categoria : values()) {
+            if (categoria.nome.equals(normalizado)) {
+                return categoria;
+            }
+        }
+        return null;
+    }
+
+    // Como De, mas lança IllegalArgumentException se a categoria não existir
+    public static Categoria Ler(String nome) {
+        Categoria categoria = De(nome);
+        if (categoria == null) {
+            throw new IllegalArgumentException("Categoria inválida: " + nome);
+        }
+        return categoria;
+    }
+
+    @Override
+    public String toString() {
+        return nome;
+    }
+}
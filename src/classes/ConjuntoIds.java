@@ -0,0 +1,72 @@
+package classes;
+
+import java.util.Arrays;
+
+// Conjunto compacto de IDs guardado como um vetor de int ordenado.
+// A consulta é uma busca binária (O(log n)) e não cria objetos por elemento.
+class ConjuntoIds {
+
+    private static final int[] SEM_IDS = new int[0];
+
+    private int[] ids = SEM_IDS; // o vetor só é criado no primeiro ID, já que muitos conjuntos ficam vazios
+    private int tamanho;
+
+    public boolean Contem(int id) {
+        return Arrays.binarySearch(ids, 0, tamanho, id) >= 0;
+    }
+
+    // Retorna false se o ID já fazia parte do conjunto
+    public boolean Adicionar(int id) {
+        int posicao = Arrays.binarySearch(ids, 0, tamanho, id);
+        if (posicao >= 0) {
+            return false;
+        }
+        posicao = -posicao - 1;
+        if (tamanho == ids.length) {
+            ids = Arrays.copyOf(ids, Math.max(4, tamanho * 2));
+        }
+        System.arraycopy(ids, posicao, ids, posicao + 1, tamanho - posicao);
+        ids[posicao] = id;
+        tamanho++;
+        return true;
+    }
+
+    // Retorna false se o ID não fazia parte do conjunto
+    public boolean Remover(int id) {
+        int posicao = Arrays.binarySearch(ids, 0, tamanho, id);
+        if (posicao < 0) {
+            return false;
+        }
+        System.arraycopy(ids, posicao + 1, ids, posicao, tamanho - posicao - 1);
+        tamanho--;
+        return true;
+    }
+
+    public int Tamanho() {
+        return tamanho;
+    }
+
+    public boolean EstaVazio() {
+        return tamanho == 0;
+    }
+
+    // Retorna o i-ésimo menor ID do conjunto
+    public int Get(int indice) {
+        if (indice >= tamanho) {
+            throw new IndexOutOfBoundsException(indice);
+        }
+        return ids[indice];
+    }
+
+    public int[] ParaArray() {
+        return Arrays.copyOf(ids, tamanho);
+    }
+
+    // Cópia independente do conjunto, com espaço para mais um ID
+    public ConjuntoIds Copiar() {
+        ConjuntoIds copia = new ConjuntoIds();
+        copia.ids = Arrays.copyOf(ids, Math.max(tamanho + 1, 4));
+        copia.tamanho = tamanho;
+        return copia;
+    }
+}
@@ -0,0 +1,53 @@
+package classes;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.List;
+
+// Conversor do catálogo de eventos entre o formato texto (separado por ';') e o snapshot binário.
+// Uso: java classes.ConversorEventos binario <events.data> <destino>
+//      java classes.ConversorEventos texto <snapshot binário> <destino>
+public class ConversorEventos {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 3 || !(args[0].equals("binario") || args[0].equals("texto"))) {
+            System.out.println("Uso: ConversorEventos (binario|texto) <origem> <destino>");
+            return;
+        }
+        File origem = new File(args[1]);
+        File destino = new File(args[2]);
+        if (args[0].equals("binario")) {
+            ParaBinario(origem, destino);
+        } else {
+            ParaTexto(origem, destino);
+        }
+        System.out.println("Arquivo convertido: " + destino);
+    }
+
+    // Método para converter um arquivo de eventos no formato texto para o snapshot binário
+    public static void ParaBinario(File texto, File binario) throws IOException {
+        List<File> arquivos = new ArrayList<>();
+        arquivos.add(texto);
+        List<Evento> eventos = CarregadorParalelo.Carregar(arquivos, ParserRegistros::LerEvento,
+                new CarregadorParalelo.Tempos());
+        try (OutputStream out = new FileOutputStream(binario)) {
+            SnapshotEventos.Gravar(eventos, out);
+        }
+    }
+
+    // Método para converter um snapshot binário para o formato texto
+    public static void ParaTexto(File binario, File texto) throws IOException {
+        SnapshotEventos snapshot = SnapshotEventos.Abrir(binario);
+        try (PrintWriter writer = new PrintWriter(new BufferedWriter(new FileWriter(texto)))) {
+            for (int i = 0; i < snapshot.size(); i++) {
+                writer.println(snapshot.Ler(i).toFileString());
+            }
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package classes;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Dicionário de textos que se repetem muito entre os registros (cidades, endereços): cada texto
+// distinto é guardado uma única vez e os registros guardam só o seu código inteiro. Códigos nunca
+// mudam nem são removidos. Buscar o texto de um código não usa trava; só textos novos são serializados.
+class DicionarioTextos {
+
+    // Dicionário usado por Evento e Usuario
+    static final DicionarioTextos COMPARTILHADO = new DicionarioTextos();
+
+    private final Map<String, Integer> codigos = new ConcurrentHashMap<>();
+    private final List<String> textos = new ListaConcorrente<>();
+
+    // Código do texto, incluindo-o no dicionário se for novo
+    public int Codigo(String texto) {
+        Integer codigo = codigos.get(texto);
+        if (codigo != null) {
+            return codigo;
+        }
+        synchronized (this) {
+            codigo = codigos.get(texto);
+            if (codigo == null) {
+                codigo = textos.size();
+                textos.add(texto);
+                codigos.put(texto, codigo);
+            }
+            return codigo;
+        }
+    }
+
+    // Código do texto, ou -1 se ele não está no dicionário (sem incluí-lo)
+    public int CodigoExistente(String texto) {
+        Integer codigo = codigos.get(texto);
+        return codigo == null ? -1 : codigo;
+    }
+
+    public String Texto(int codigo) {
+        return textos.get(codigo);
+    }
+
+    // Quantidade de textos distintos
+    public int Tamanho() {
+        return textos.size();
+    }
+}
@@ -1,103 +1,225 @@
 package classes;
 
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 
+// Registro compacto: categoria como enum, endereço e cidade como códigos no DicionarioTextos
+// compartilhado e horários como minutos desde 01/01/1970 (horário local, sem fuso), em vez de um
+// objeto LocalDateTime por horário. Os getters montam os objetos quando são pedidos.
 public class Evento {
 
+    static final DateTimeFormatter FORMATO_DATA_HORA = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
+
     // Variaveis
-    private String nome;
-    private String endereco;
-    private String cidade;
-    private String categoria;
-    private LocalDateTime horarioInicio;
-    private LocalDateTime horarioFim;
-    private String descricao;
-    private List<Usuario> participantes;
+    private final int id; // ID unico do evento
+    private final String nome;
+    private final int codigoEndereco; // em DicionarioTextos.COMPARTILHADO
+    private final int codigoCidade; // em DicionarioTextos.COMPARTILHADO
+    private final Categoria categoria;
+    private final int inicio; // minutos desde 01/01/1970
+    private final int fim; // minutos desde 01/01/1970
+    private final String descricao;
+    private final int capacidade; // máximo de participantes; 0 = sem limite
+    private final ConjuntoIds participantes; // IDs dos usuários com presença marcada (protegido pela trava do evento em RegistroPresencas)
+    private volatile int vagasOcupadas; // alteradas sob a trava do evento em RegistroPresencas; lidas sem trava
+    private LinkedHashSet<Integer> listaEspera; // IDs em ordem de chegada, criada na primeira inscrição (protegida como participantes)
 
     // Construtor
-    public Evento(String nome, String endereco, String cidade, String categoria, LocalDateTime horarioInicio,
+    public Evento(int id, String nome, String endereco, String cidade, String categoria, LocalDateTime horarioInicio,
             LocalDateTime horarioFim,
             String descricao) {
+        this(id, nome, endereco, cidade, categoria, horarioInicio, horarioFim, descricao, 0);
+    }
+
+    // Construtor para eventos com capacidade máxima (0 = sem limite);
+    // lança IllegalArgumentException se a categoria não existir
+    public Evento(int id, String nome, String endereco, String cidade, String categoria, LocalDateTime horarioInicio,
+            LocalDateTime horarioFim, String descricao, int capacidade) {
+        this(id, nome, endereco, cidade, Categoria.Ler(categoria), ParaMinutos(horarioInicio),
+                ParaMinutos(horarioFim), descricao, capacidade);
+    }
+
+    // Construtor usado na carga, com os horários já em minutos desde 01/01/1970
+    Evento(int id, String nome, String endereco, String cidade, Categoria categoria, int inicio, int fim,
+            String descricao, int capacidade) {
+        this(id, nome, DicionarioTextos.COMPARTILHADO.Codigo(endereco), DicionarioTextos.COMPARTILHADO.Codigo(cidade),
+                categoria, inicio, fim, descricao, capacidade);
+    }
+
+    // Construtor usado pelo ArmazemEventos, com endereço e cidade já como códigos do dicionário
+    Evento(int id, String nome, int codigoEndereco, int codigoCidade, Categoria categoria, int inicio, int fim,
+            String descricao, int capacidade) {
+        if (capacidade < 0) {
+            throw new IllegalArgumentException("A capacidade não pode ser negativa");
+        }
+        this.id = id;
         this.nome = nome;
-        this.endereco = endereco;
-        this.cidade = cidade;
+        this.codigoEndereco = codigoEndereco;
+        this.codigoCidade = codigoCidade;
         this.categoria = categoria;
-        this.horarioInicio = horarioInicio;
-        this.horarioFim = horarioFim;
+        this.inicio = inicio;
+        this.fim = fim;
         this.descricao = descricao;
-        this.participantes = new ArrayList<>();
+        this.capacidade = capacidade;
+        this.participantes = new ConjuntoIds();
+    }
+
+    // Minutos desde 01/01/1970 de um horário, desprezando segundos
+    static int ParaMinutos(LocalDateTime horario) {
+        return (int) Math.floorDiv(horario.toEpochSecond(ZoneOffset.UTC), 60);
+    }
+
+    // Minutos desde 01/01/1970 de um horário, arredondando segundos para o minuto seguinte
+    static int ParaMinutosAcima(LocalDateTime horario) {
+        int minutos = ParaMinutos(horario);
+        return horario.getSecond() == 0 && horario.getNano() == 0 ? minutos : minutos + 1;
+    }
+
+    static LocalDateTime DeMinutos(int minutos) {
+        return LocalDateTime.ofEpochSecond(minutos * 60L, 0, ZoneOffset.UTC);
     }
 
     // Getters e setters
+    public int GetId() {
+        return id;
+    }
+
     public String GetNome() {
         return nome;
     }
 
     public String GetEndereco() {
-        return endereco;
+        return DicionarioTextos.COMPARTILHADO.Texto(codigoEndereco);
     }
 
     public String GetCidade() {
-        return cidade;
+        return DicionarioTextos.COMPARTILHADO.Texto(codigoCidade);
     }
 
-    public String GetCategoria() {
+    public Categoria GetCategoria() {
         return categoria;
     }
 
     public LocalDateTime GetHorarioInicio() {
-        return horarioInicio;
+        return DeMinutos(inicio);
     }
 
     public LocalDateTime GetHorarioFim() {
-        return horarioFim;
+        return DeMinutos(fim);
+    }
+
+    // Início em minutos desde 01/01/1970, sem criar um LocalDateTime (para índices e ordenações)
+    public int GetInicioMinutos() {
+        return inicio;
+    }
+
+    // Término em minutos desde 01/01/1970, sem criar um LocalDateTime
+    public int GetFimMinutos() {
+        return fim;
     }
 
     public String GetDescricao() {
         return descricao;
     }
 
-    public List<Usuario> GetParticipantes() {
+    public int GetCapacidade() {
+        return capacidade;
+    }
+
+    public int GetVagasOcupadas() {
+        return vagasOcupadas;
+    }
+
+    // Método para reservar uma vaga; retorna false se o evento está lotado. Como OcuparVaga e LiberarVaga,
+    // só pode ser chamado com a trava de escrita do evento (RegistroPresencas.TravaDoEvento)
+    public boolean ReservarVaga() {
+        if (capacidade > 0 && vagasOcupadas >= capacidade) {
+            return false;
+        }
+        vagasOcupadas++;
+        return true;
+    }
+
+    // Método para ocupar uma vaga mesmo acima da capacidade (ex: presenças lidas do arquivo)
+    public void OcuparVaga() {
+        vagasOcupadas++;
+    }
+
+    public void LiberarVaga() {
+        vagasOcupadas--;
+    }
+
+    public ConjuntoIds GetParticipantes() {
         return participantes;
     }
 
-    public void AdicionarParticipante(Usuario usuario) {
-        participantes.add(usuario);
+    public boolean PossuiParticipante(int idUsuario) {
+        return participantes.Contem(idUsuario);
+    }
+
+    // Retorna false se o usuário já estava presente
+    public boolean AdicionarParticipante(Usuario usuario) {
+        return participantes.Adicionar(usuario.GetId());
+    }
+
+    // Retorna false se o usuário não estava presente
+    public boolean RemoverParticipante(int idUsuario) {
+        return participantes.Remover(idUsuario);
+    }
+
+    // Retorna false se o usuário já estava na lista de espera
+    public boolean EntrarNaEspera(int idUsuario) {
+        if (listaEspera == null) {
+            listaEspera = new LinkedHashSet<>();
+        }
+        return listaEspera.add(idUsuario);
+    }
+
+    // Retorna false se o usuário não estava na lista de espera
+    public boolean SairDaEspera(int idUsuario) {
+        return listaEspera != null && listaEspera.remove(idUsuario);
     }
 
-    public void RemoverParticipante(Usuario usuario) {
-        participantes.remove(usuario);
+    public boolean EstaNaEspera(int idUsuario) {
+        return listaEspera != null && listaEspera.contains(idUsuario);
+    }
+
+    // Retira e retorna o primeiro da lista de espera, ou -1 se ela estiver vazia
+    public int ProximoDaEspera() {
+        if (listaEspera == null || listaEspera.isEmpty()) {
+            return -1;
+        }
+        Iterator<Integer> primeiro = listaEspera.iterator();
+        int idUsuario = primeiro.next();
+        primeiro.remove();
+        return idUsuario;
+    }
+
+    public int TamanhoEspera() {
+        return listaEspera == null ? 0 : listaEspera.size();
+    }
+
+    // Cópia da lista de espera, em ordem de chegada
+    public List<Integer> GetListaEspera() {
+        return listaEspera == null ? new ArrayList<>() : new ArrayList<>(listaEspera);
     }
 
     // Método para converter o evento para uma string no formato de linha do arquivo
     public String toFileString() {
-        DateTimeFormatter formatterDate = DateTimeFormatter.ofPattern("dd/MM/yyyy");
-        DateTimeFormatter formatterTime = DateTimeFormatter.ofPattern("HH:mm");
-        return nome + ";" + endereco + ";" + cidade + ";" + categoria + ";"
-                + horarioInicio.format(formatterDate) + " " + horarioInicio.format(formatterTime) + ";"
-                + horarioFim.format(formatterDate) + " " + horarioFim.format(formatterTime) + ";" + descricao;
-    }
-
-    // Método para criar um evento a partir de uma linha do arquivo
-    public static Evento fromFileString(String line) {
-        String[] parts = line.split(";");
-        String nome = parts[0];
-        String endereco = parts[1];
-        String cidade = parts[2];
-        String categoria = parts[3];
-        LocalDateTime horarioInicio = LocalDateTime.parse(parts[4].trim(),
-                DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm"));
-        LocalDateTime horarioFim = LocalDateTime.parse(parts[5].trim(),
-                DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm"));
-        // DateTimeFormatter formatterDateTime =
-        // DateTimeFormatter.ofPattern("dd/MM/yyyyHH:mm");
-        // LocalDateTime horarioInicio = LocalDateTime.parse(parts[4],
-        // formatterDateTime);
-        // LocalDateTime horarioFim = LocalDateTime.parse(parts[5], formatterDateTime);
-        String descricao = parts[6];
-        return new Evento(nome, endereco, cidade, categoria, horarioInicio, horarioFim, descricao);
+        return id + ";" + nome + ";" + GetEndereco() + ";" + GetCidade() + ";" + categoria.GetNome() + ";"
+                + capacidade + ";" + GetHorarioInicio().format(FORMATO_DATA_HORA) + ";"
+                + GetHorarioFim().format(FORMATO_DATA_HORA) + ";" + descricao;
+    }
+
+    // Método para criar um evento a partir de uma linha do arquivo.
+    // Linhas no formato antigo (sem ID, com a data na quinta coluna) recebem 'idPadrao'.
+    // Para carregar muitas linhas, prefira reaproveitar um ParserRegistros.
+    public static Evento fromFileString(String line, int idPadrao) {
+        return new ParserRegistros().LerEvento(line, idPadrao);
     }
 }
\ No newline at end of file
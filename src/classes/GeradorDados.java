@@ -0,0 +1,77 @@
+package classes;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.time.LocalDateTime;
+import java.util.Random;
+
+// Gerador de eventos e usuários sintéticos para as medições (jmh/classes) e os testes. Com a mesma
+// semente, gera sempre os mesmos registros, na mesma ordem; só os horários dependem de 'base' (ex: o
+// início do dia), para que a proporção de eventos passados, em andamento e futuros seja sempre a mesma.
+class GeradorDados {
+
+    static final long SEMENTE_PADRAO = 42;
+
+    private static final String[] CIDADES = { "Recife", "Olinda", "Natal", "São Paulo", "Rio de Janeiro",
+            "Salvador", "Fortaleza", "Curitiba", "Porto Alegre", "Belo Horizonte", "Manaus", "Belém", "Goiânia",
+            "Florianópolis", "Vitória", "João Pessoa", "Maceió", "Aracaju", "Teresina", "São Luís" };
+    private static final String[] NOMES = { "Ana", "Bruno", "Carla", "Diego", "Elisa", "Fábio", "Gabriela",
+            "Heitor", "Isabela", "João", "Larissa", "Marcos", "Natália", "Otávio", "Paula", "Rafael", "Sofia",
+            "Tiago", "Vitória", "Yuri" };
+    private static final String[] SOBRENOMES = { "Silva", "Santos", "Oliveira", "Souza", "Lima", "Pereira",
+            "Costa", "Ferreira", "Almeida", "Carvalho", "Gomes", "Ribeiro", "Martins", "Araújo", "Barbosa" };
+    private static final String[] TIPOS = { "Show", "Festa", "Jogo", "Festival", "Campeonato", "Baile" };
+    private static final Categoria[] CATEGORIAS = Categoria.values();
+
+    private final Random aleatorio;
+    private final int base; // minutos desde 01/01/1970
+
+    public GeradorDados(long semente, LocalDateTime base) {
+        this.aleatorio = new Random(semente);
+        this.base = Evento.ParaMinutos(base);
+    }
+
+    // Evento com início sorteado entre um ano antes e um ano depois da base, com duração de 1 a 12 horas
+    public Evento Evento(int id) {
+        int inicio = base + aleatorio.nextInt(2 * 365 * 1440) - 365 * 1440;
+        int fim = inicio + 60 + aleatorio.nextInt(11 * 60);
+        String cidade = CIDADES[aleatorio.nextInt(CIDADES.length)];
+        int capacidade = aleatorio.nextInt(4) == 0 ? 50 + aleatorio.nextInt(500) : 0;
+        return new Evento(id, TIPOS[aleatorio.nextInt(TIPOS.length)] + " " + id,
+                "Rua " + (1 + aleatorio.nextInt(500)) + ", " + (1 + aleatorio.nextInt(2000)), cidade,
+                CATEGORIAS[aleatorio.nextInt(CATEGORIAS.length)], inicio, fim, "Evento sintético " + id, capacidade);
+    }
+
+    public Usuario Usuario(int id) {
+        String nome = NOMES[aleatorio.nextInt(NOMES.length)];
+        String sobrenome = SOBRENOMES[aleatorio.nextInt(SOBRENOMES.length)];
+        return new Usuario(id, nome, sobrenome, nome.toLowerCase() + "." + id + "@exemplo.com",
+                CIDADES[aleatorio.nextInt(CIDADES.length)]);
+    }
+
+    // Nome completo sorteado entre os que o gerador usa (para buscas por nome)
+    public String NomeCompleto() {
+        return NOMES[aleatorio.nextInt(NOMES.length)] + " " + SOBRENOMES[aleatorio.nextInt(SOBRENOMES.length)];
+    }
+
+    // Método para gravar eventos com IDs de 1 a 'quantidade' no formato de linha de events.data
+    public void GravarEventos(int quantidade, File destino) throws IOException {
+        try (PrintWriter writer = new PrintWriter(new BufferedWriter(new FileWriter(destino), 1 << 16))) {
+            for (int id = 1; id <= quantidade; id++) {
+                writer.println(Evento(id).toFileString());
+            }
+        }
+    }
+
+    // Método para gravar usuários com IDs de 1 a 'quantidade' no formato de linha de users.data
+    public void GravarUsuarios(int quantidade, File destino) throws IOException {
+        try (PrintWriter writer = new PrintWriter(new BufferedWriter(new FileWriter(destino), 1 << 16))) {
+            for (int id = 1; id <= quantidade; id++) {
+                writer.println(Usuario(id).toFileString());
+            }
+        }
+    }
+}
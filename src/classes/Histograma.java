@@ -0,0 +1,93 @@
+package classes;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Histograma de latências no estilo HDR: valores até 31 têm balde próprio e, acima disso, cada potência
+// de 2 é dividida em 16 baldes, então o erro de um percentil fica abaixo de ~6% em qualquer escala
+// (de nanossegundos a horas). Registrar não aloca nem usa trava: só incrementa contadores atômicos.
+class Histograma {
+
+    private static final int EXATOS = 32; // valores menores que isso têm balde próprio
+    private static final int BITS_SUBBALDE = 4; // 16 baldes por potência de 2
+    private static final int SUBBALDES = 1 << BITS_SUBBALDE;
+    private static final int BALDES = EXATOS + (63 - 5) * SUBBALDES;
+
+    private final AtomicLongArray contagens = new AtomicLongArray(BALDES);
+    private final AtomicLong total = new AtomicLong();
+    private final AtomicLong soma = new AtomicLong();
+    private final AtomicLong maximo = new AtomicLong();
+
+    // Método para registrar um valor (ex: uma latência em nanossegundos); negativos contam como 0
+    public void Registrar(long valor) {
+        if (valor < 0) {
+            valor = 0;
+        }
+        contagens.incrementAndGet(Balde(valor));
+        total.incrementAndGet();
+        soma.addAndGet(valor);
+        long atual;
+        while (valor > (atual = maximo.get()) && !maximo.compareAndSet(atual, valor)) {
+            // outra thread registrou um máximo ao mesmo tempo; tenta de novo
+        }
+    }
+
+    private static int Balde(long valor) {
+        if (valor < EXATOS) {
+            return (int) valor;
+        }
+        int expoente = 63 - Long.numberOfLeadingZeros(valor); // >= 5
+        int subbalde = (int) (valor >>> (expoente - BITS_SUBBALDE)) & (SUBBALDES - 1);
+        return EXATOS + (expoente - 5) * SUBBALDES + subbalde;
+    }
+
+    // Maior valor que cai no balde
+    private static long LimiteSuperior(int balde) {
+        if (balde < EXATOS) {
+            return balde;
+        }
+        int expoente = (balde - EXATOS) / SUBBALDES + 5;
+        long subbalde = (balde - EXATOS) % SUBBALDES;
+        long inicio = (SUBBALDES + subbalde) << (expoente - BITS_SUBBALDE);
+        return inicio + (1L << (expoente - BITS_SUBBALDE)) - 1;
+    }
+
+    public long GetTotal() {
+        return total.get();
+    }
+
+    public long GetMaximo() {
+        return maximo.get();
+    }
+
+    public long GetMedia() {
+        long quantidade = total.get();
+        return quantidade == 0 ? 0 : soma.get() / quantidade;
+    }
+
+    // Valor abaixo do qual está a fração 'percentil' (0 a 1) dos registros, ex: 0.99 para o p99
+    public long Percentil(double percentil) {
+        long quantidade = total.get();
+        if (quantidade == 0) {
+            return 0;
+        }
+        long alvo = Math.max(1, (long) Math.ceil(percentil * quantidade));
+        long acumulado = 0;
+        for (int i = 0; i < BALDES; i++) {
+            acumulado += contagens.get(i);
+            if (acumulado >= alvo) {
+                return Math.min(LimiteSuperior(i), maximo.get());
+            }
+        }
+        return maximo.get();
+    }
+
+    public void Zerar() {
+        for (int i = 0; i < BALDES; i++) {
+            contagens.set(i, 0);
+        }
+        total.set(0);
+        soma.set(0);
+        maximo.set(0);
+    }
+}
@@ -0,0 +1,170 @@
+package classes;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntFunction;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Árvore de intervalos (AVL ordenada pelo horário de início, com o maior horário de término
+// de cada subárvore) para responder "quais eventos estão acontecendo no instante T / na janela [A, B]"
+// em tempo logarítmico mais o tamanho da resposta.
+// As rotações alteram vários nós, então consultas usam a trava de leitura (compartilhada entre elas)
+// e inclusões a de escrita, mantida apenas durante a descida na árvore.
+// Cada nó guarda só o ID e os horários do evento; os eventos do resultado são buscados pelo ID depois que a
+// trava é liberada.
+class IndiceIntervalos {
+
+    private static class No {
+        final int id;
+        final int inicio; // minutos desde 01/01/1970
+        final int fim;
+        final long sequencia; // desempata eventos com o mesmo início, mantendo a ordem de cadastro
+        int maiorFim;
+        int altura;
+        No esquerda;
+        No direita;
+
+        No(int id, int inicio, int fim, long sequencia) {
+            this.id = id;
+            this.inicio = inicio;
+            this.fim = fim;
+            this.sequencia = sequencia;
+            this.maiorFim = fim;
+            this.altura = 1;
+        }
+    }
+
+    private final ReadWriteLock trava = new ReentrantReadWriteLock();
+    private final IntFunction<Evento> eventoPorId;
+    private No raiz;
+    private long proximaSequencia;
+
+    // Construtor; 'eventoPorId' busca os eventos indexados
+    public IndiceIntervalos(IntFunction<Evento> eventoPorId) {
+        this.eventoPorId = eventoPorId;
+    }
+
+    public void Adicionar(Evento evento) {
+        Adicionar(evento.GetId(), evento.GetInicioMinutos(), evento.GetFimMinutos());
+    }
+
+    // Início e término em minutos desde 01/01/1970
+    public void Adicionar(int id, int inicio, int fim) {
+        trava.writeLock().lock();
+        try {
+            raiz = Inserir(raiz, new No(id, inicio, fim, proximaSequencia++));
+        } finally {
+            trava.writeLock().unlock();
+        }
+    }
+
+    // Eventos em andamento no instante informado (início < instante < término)
+    public List<Evento> OcorrendoEm(LocalDateTime instante) {
+        return OcorrendoEntre(instante, instante);
+    }
+
+    // Eventos que se sobrepõem à janela [a, b] (início < b e término > a), ordenados pelo início
+    public List<Evento> OcorrendoEntre(LocalDateTime a, LocalDateTime b) {
+        List<Integer> ids = new ArrayList<>();
+        trava.readLock().lock();
+        try {
+            // Em minutos: início < b equivale a início < b arredondado para cima, e término > a a
+            // término > a sem os segundos
+            Buscar(raiz, Evento.ParaMinutos(a), Evento.ParaMinutosAcima(b), ids);
+        } finally {
+            trava.readLock().unlock();
+        }
+        List<Evento> resultado = new ArrayList<>(ids.size());
+        for (int id : ids) {
+            resultado.add(eventoPorId.apply(id));
+        }
+        return resultado;
+    }
+
+    private static void Buscar(No no, int a, int b, List<Integer> resultado) {
+        // Nenhum evento desta subárvore termina depois de 'a'
+        if (no == null || no.maiorFim <= a) {
+            return;
+        }
+        Buscar(no.esquerda, a, b, resultado);
+        // Este nó e toda a subárvore direita começam em 'b' ou depois
+        if (no.inicio >= b) {
+            return;
+        }
+        if (no.fim > a) {
+            resultado.add(no.id);
+        }
+        Buscar(no.direita, a, b, resultado);
+    }
+
+    private static No Inserir(No no, No novo) {
+        if (no == null) {
+            return novo;
+        }
+        if (Comparar(novo, no) < 0) {
+            no.esquerda = Inserir(no.esquerda, novo);
+        } else {
+            no.direita = Inserir(no.direita, novo);
+        }
+        Atualizar(no);
+        return Balancear(no);
+    }
+
+    private static int Comparar(No a, No b) {
+        int porInicio = Integer.compare(a.inicio, b.inicio);
+        return porInicio != 0 ? porInicio : Long.compare(a.sequencia, b.sequencia);
+    }
+
+    private static int Altura(No no) {
+        return no == null ? 0 : no.altura;
+    }
+
+    private static void Atualizar(No no) {
+        no.altura = 1 + Math.max(Altura(no.esquerda), Altura(no.direita));
+        int maior = no.fim;
+        if (no.esquerda != null && no.esquerda.maiorFim > maior) {
+            maior = no.esquerda.maiorFim;
+        }
+        if (no.direita != null && no.direita.maiorFim > maior) {
+            maior = no.direita.maiorFim;
+        }
+        no.maiorFim = maior;
+    }
+
+    private static No Balancear(No no) {
+        int fator = Altura(no.esquerda) - Altura(no.direita);
+        if (fator > 1) {
+            if (Altura(no.esquerda.esquerda) < Altura(no.esquerda.direita)) {
+                no.esquerda = RotacionarEsquerda(no.esquerda);
+            }
+            return RotacionarDireita(no);
+        }
+        if (fator < -1) {
+            if (Altura(no.direita.direita) < Altura(no.direita.esquerda)) {
+                no.direita = RotacionarDireita(no.direita);
+            }
+            return RotacionarEsquerda(no);
+        }
+        return no;
+    }
+
+    private static No RotacionarDireita(No no) {
+        No novaRaiz = no.esquerda;
+        no.esquerda = novaRaiz.direita;
+        novaRaiz.direita = no;
+        Atualizar(no);
+        Atualizar(novaRaiz);
+        return novaRaiz;
+    }
+
+    private static No RotacionarEsquerda(No no) {
+        No novaRaiz = no.direita;
+        no.direita = novaRaiz.esquerda;
+        novaRaiz.esquerda = no;
+        Atualizar(no);
+        Atualizar(novaRaiz);
+        return novaRaiz;
+    }
+}
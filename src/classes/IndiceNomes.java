@@ -0,0 +1,261 @@
+package classes;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Índice dos nomes e sobrenomes dos usuários, para a busca aproximada (balcão de atendimento, digitação
+// incremental). Os nomes são divididos em termos como na busca de eventos (sem acento e em minúsculas, mas
+// mantendo "da", "dos"...) e guardados em uma trie; o nó de cada termo guarda a lista ordenada dos IDs dos
+// usuários que o têm no nome e no sobrenome.
+//
+// Cada termo da busca casa com os termos do índice:
+//   iguais a ele                                        - 3 pontos
+//   que começam com ele (o último termo digitado)       - 2 pontos
+//   a uma ou duas edições dele (distância de Levenshtein) - 1,5 ou 1 ponto
+// A distância aceita depende do tamanho do termo: nenhuma até 3 letras, 1 até 6 e 2 acima disso. Todos os
+// termos da busca precisam casar (no nome ou no sobrenome), então "ana silva" acha o nome completo e "silv"
+// acha pelo sobrenome. Os usuários vêm do mais bem pontuado para o menos, com empate pelo menor ID; como as
+// pontuações são faixas fixas, assim que o limite é preenchido com a maior faixa possível as listas das
+// faixas menores saem da busca (ListaIds.Melhores), e o tempo acompanha o limite, não a quantidade de
+// usuários que têm o nome.
+class IndiceNomes {
+
+    private static final double PONTOS_EXATO = 3;
+    private static final double PONTOS_PREFIXO = 2;
+    private static final double PONTOS_UMA_EDICAO = 1.5;
+    private static final double PONTOS_DUAS_EDICOES = 1;
+    // Máximo de termos do índice por prefixo buscado (ficam os mais curtos), para que um prefixo curto como
+    // "a" não percorra a trie inteira nem junte milhares de listas
+    private static final int MAXIMO_PREFIXOS = Integer.getInteger("sistema.nomes.prefixos", 256);
+
+    // Filhos em ordem de letra; as listas só existem nos nós que terminam um termo
+    private static class No {
+        char[] letras = new char[0];
+        No[] filhos = new No[0];
+        ListaIds nome;
+        ListaIds sobrenome;
+
+        No Filho(char letra) {
+            int posicao = Arrays.binarySearch(letras, letra);
+            return posicao >= 0 ? filhos[posicao] : null;
+        }
+
+        No CriarFilho(char letra) {
+            int posicao = Arrays.binarySearch(letras, letra);
+            if (posicao >= 0) {
+                return filhos[posicao];
+            }
+            posicao = -posicao - 1;
+            char[] novasLetras = new char[letras.length + 1];
+            No[] novosFilhos = new No[filhos.length + 1];
+            System.arraycopy(letras, 0, novasLetras, 0, posicao);
+            System.arraycopy(filhos, 0, novosFilhos, 0, posicao);
+            novasLetras[posicao] = letra;
+            novosFilhos[posicao] = new No();
+            System.arraycopy(letras, posicao, novasLetras, posicao + 1, letras.length - posicao);
+            System.arraycopy(filhos, posicao, novosFilhos, posicao + 1, filhos.length - posicao);
+            letras = novasLetras;
+            filhos = novosFilhos;
+            return novosFilhos[posicao];
+        }
+
+        boolean Termo() {
+            return nome != null || sobrenome != null;
+        }
+
+    }
+
+    private final No raiz = new No();
+    private final Set<ListaIds> desordenadas = new LinkedHashSet<>();
+    private final ReentrantReadWriteLock trava = new ReentrantReadWriteLock();
+    private int termos;
+    private int maiorTermo;
+
+    // Método para indexar o nome e o sobrenome de um usuário
+    public void Adicionar(Usuario usuario) {
+        List<String> doNome = IndiceTexto.Termos(usuario.GetNome(), false);
+        List<String> doSobrenome = IndiceTexto.Termos(usuario.GetSobrenome(), false);
+        trava.writeLock().lock();
+        try {
+            for (String termo : doNome) {
+                No no = No(termo);
+                if (no.nome == null) {
+                    no.nome = new ListaIds();
+                }
+                Indexar(no.nome, usuario.GetId());
+            }
+            for (String termo : doSobrenome) {
+                No no = No(termo);
+                if (no.sobrenome == null) {
+                    no.sobrenome = new ListaIds();
+                }
+                Indexar(no.sobrenome, usuario.GetId());
+            }
+        } finally {
+            trava.writeLock().unlock();
+        }
+    }
+
+    private No No(String termo) {
+        No no = raiz;
+        for (int i = 0; i < termo.length(); i++) {
+            no = no.CriarFilho(termo.charAt(i));
+        }
+        if (!no.Termo()) {
+            termos++;
+            maiorTermo = Math.max(maiorTermo, termo.length());
+        }
+        return no;
+    }
+
+    private void Indexar(ListaIds lista, int id) {
+        if (lista.Adicionar(id)) {
+            desordenadas.add(lista);
+        }
+    }
+
+    public int QuantidadeTermos() {
+        trava.readLock().lock();
+        try {
+            return termos;
+        } finally {
+            trava.readLock().unlock();
+        }
+    }
+
+    // Método para buscar os IDs dos usuários cujo nome e sobrenome casam com todos os termos de 'consulta',
+    // do mais bem pontuado para o menos, no máximo 'limite'
+    public int[] Buscar(String consulta, int limite) {
+        List<String> buscados = IndiceTexto.Termos(consulta, false);
+        if (buscados.isEmpty() || limite <= 0) {
+            return new int[0];
+        }
+        // Ordena as listas pendentes; se outra thread desordenar alguma antes da leitura, ordena de novo
+        trava.readLock().lock();
+        while (!desordenadas.isEmpty()) {
+            trava.readLock().unlock();
+            OrdenarPendentes();
+            trava.readLock().lock();
+        }
+        try {
+            List<List<ListaIds.Casamento>> porTermo = new ArrayList<>();
+            for (int t = 0; t < buscados.size(); t++) {
+                List<ListaIds.Casamento> casamentos = Casamentos(buscados.get(t), t == buscados.size() - 1);
+                if (casamentos.isEmpty()) {
+                    return new int[0];
+                }
+                porTermo.add(casamentos);
+            }
+            return ListaIds.Melhores(porTermo, limite, id -> true);
+        } finally {
+            trava.readLock().unlock();
+        }
+    }
+
+    private void OrdenarPendentes() {
+        trava.writeLock().lock();
+        try {
+            for (ListaIds lista : desordenadas) {
+                lista.Ordenar();
+            }
+            desordenadas.clear();
+        } finally {
+            trava.writeLock().unlock();
+        }
+    }
+
+    // Listas dos termos do índice que casam com 'buscado', com a pontuação de cada uma. Só o último termo da
+    // busca, que pode estar sendo digitado, casa como prefixo.
+    private List<ListaIds.Casamento> Casamentos(String buscado, boolean ultimo) {
+        List<ListaIds.Casamento> casamentos = new ArrayList<>();
+        No exato = raiz;
+        for (int i = 0; i < buscado.length() && exato != null; i++) {
+            exato = exato.Filho(buscado.charAt(i));
+        }
+        if (exato != null) {
+            Casar(casamentos, exato, PONTOS_EXATO);
+            if (ultimo) {
+                for (No no : Descendentes(exato)) {
+                    Casar(casamentos, no, PONTOS_PREFIXO);
+                }
+            }
+        }
+        int distancia = buscado.length() <= 3 ? 0 : buscado.length() <= 6 ? 1 : 2;
+        if (distancia > 0) {
+            // Uma linha da tabela de distâncias por profundidade da trie, reaproveitada entre os ramos
+            int[][] linhas = new int[Math.max(maiorTermo, buscado.length() + distancia) + 1][buscado.length() + 1];
+            for (int j = 0; j <= buscado.length(); j++) {
+                linhas[0][j] = j;
+            }
+            for (int i = 0; i < raiz.letras.length; i++) {
+                Aproximados(raiz.filhos[i], raiz.letras[i], 1, buscado, distancia, ultimo, linhas, casamentos);
+            }
+        }
+        return casamentos;
+    }
+
+    private static void Casar(List<ListaIds.Casamento> casamentos, No no, double pontos) {
+        if (no.nome != null) {
+            casamentos.add(new ListaIds.Casamento(no.nome, pontos));
+        }
+        if (no.sobrenome != null) {
+            casamentos.add(new ListaIds.Casamento(no.sobrenome, pontos));
+        }
+    }
+
+    // Nós de termo abaixo de 'no' (sem ele), por nível, até MAXIMO_PREFIXOS
+    private static List<No> Descendentes(No no) {
+        List<No> encontrados = new ArrayList<>();
+        ArrayDeque<No> nivel = new ArrayDeque<>();
+        nivel.add(no);
+        while (!nivel.isEmpty() && encontrados.size() < MAXIMO_PREFIXOS) {
+            for (No filho : nivel.poll().filhos) {
+                if (filho.Termo() && encontrados.size() < MAXIMO_PREFIXOS) {
+                    encontrados.add(filho);
+                }
+                nivel.add(filho);
+            }
+        }
+        return encontrados;
+    }
+
+    // Percorre a trie calculando a distância de edição entre 'buscado' e o caminho até cada nó (uma linha
+    // por profundidade). Os termos a até 'maximo' edições entram nos casamentos, menos o próprio termo
+    // buscado e, se ele é o último, os termos que começam com ele (já pontuados como prefixo); um ramo é
+    // abandonado quando nenhuma posição da linha está dentro do máximo.
+    private static void Aproximados(No no, char letra, int profundidade, String buscado, int maximo,
+            boolean ultimo, int[][] linhas, List<ListaIds.Casamento> casamentos) {
+        int[] anterior = linhas[profundidade - 1];
+        int[] linha = linhas[profundidade];
+        linha[0] = profundidade;
+        int menor = linha[0];
+        for (int j = 1; j <= buscado.length(); j++) {
+            int troca = anterior[j - 1] + (buscado.charAt(j - 1) == letra ? 0 : 1);
+            linha[j] = Math.min(troca, Math.min(anterior[j], linha[j - 1]) + 1);
+            menor = Math.min(menor, linha[j]);
+        }
+        int distancia = linha[buscado.length()];
+        if (no.Termo() && distancia > 0 && distancia <= maximo
+                && !(ultimo && Prefixado(linhas, profundidade, buscado))) {
+            Casar(casamentos, no, distancia == 1 ? PONTOS_UMA_EDICAO : PONTOS_DUAS_EDICOES);
+        }
+        if (menor > maximo || profundidade + 1 >= linhas.length) {
+            return;
+        }
+        for (int i = 0; i < no.letras.length; i++) {
+            Aproximados(no.filhos[i], no.letras[i], profundidade + 1, buscado, maximo, ultimo, linhas,
+                    casamentos);
+        }
+    }
+
+    // Se o caminho até a profundidade começa com 'buscado' (a linha da profundidade do tamanho dele tem
+    // distância zero, ou seja, o nó é o próprio termo ou um descendente dele)
+    private static boolean Prefixado(int[][] linhas, int profundidade, String buscado) {
+        return profundidade >= buscado.length() && linhas[buscado.length()][buscado.length()] == 0;
+    }
+}
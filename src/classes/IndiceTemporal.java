@@ -0,0 +1,198 @@
+package classes;
+
+import java.time.LocalDateTime;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.stream.Collectors;
+
+// Classe para manter os eventos ordenados por horário de início e por horário de término.
+// Consultas de eventos futuros e passados viram varreduras de faixa que já saem ordenadas.
+// Os conjuntos são skip lists concorrentes: as consultas não usam trava e não bloqueiam cadastros.
+// Eventos com o mesmo horário são desempatados pelo ID, então a ordem e os cursores são os mesmos em
+// índices de partições diferentes, e consultas a várias partições podem ser juntadas (ver Juntar).
+// O índice guarda só o horário e o ID de cada evento (os de um snapshot mapeado são indexados sem criar o
+// Evento); os eventos do resultado são buscados pelo ID.
+class IndiceTemporal {
+
+    // Chave de um evento no índice: o horário (em minutos desde 01/01/1970) e, para eventos com o mesmo
+    // horário, o ID (a ordem de cadastro)
+    private static class Chave implements Comparable<Chave> {
+        final int horario;
+        final long sequencia;
+
+        Chave(int horario, long sequencia) {
+            this.horario = horario;
+            this.sequencia = sequencia;
+        }
+
+        @Override
+        public int compareTo(Chave outra) {
+            int porHorario = Integer.compare(horario, outra.horario);
+            return porHorario != 0 ? porHorario : Long.compare(sequencia, outra.sequencia);
+        }
+    }
+
+    // Posição de continuação de uma consulta paginada (a chave do próximo evento a retornar)
+    public static class Cursor {
+        private final Chave chave;
+
+        private Cursor(Chave chave) {
+            this.chave = chave;
+        }
+
+        // Cursor para o evento com o horário (em minutos desde 01/01/1970) e o ID informados
+        Cursor(int horario, long sequencia) {
+            this(new Chave(horario, sequencia));
+        }
+
+        int GetHorario() {
+            return chave.horario;
+        }
+
+        long GetSequencia() {
+            return chave.sequencia;
+        }
+
+        // Forma em texto do cursor, para ser devolvida a clientes (ex: "2040-01-01T20:00_17")
+        @Override
+        public String toString() {
+            return Evento.DeMinutos(chave.horario) + "_" + chave.sequencia;
+        }
+
+        // Método para recriar um cursor a partir de toString; lança IllegalArgumentException se for inválido
+        public static Cursor De(String texto) {
+            int separador = texto.lastIndexOf('_');
+            try {
+                return new Cursor(new Chave(Evento.ParaMinutos(LocalDateTime.parse(texto.substring(0, separador))),
+                        Long.parseLong(texto.substring(separador + 1))));
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Cursor inválido: " + texto);
+            }
+        }
+    }
+
+    // Resultado de uma consulta paginada; o cursor é nulo quando não há mais eventos
+    public static class Pagina {
+        private final List<Evento> eventos;
+        private final Cursor proximo;
+
+        Pagina(List<Evento> eventos, Cursor proximo) {
+            this.eventos = eventos;
+            this.proximo = proximo;
+        }
+
+        public List<Evento> GetEventos() {
+            return eventos;
+        }
+
+        public Cursor GetProximo() {
+            return proximo;
+        }
+    }
+
+    // Eventos com o mesmo horário ficam na ordem em que foram cadastrados
+    private final NavigableSet<Chave> porInicio = new ConcurrentSkipListSet<>();
+    private final NavigableSet<Chave> porFim = new ConcurrentSkipListSet<>();
+    private final IntFunction<Evento> eventoPorId;
+
+    // Construtor; 'eventoPorId' busca os eventos indexados
+    public IndiceTemporal(IntFunction<Evento> eventoPorId) {
+        this.eventoPorId = eventoPorId;
+    }
+
+    public void Adicionar(Evento evento) {
+        Adicionar(evento.GetId(), evento.GetInicioMinutos(), evento.GetFimMinutos());
+    }
+
+    // Início e término em minutos desde 01/01/1970
+    public void Adicionar(int id, int inicio, int fim) {
+        porInicio.add(new Chave(inicio, id));
+        porFim.add(new Chave(fim, id));
+    }
+
+    // Eventos que começam depois de 'agora', do mais próximo para o mais distante
+    public Pagina EventosFuturos(LocalDateTime agora, Cursor cursor, int limite) {
+        // Começar depois de 'agora' é começar depois do minuto de 'agora', desprezando os segundos
+        return Percorrer(porInicio.tailSet(new Chave(Evento.ParaMinutos(agora), Long.MAX_VALUE), false), cursor,
+                limite);
+    }
+
+    // Eventos que terminaram antes de 'agora', do mais recente para o mais antigo
+    public Pagina EventosPassados(LocalDateTime agora, Cursor cursor, int limite) {
+        // Terminar antes de 'agora' é terminar antes de 'agora' arredondado para o minuto seguinte
+        return Percorrer(porFim.headSet(new Chave(Evento.ParaMinutosAcima(agora), Long.MIN_VALUE), false)
+                .descendingSet(), cursor, limite);
+    }
+
+    public List<Evento> EventosFuturos(LocalDateTime agora) {
+        return EventosFuturos(agora, null, Integer.MAX_VALUE).GetEventos();
+    }
+
+    public List<Evento> EventosPassados(LocalDateTime agora) {
+        return EventosPassados(agora, null, Integer.MAX_VALUE).GetEventos();
+    }
+
+    // Eventos futuros de vários índices (ex: um por cidade), consultados em paralelo
+    public static Pagina EventosFuturos(Collection<IndiceTemporal> indices, LocalDateTime agora, Cursor cursor,
+            int limite) {
+        return Juntar(indices, indice -> indice.EventosFuturos(agora, cursor, limite),
+                evento -> new Chave(evento.GetInicioMinutos(), evento.GetId()), false, limite);
+    }
+
+    // Eventos passados de vários índices (ex: um por cidade), consultados em paralelo
+    public static Pagina EventosPassados(Collection<IndiceTemporal> indices, LocalDateTime agora, Cursor cursor,
+            int limite) {
+        return Juntar(indices, indice -> indice.EventosPassados(agora, cursor, limite),
+                evento -> new Chave(evento.GetFimMinutos(), evento.GetId()), true, limite);
+    }
+
+    // Junta as páginas de cada índice em uma só, ordenada pela chave (decrescente para eventos passados).
+    // O cursor da próxima página é a primeira chave entre o primeiro evento que sobrou da junção e os
+    // cursores de cada índice.
+    private static Pagina Juntar(Collection<IndiceTemporal> indices, Function<IndiceTemporal, Pagina> consulta,
+            Function<Evento, Chave> chaveDe, boolean decrescente, int limite) {
+        Comparator<Chave> ordem = decrescente ? Comparator.reverseOrder() : Comparator.naturalOrder();
+        List<Pagina> paginas = indices.parallelStream().map(consulta).collect(Collectors.toList());
+        List<Map.Entry<Chave, Evento>> entradas = new ArrayList<>();
+        Chave proxima = null;
+        for (Pagina pagina : paginas) {
+            for (Evento evento : pagina.eventos) {
+                entradas.add(new AbstractMap.SimpleImmutableEntry<>(chaveDe.apply(evento), evento));
+            }
+            if (pagina.proximo != null && (proxima == null || ordem.compare(pagina.proximo.chave, proxima) < 0)) {
+                proxima = pagina.proximo.chave;
+            }
+        }
+        entradas.sort(Map.Entry.comparingByKey(ordem));
+        if (entradas.size() > limite
+                && (proxima == null || ordem.compare(entradas.get(limite).getKey(), proxima) < 0)) {
+            proxima = entradas.get(limite).getKey();
+        }
+        List<Evento> resultado = new ArrayList<>(Math.min(entradas.size(), limite));
+        for (int i = 0; i < entradas.size() && i < limite; i++) {
+            resultado.add(entradas.get(i).getValue());
+        }
+        return new Pagina(resultado, proxima == null ? null : new Cursor(proxima));
+    }
+
+    private Pagina Percorrer(NavigableSet<Chave> faixa, Cursor cursor, int limite) {
+        NavigableSet<Chave> restante = cursor == null ? faixa : faixa.tailSet(cursor.chave, true);
+        List<Evento> resultado = new ArrayList<>();
+
+        for (Chave chave : restante) {
+            if (resultado.size() == limite) {
+                return new Pagina(resultado, new Cursor(chave));
+            }
+            resultado.add(eventoPorId.apply((int) chave.sequencia));
+        }
+        return new Pagina(resultado, null);
+    }
+}
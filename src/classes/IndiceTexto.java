@@ -0,0 +1,220 @@
+package classes;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntFunction;
+import java.util.function.Predicate;
+
+// Índice invertido do nome e da descrição dos eventos, para a busca por texto. Os textos são divididos
+// em termos sem acento e em minúsculas (stopwords como "de" e "do" ficam de fora); cada termo guarda a
+// lista ordenada dos IDs dos eventos em que aparece no nome e na descrição. Os termos ficam em um
+// TreeMap, então um termo da busca também encontra os termos que começam com ele ("camp" acha
+// "campeonato").
+//
+// Na busca, todos os termos precisam aparecer (no nome ou na descrição). Os candidatos saem do termo
+// mais raro, em ordem de ID, e as listas dos demais termos são percorridas junto, com saltos exponenciais.
+// A pontuação soma, por termo da busca, o peso do campo (nome vale mais que descrição) vezes o idf do
+// termo, com metade do valor quando o termo só casou como prefixo.
+class IndiceTexto {
+
+    private static final double PESO_NOME = 3;
+    private static final double PESO_DESCRICAO = 1;
+    private static final double FATOR_PREFIXO = 0.5;
+    private static final Set<String> STOPWORDS = new HashSet<>(Arrays.asList("a", "o", "as", "os", "e", "de",
+            "da", "do", "das", "dos", "em", "na", "no", "nas", "nos", "um", "uma", "com", "para", "por", "ao"));
+
+    // Letra (sem acento, minúscula) ou dígito de cada caractere até U+024F; 0 para separadores
+    private static final char[] DOBRA = new char[0x250];
+
+    static {
+        for (char c = 0; c < DOBRA.length; c++) {
+            if (Character.isLetterOrDigit(c)) {
+                char base = Normalizer.normalize(String.valueOf(c), Normalizer.Form.NFD).charAt(0);
+                DOBRA[c] = Character.toLowerCase(base);
+            }
+        }
+    }
+
+    // Listas criadas na primeira ocorrência do termo no campo (muitos termos só aparecem em um deles)
+    private static class Termo {
+        ListaIds nome;
+        ListaIds descricao;
+
+        int Ocorrencias() {
+            return (nome == null ? 0 : nome.Tamanho()) + (descricao == null ? 0 : descricao.Tamanho());
+        }
+    }
+
+    private final Map<String, Termo> porTexto = new HashMap<>(); // para a indexação, sem comparar strings
+    private final NavigableMap<String, Termo> termos = new TreeMap<>(); // os mesmos termos, para os prefixos
+    private final Set<ListaIds> desordenadas = new LinkedHashSet<>();
+    private final ReentrantReadWriteLock trava = new ReentrantReadWriteLock();
+    private int eventos;
+
+    // Método para indexar o nome e a descrição de um evento
+    public void Adicionar(Evento evento) {
+        Adicionar(evento.GetId(), evento.GetNome(), evento.GetDescricao());
+    }
+
+    // Método para indexar um evento sem ter o objeto (ex: lido de um snapshot mapeado)
+    public void Adicionar(int id, String nome, String descricao) {
+        List<String> doNome = Termos(nome);
+        List<String> daDescricao = Termos(descricao);
+        trava.writeLock().lock();
+        try {
+            eventos++;
+            for (String termo : doNome) {
+                Termo indexado = Termo(termo);
+                if (indexado.nome == null) {
+                    indexado.nome = new ListaIds();
+                }
+                Indexar(indexado.nome, id);
+            }
+            for (String termo : daDescricao) {
+                Termo indexado = Termo(termo);
+                if (indexado.descricao == null) {
+                    indexado.descricao = new ListaIds();
+                }
+                Indexar(indexado.descricao, id);
+            }
+        } finally {
+            trava.writeLock().unlock();
+        }
+    }
+
+    private Termo Termo(String texto) {
+        Termo termo = porTexto.get(texto);
+        if (termo == null) {
+            termo = new Termo();
+            porTexto.put(texto, termo);
+            termos.put(texto, termo);
+        }
+        return termo;
+    }
+
+    private void Indexar(ListaIds lista, int id) {
+        if (lista.Adicionar(id)) {
+            desordenadas.add(lista);
+        }
+    }
+
+    public int QuantidadeTermos() {
+        trava.readLock().lock();
+        try {
+            return termos.size();
+        } finally {
+            trava.readLock().unlock();
+        }
+    }
+
+    // Método para buscar os eventos que contêm todos os termos de 'consulta' e passam no filtro, do mais
+    // bem pontuado para o menos (empate: menor ID primeiro), no máximo 'limite'. 'evento' resolve um ID.
+    public List<Evento> Buscar(String consulta, Predicate<Evento> filtro, int limite, IntFunction<Evento> evento) {
+        List<String> buscados = Termos(consulta);
+        if (buscados.isEmpty() || limite <= 0) {
+            return new ArrayList<>();
+        }
+        // Ordena as listas pendentes; se outra thread desordenar alguma antes da leitura, ordena de novo
+        trava.readLock().lock();
+        while (!desordenadas.isEmpty()) {
+            trava.readLock().unlock();
+            OrdenarPendentes();
+            trava.readLock().lock();
+        }
+        List<List<ListaIds.Casamento>> porTermo = new ArrayList<>();
+        try {
+            for (String buscado : buscados) {
+                List<ListaIds.Casamento> casamentos = Casamentos(buscado);
+                if (casamentos.isEmpty()) {
+                    return new ArrayList<>();
+                }
+                porTermo.add(casamentos);
+            }
+            List<Evento> resultado = new ArrayList<>();
+            for (int id : ListaIds.Melhores(porTermo, limite, candidato -> {
+                Evento encontrado = evento.apply(candidato);
+                return encontrado != null && filtro.test(encontrado);
+            })) {
+                resultado.add(evento.apply(id));
+            }
+            return resultado;
+        } finally {
+            trava.readLock().unlock();
+        }
+    }
+
+    private void OrdenarPendentes() {
+        trava.writeLock().lock();
+        try {
+            for (ListaIds lista : desordenadas) {
+                lista.Ordenar();
+            }
+            desordenadas.clear();
+        } finally {
+            trava.writeLock().unlock();
+        }
+    }
+
+    // Listas dos termos do índice que começam com 'buscado', com a pontuação de cada uma
+    private List<ListaIds.Casamento> Casamentos(String buscado) {
+        List<ListaIds.Casamento> casamentos = new ArrayList<>();
+        for (Map.Entry<String, Termo> entrada : termos.subMap(buscado, true, buscado + Character.MAX_VALUE, false)
+                .entrySet()) {
+            Termo termo = entrada.getValue();
+            double idf = Math.log(1 + (double) eventos / termo.Ocorrencias());
+            double fator = entrada.getKey().equals(buscado) ? idf : idf * FATOR_PREFIXO;
+            if (termo.nome != null) {
+                casamentos.add(new ListaIds.Casamento(termo.nome, PESO_NOME * fator));
+            }
+            if (termo.descricao != null) {
+                casamentos.add(new ListaIds.Casamento(termo.descricao, PESO_DESCRICAO * fator));
+            }
+        }
+        return casamentos;
+    }
+
+    // Termos de um texto: sem acento, em minúsculas, sem stopwords nem repetições
+    static List<String> Termos(String texto) {
+        return Termos(texto, true);
+    }
+
+    // Termos de um texto sem acento, em minúsculas e sem repetições; os nomes de pessoas mantêm as
+    // stopwords, que ali podem ser o começo de um nome sendo digitado ("da" de "Daniel")
+    static List<String> Termos(String texto, boolean semStopwords) {
+        List<String> termos = new ArrayList<>();
+        if (texto == null) {
+            return termos;
+        }
+        StringBuilder termo = new StringBuilder();
+        for (int i = 0; i <= texto.length(); i++) {
+            char c = i < texto.length() ? Dobrar(texto.charAt(i)) : 0;
+            if (c != 0) {
+                termo.append(c);
+            } else if (termo.length() > 0) {
+                String encontrado = termo.toString();
+                if (!(semStopwords && STOPWORDS.contains(encontrado)) && !termos.contains(encontrado)) {
+                    termos.add(encontrado);
+                }
+                termo.setLength(0);
+            }
+        }
+        return termos;
+    }
+
+    private static char Dobrar(char c) {
+        if (c < DOBRA.length) {
+            return DOBRA[c];
+        }
+        return Character.isLetterOrDigit(c) ? Character.toLowerCase(c) : 0;
+    }
+}
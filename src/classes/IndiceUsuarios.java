@@ -0,0 +1,33 @@
+package classes;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+// Índice dos usuários de uma partição pelo nome completo, comparado sem diferenciar maiúsculas de
+// minúsculas. ID e email têm índices globais no MotorEventos, e os usuários da cidade são a própria lista
+// da partição, então aqui só fica o nome. A estrutura é concorrente: consultas não usam trava e retornam
+// uma cópia do resultado.
+class IndiceUsuarios {
+
+    private final Map<String, Collection<Usuario>> porNome = new ConcurrentHashMap<>();
+
+    public void Adicionar(Usuario usuario) {
+        porNome.computeIfAbsent(Normalizar(usuario.GetNomeCompleto()), k -> new ConcurrentLinkedQueue<>())
+                .add(usuario);
+    }
+
+    public List<Usuario> BuscarPorNome(String nomeCompleto) {
+        Collection<Usuario> encontrados = porNome.get(Normalizar(nomeCompleto));
+        return encontrados == null ? Collections.emptyList() : new ArrayList<>(encontrados);
+    }
+
+    static String Normalizar(String texto) {
+        return texto.trim().toLowerCase(Locale.ROOT);
+    }
+}
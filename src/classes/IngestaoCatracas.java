@@ -0,0 +1,402 @@
+package classes;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// Ingestão de check-ins das catracas: lê registros "idUsuario;idEvento;instante" (instante em milissegundos
+// desde 01/01/1970; ';' ou ',' como separador, um registro por linha) de um arquivo acompanhado como em
+// tail -f ou de conexões TCP, confere cada um e marca a presença dos aceitos em micro-lotes.
+//
+// Cada arquivo ou conexão tem uma thread leitora, que interpreta os bytes direto do buffer (sem criar
+// objetos por registro) e preenche lotes de arrays primitivos reaproveitados. Os lotes circulam entre
+// duas filas limitadas: quando o processamento não acompanha, os leitores esperam por um lote livre e
+// param de ler, e a própria conexão TCP segura a catraca (backpressure). Um lote é entregue cheio ou
+// quando não há mais bytes para ler, então com pouco movimento ninguém espera o lote encher.
+//
+// Um check-in é aceito se o usuário e o evento existem, o instante está entre ANTECEDENCIA minutos antes
+// do início e o término do evento e o usuário é da cidade do evento. Os aceitos de cada lote são marcados
+// com MotorEventos.MarcarPresencas, que espera as gravações uma vez por lote.
+class IngestaoCatracas {
+
+    static final int TAMANHO_LOTE = Integer.getInteger("sistema.catracas.lote", 512);
+    static final int LOTES = Integer.getInteger("sistema.catracas.fila", 64);
+    // Minutos antes do início em que a catraca já libera a entrada
+    static final long ANTECEDENCIA = Long.getLong("sistema.catracas.antecedencia", 120);
+    // Espera (em ms) antes de ler de novo quando o arquivo acompanhado não cresceu
+    private static final long INTERVALO_ARQUIVO = Long.getLong("sistema.catracas.intervalo", 200);
+
+    public enum Resultado {
+        ACEITO, LISTA_DE_ESPERA, DUPLICADO, FORMATO_INVALIDO, USUARIO_DESCONHECIDO, EVENTO_DESCONHECIDO,
+        FORA_DO_HORARIO, OUTRA_CIDADE, ERRO_GRAVACAO
+    }
+
+    // Registros lidos, ainda não conferidos
+    private static class Lote {
+        final int[] usuarios = new int[TAMANHO_LOTE];
+        final int[] eventos = new int[TAMANHO_LOTE];
+        final long[] instantes = new long[TAMANHO_LOTE];
+        int tamanho;
+    }
+
+    private final MotorEventos motor;
+    private final BlockingQueue<Lote> livres = new ArrayBlockingQueue<>(LOTES);
+    private final BlockingQueue<Lote> cheios = new ArrayBlockingQueue<>(LOTES);
+    private final LongAdder[] contadores = new LongAdder[Resultado.values().length];
+    private final Set<Closeable> canais = ConcurrentHashMap.newKeySet();
+    private final List<Thread> threads = new ArrayList<>();
+    private final Thread processador;
+    private final ZoneId zona = ZoneId.systemDefault();
+    private long horaDoDeslocamento = Long.MIN_VALUE; // usados só pelo processador
+    private long deslocamento;
+    private volatile boolean parado; // leitores devem parar
+    private volatile boolean leitoresParados; // o processador termina quando não houver mais lotes
+    private long ultimoTotal;
+    private long ultimoRelatorio = System.nanoTime();
+
+    public IngestaoCatracas(MotorEventos motor) {
+        this.motor = motor;
+        for (int i = 0; i < LOTES; i++) {
+            livres.add(new Lote());
+        }
+        for (int i = 0; i < contadores.length; i++) {
+            contadores[i] = new LongAdder();
+        }
+        processador = new Thread(this::Processar, "catracas-processador");
+        processador.setDaemon(true);
+        processador.start();
+        Metricas.RegistrarMedidor("catracas_recebidos", this::Recebidos);
+        Metricas.RegistrarMedidor("catracas_aceitos",
+                () -> Valor(Resultado.ACEITO) + Valor(Resultado.LISTA_DE_ESPERA));
+        Metricas.RegistrarMedidor("catracas_rejeitados", this::Rejeitados);
+        Metricas.RegistrarMedidor("catracas_lotes_na_fila", () -> cheios.size());
+    }
+
+    // Método para acompanhar um arquivo (desde o começo), lendo o que for anexado a ele até Parar;
+    // se o arquivo for truncado, volta a ler do início
+    public void AcompanharArquivo(File arquivo) throws IOException {
+        FileChannel canal = FileChannel.open(arquivo.toPath(), StandardOpenOption.READ);
+        canais.add(canal);
+        Iniciar("catracas-" + arquivo.getName(), () -> {
+            Leitor leitor = new Leitor();
+            while (!parado) {
+                if (canal.size() < canal.position()) {
+                    canal.position(0);
+                }
+                if (!leitor.Ler(canal)) {
+                    Thread.sleep(INTERVALO_ARQUIVO);
+                }
+            }
+        });
+    }
+
+    // Método para aceitar conexões TCP na porta (0 = qualquer livre), uma thread leitora por conexão;
+    // retorna a porta usada
+    public int OuvirPorta(int porta) throws IOException {
+        ServerSocketChannel servidor = ServerSocketChannel.open();
+        servidor.bind(new InetSocketAddress(porta));
+        canais.add(servidor);
+        Iniciar("catracas-porta-" + porta, () -> {
+            while (!parado) {
+                SocketChannel conexao = servidor.accept();
+                canais.add(conexao);
+                Iniciar("catracas-" + conexao.getRemoteAddress(), () -> {
+                    try {
+                        Leitor leitor = new Leitor();
+                        while (!parado && leitor.Ler(conexao)) {
+                            // lê até a catraca fechar a conexão
+                        }
+                    } finally {
+                        canais.remove(conexao);
+                        conexao.close();
+                    }
+                });
+            }
+        });
+        return ((InetSocketAddress) servidor.getLocalAddress()).getPort();
+    }
+
+    private interface Tarefa {
+        void Executar() throws IOException, InterruptedException;
+    }
+
+    private synchronized void Iniciar(String nome, Tarefa tarefa) {
+        Thread thread = new Thread(() -> {
+            try {
+                tarefa.Executar();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (IOException e) {
+                if (!parado) {
+                    System.out.println("Erro na leitura das catracas (" + Thread.currentThread().getName() + "): "
+                            + e.getMessage());
+                }
+            } finally {
+                synchronized (this) {
+                    threads.remove(Thread.currentThread());
+                }
+            }
+        }, nome);
+        thread.setDaemon(true);
+        threads.add(thread);
+        thread.start();
+    }
+
+    // Método para parar a leitura, fechar arquivos e conexões e marcar os lotes já entregues pelos leitores
+    public void Parar() throws IOException {
+        parado = true;
+        for (Closeable canal : canais) {
+            canal.close();
+        }
+        List<Thread> leitores;
+        synchronized (this) {
+            leitores = new ArrayList<>(threads);
+        }
+        try {
+            for (Thread leitor : leitores) {
+                leitor.interrupt();
+                leitor.join();
+            }
+            leitoresParados = true;
+            processador.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // Interpretação dos bytes de uma fonte; o estado sobrevive entre leituras, então um registro pode
+    // chegar partido em dois pacotes
+    private class Leitor {
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(64 * 1024);
+        private final long[] campos = new long[3];
+        private int campo;
+        private int digitos;
+        private boolean invalido;
+        private Lote lote;
+
+        // Lê o que estiver disponível e entrega o lote em andamento; false se não havia nada para ler
+        boolean Ler(ReadableByteChannel canal) throws IOException, InterruptedException {
+            buffer.clear();
+            int lidos = canal.read(buffer);
+            if (lidos <= 0) {
+                Entregar();
+                return false;
+            }
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                Consumir(buffer.get());
+            }
+            if (lidos < buffer.capacity()) {
+                Entregar();
+            }
+            return true;
+        }
+
+        private void Consumir(byte b) throws InterruptedException {
+            if (b >= '0' && b <= '9') {
+                campos[campo] = campos[campo] * 10 + (b - '0');
+                digitos++;
+                if (digitos > 18) {
+                    invalido = true;
+                    digitos = 0;
+                }
+            } else if (b == ';' || b == ',') {
+                if (digitos == 0 || campo == 2) {
+                    invalido = true;
+                } else {
+                    campo++;
+                }
+                digitos = 0;
+            } else if (b == '\n') {
+                FimDoRegistro();
+            } else if (b != '\r' && b != ' ') {
+                invalido = true;
+            }
+        }
+
+        private void FimDoRegistro() throws InterruptedException {
+            boolean vazio = campo == 0 && digitos == 0 && !invalido;
+            if (!vazio) {
+                if (invalido || campo != 2 || digitos == 0 || campos[0] > Integer.MAX_VALUE
+                        || campos[1] > Integer.MAX_VALUE) {
+                    Contar(Resultado.FORMATO_INVALIDO, 1);
+                } else {
+                    if (lote == null) {
+                        lote = ProximoLivre();
+                    }
+                    lote.usuarios[lote.tamanho] = (int) campos[0];
+                    lote.eventos[lote.tamanho] = (int) campos[1];
+                    lote.instantes[lote.tamanho] = campos[2];
+                    if (++lote.tamanho == TAMANHO_LOTE) {
+                        Entregar();
+                    }
+                }
+            }
+            campos[0] = campos[1] = campos[2] = 0;
+            campo = 0;
+            digitos = 0;
+            invalido = false;
+        }
+
+        private void Entregar() throws InterruptedException {
+            if (lote != null && lote.tamanho > 0) {
+                cheios.put(lote);
+                lote = null;
+            }
+        }
+    }
+
+    // Lote livre para um leitor preencher; espera enquanto o processador não devolver algum
+    private Lote ProximoLivre() throws InterruptedException {
+        Lote lote;
+        while ((lote = livres.poll(100, TimeUnit.MILLISECONDS)) == null) {
+            if (parado) {
+                throw new InterruptedException("ingestão parada");
+            }
+        }
+        return lote;
+    }
+
+    // Laço do processador: confere cada lote, devolve-o aos leitores e marca os aceitos de uma vez
+    private void Processar() {
+        Usuario[] usuarios = new Usuario[TAMANHO_LOTE];
+        Evento[] eventos = new Evento[TAMANHO_LOTE];
+        RegistroPresencas.Inscricao[] inscricoes = new RegistroPresencas.Inscricao[TAMANHO_LOTE];
+        while (true) {
+            Lote lote;
+            try {
+                lote = cheios.poll(100, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                return;
+            }
+            if (lote == null) {
+                if (leitoresParados) {
+                    return;
+                }
+                continue;
+            }
+            int aceitos = 0;
+            for (int i = 0; i < lote.tamanho; i++) {
+                Usuario usuario = motor.BuscarUsuarioPorId(lote.usuarios[i]);
+                Evento evento = motor.BuscarEventoPorId(lote.eventos[i]);
+                Resultado rejeicao = Conferir(usuario, evento, lote.instantes[i]);
+                if (rejeicao != null) {
+                    Contar(rejeicao, 1);
+                } else {
+                    usuarios[aceitos] = usuario;
+                    eventos[aceitos] = evento;
+                    aceitos++;
+                }
+            }
+            lote.tamanho = 0;
+            livres.add(lote);
+            try {
+                motor.MarcarPresencas(usuarios, eventos, aceitos, inscricoes);
+                for (int i = 0; i < aceitos; i++) {
+                    switch (inscricoes[i]) {
+                        case CONFIRMADA:
+                            Contar(Resultado.ACEITO, 1);
+                            break;
+                        case LISTA_DE_ESPERA:
+                            Contar(Resultado.LISTA_DE_ESPERA, 1);
+                            break;
+                        default:
+                            Contar(Resultado.DUPLICADO, 1);
+                    }
+                }
+            } catch (IOException e) {
+                System.out.println("Erro ao gravar presenças das catracas: " + e.getMessage());
+                Contar(Resultado.ERRO_GRAVACAO, aceitos);
+            }
+            Arrays.fill(usuarios, 0, aceitos, null);
+            Arrays.fill(eventos, 0, aceitos, null);
+        }
+    }
+
+    // Motivo da rejeição do check-in, ou null se ele for aceito
+    private Resultado Conferir(Usuario usuario, Evento evento, long instante) {
+        if (usuario == null) {
+            return Resultado.USUARIO_DESCONHECIDO;
+        }
+        if (evento == null) {
+            return Resultado.EVENTO_DESCONHECIDO;
+        }
+        long minuto = MinutoLocal(instante);
+        if (minuto < evento.GetInicioMinutos() - ANTECEDENCIA || minuto > evento.GetFimMinutos()) {
+            return Resultado.FORA_DO_HORARIO;
+        }
+        if (!MotorEventos.MesmaCidade(usuario, evento)) {
+            return Resultado.OUTRA_CIDADE;
+        }
+        return null;
+    }
+
+    // Minutos (no horário local, como os horários dos eventos) de um instante em milissegundos UTC; o
+    // deslocamento do fuso só é recalculado quando a hora muda
+    private long MinutoLocal(long instante) {
+        long hora = Math.floorDiv(instante, 3_600_000L);
+        if (hora != horaDoDeslocamento) {
+            deslocamento = zona.getRules().getOffset(Instant.ofEpochMilli(instante)).getTotalSeconds() * 1000L;
+            horaDoDeslocamento = hora;
+        }
+        return Math.floorDiv(instante + deslocamento, 60_000L);
+    }
+
+    private void Contar(Resultado resultado, long quantidade) {
+        contadores[resultado.ordinal()].add(quantidade);
+    }
+
+    public long Valor(Resultado resultado) {
+        return contadores[resultado.ordinal()].sum();
+    }
+
+    public long Recebidos() {
+        long total = 0;
+        for (LongAdder contador : contadores) {
+            total += contador.sum();
+        }
+        return total;
+    }
+
+    public long Rejeitados() {
+        return Recebidos() - Valor(Resultado.ACEITO) - Valor(Resultado.LISTA_DE_ESPERA)
+                - Valor(Resultado.DUPLICADO);
+    }
+
+    // Relatório de uma linha: totais, vazão desde o relatório anterior e rejeições por motivo
+    public synchronized String Relatorio() {
+        long agora = System.nanoTime();
+        long total = Recebidos();
+        double segundos = Math.max(1e-9, (agora - ultimoRelatorio) / 1e9);
+        StringBuilder relatorio = new StringBuilder(String.format("recebidos %d (%.0f/s)", total,
+                (total - ultimoTotal) / segundos));
+        ultimoTotal = total;
+        ultimoRelatorio = agora;
+        for (Resultado resultado : Resultado.values()) {
+            long valor = Valor(resultado);
+            if (valor > 0) {
+                relatorio.append(", ").append(resultado.name().toLowerCase(Locale.ROOT)).append(' ').append(valor);
+            }
+        }
+        return relatorio.toString();
+    }
+}
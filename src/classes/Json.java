@@ -0,0 +1,170 @@
+package classes;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Leitura e escrita do pouco de JSON que o servidor HTTP usa: objetos planos com valores texto,
+// número, booleano ou null. Os valores lidos são entregues como texto (null para o literal null).
+class Json {
+
+    private final String texto;
+    private int posicao;
+
+    private Json(String texto) {
+        this.texto = texto;
+    }
+
+    // Método para ler um objeto plano, ex: {"nome": "Show", "idEvento": 3}
+    public static Map<String, String> LerObjeto(String texto) {
+        Json leitor = new Json(texto);
+        Map<String, String> campos = new LinkedHashMap<>();
+        leitor.Esperar('{');
+        if (!leitor.Consumir('}')) {
+            do {
+                String chave = leitor.LerTexto();
+                leitor.Esperar(':');
+                campos.put(chave, leitor.LerValor());
+            } while (leitor.Consumir(','));
+            leitor.Esperar('}');
+        }
+        leitor.PularEspacos();
+        if (leitor.posicao != texto.length()) {
+            throw leitor.Erro("conteúdo depois do objeto");
+        }
+        return campos;
+    }
+
+    // Método para escrever um texto entre aspas, escapando o que for preciso
+    public static StringBuilder Texto(StringBuilder destino, String valor) {
+        if (valor == null) {
+            return destino.append("null");
+        }
+        destino.append('"');
+        for (int i = 0; i < valor.length(); i++) {
+            char c = valor.charAt(i);
+            switch (c) {
+                case '"':
+                    destino.append("\\\"");
+                    break;
+                case '\\':
+                    destino.append("\\\\");
+                    break;
+                case '\n':
+                    destino.append("\\n");
+                    break;
+                case '\r':
+                    destino.append("\\r");
+                    break;
+                case '\t':
+                    destino.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        destino.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        destino.append(c);
+                    }
+            }
+        }
+        return destino.append('"');
+    }
+
+    private String LerValor() {
+        PularEspacos();
+        if (posicao < texto.length() && texto.charAt(posicao) == '"') {
+            return LerTexto();
+        }
+        int inicio = posicao;
+        while (posicao < texto.length() && "-+.eE0123456789abcdefghijklmnopqrstuvwxyz".indexOf(texto.charAt(posicao)) >= 0) {
+            posicao++;
+        }
+        String literal = texto.substring(inicio, posicao);
+        if (literal.equals("null")) {
+            return null;
+        }
+        if (literal.isEmpty() || !(literal.equals("true") || literal.equals("false") || EhNumero(literal))) {
+            throw Erro("valor inválido");
+        }
+        return literal;
+    }
+
+    private String LerTexto() {
+        Esperar('"');
+        StringBuilder valor = new StringBuilder();
+        while (posicao < texto.length()) {
+            char c = texto.charAt(posicao++);
+            if (c == '"') {
+                return valor.toString();
+            }
+            if (c != '\\') {
+                valor.append(c);
+                continue;
+            }
+            if (posicao >= texto.length()) {
+                break;
+            }
+            char escape = texto.charAt(posicao++);
+            switch (escape) {
+                case 'n':
+                    valor.append('\n');
+                    break;
+                case 'r':
+                    valor.append('\r');
+                    break;
+                case 't':
+                    valor.append('\t');
+                    break;
+                case 'b':
+                    valor.append('\b');
+                    break;
+                case 'f':
+                    valor.append('\f');
+                    break;
+                case 'u':
+                    if (posicao + 4 > texto.length()) {
+                        throw Erro("escape \\u incompleto");
+                    }
+                    valor.append((char) Integer.parseInt(texto, posicao, posicao + 4, 16));
+                    posicao += 4;
+                    break;
+                default:
+                    valor.append(escape); // '"', '\\' e '/'
+            }
+        }
+        throw Erro("texto sem aspas de fechamento");
+    }
+
+    private static boolean EhNumero(String literal) {
+        try {
+            Double.parseDouble(literal);
+            return true;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    private void Esperar(char esperado) {
+        if (!Consumir(esperado)) {
+            throw Erro("esperado '" + esperado + "'");
+        }
+    }
+
+    private boolean Consumir(char esperado) {
+        PularEspacos();
+        if (posicao < texto.length() && texto.charAt(posicao) == esperado) {
+            posicao++;
+            return true;
+        }
+        return false;
+    }
+
+    private void PularEspacos() {
+        while (posicao < texto.length() && Character.isWhitespace(texto.charAt(posicao))) {
+            posicao++;
+        }
+    }
+
+    private IllegalArgumentException Erro(String motivo) {
+        return new IllegalArgumentException("JSON inválido na posição " + posicao + ": " + motivo);
+    }
+}
@@ -0,0 +1,42 @@
+package classes;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+
+// Lista que só aceita inclusões no final, para ser lida por várias threads enquanto outra inclui.
+// Inclusões são serializadas entre si; leituras não usam trava e enxergam todos os elementos
+// incluídos antes da leitura do tamanho. Ao contrário de CopyOnWriteArrayList, incluir custa O(1)
+// amortizado, o que importa nas cargas com milhões de registros.
+class ListaConcorrente<T> extends AbstractList<T> {
+
+    private volatile Object[] elementos = new Object[16];
+    private volatile int tamanho;
+
+    @Override
+    public synchronized boolean add(T elemento) {
+        Object[] atuais = elementos;
+        if (tamanho == atuais.length) {
+            // O vetor novo é publicado antes do tamanho, então quem ler o tamanho novo lê um vetor que o comporta
+            atuais = Arrays.copyOf(atuais, atuais.length * 2);
+            elementos = atuais;
+        }
+        atuais[tamanho] = elemento;
+        tamanho = tamanho + 1;
+        return true;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T get(int indice) {
+        int atual = tamanho;
+        if (indice < 0 || indice >= atual) {
+            throw new IndexOutOfBoundsException("Índice " + indice + " fora da lista de tamanho " + atual);
+        }
+        return (T) elementos[indice];
+    }
+
+    @Override
+    public int size() {
+        return tamanho;
+    }
+}
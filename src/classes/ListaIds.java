@@ -0,0 +1,284 @@
+package classes;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.IntPredicate;
+
+// Lista de IDs de um índice invertido (ex: os eventos com um termo, os usuários com um nome), guardada
+// como um vetor de int. IDs fora de ordem (ex: na carga das partições em paralelo) só são ordenados quando
+// o índice chama Ordenar, antes de uma busca; assim a carga não desloca o vetor a cada ID.
+// Melhores faz a interseção pontuada das listas de vários termos, usada por IndiceTexto e IndiceNomes.
+class ListaIds {
+
+    // Uma lista que casa com um termo da busca, com a pontuação de cada ID dela
+    static class Casamento {
+        final ListaIds lista;
+        final double pontos;
+
+        Casamento(ListaIds lista, double pontos) {
+            this.lista = lista;
+            this.pontos = pontos;
+        }
+    }
+
+    // As listas de um termo da busca percorridas juntas em ordem de ID, com um heap das listas pelo ID
+    // atual de cada uma: avançar custa log do número de listas, não o número de listas (um prefixo curto
+    // ou um termo com erro de digitação casa com centenas delas)
+    private static class Intercalacao {
+        final List<Casamento> casamentos;
+        final int[] posicoes;
+        final int[] heap; // índices das listas que ainda têm IDs, pelo ID atual
+        int tamanho;
+
+        Intercalacao(List<Casamento> casamentos, int[] posicoes) {
+            this.casamentos = casamentos;
+            this.posicoes = posicoes;
+            heap = new int[casamentos.size()];
+            for (int i = 0; i < casamentos.size(); i++) {
+                if (posicoes[i] < casamentos.get(i).lista.tamanho) {
+                    heap[tamanho++] = i;
+                }
+            }
+            for (int i = tamanho / 2 - 1; i >= 0; i--) {
+                Descer(i);
+            }
+        }
+
+        // Menor ID ainda não visitado (Integer.MAX_VALUE quando as listas acabarem)
+        int Menor() {
+            return tamanho == 0 ? Integer.MAX_VALUE : Atual(heap[0]);
+        }
+
+        // Maior pontuação do ID entre as listas (0 se o ID não está em nenhuma); todas as listas passam
+        // para depois de 'id', que não pode ser menor que um ID já pedido
+        double Pontos(int id) {
+            double pontos = 0;
+            while (tamanho > 0 && Atual(heap[0]) <= id) {
+                int i = heap[0];
+                ListaIds lista = casamentos.get(i).lista;
+                int posicao = lista.Avancar(posicoes[i], id);
+                if (posicao < lista.tamanho && lista.ids[posicao] == id) {
+                    pontos = Math.max(pontos, casamentos.get(i).pontos);
+                    posicao++;
+                }
+                posicoes[i] = posicao;
+                if (posicao == lista.tamanho) {
+                    heap[0] = heap[--tamanho];
+                }
+                Descer(0);
+            }
+            return pontos;
+        }
+
+        private int Atual(int i) {
+            return casamentos.get(i).lista.ids[posicoes[i]];
+        }
+
+        private void Descer(int posicao) {
+            while (true) {
+                int menor = posicao;
+                for (int filho = 2 * posicao + 1; filho <= 2 * posicao + 2 && filho < tamanho; filho++) {
+                    if (Atual(heap[filho]) < Atual(heap[menor])) {
+                        menor = filho;
+                    }
+                }
+                if (menor == posicao) {
+                    return;
+                }
+                int troca = heap[posicao];
+                heap[posicao] = heap[menor];
+                heap[menor] = troca;
+                posicao = menor;
+            }
+        }
+    }
+
+    private int[] ids = new int[2];
+    private int tamanho;
+    private boolean ordenada = true;
+
+    // Retorna true se a lista ficou fora de ordem (precisa de Ordenar antes da próxima busca)
+    public boolean Adicionar(int id) {
+        if (tamanho > 0 && ids[tamanho - 1] >= id) {
+            if (ids[tamanho - 1] == id) {
+                return false;
+            }
+            ordenada = false;
+        }
+        if (tamanho == ids.length) {
+            ids = Arrays.copyOf(ids, tamanho * 2);
+        }
+        ids[tamanho++] = id;
+        return !ordenada;
+    }
+
+    // Ordena e tira as repetições
+    public void Ordenar() {
+        Arrays.sort(ids, 0, tamanho);
+        int unicos = 0;
+        for (int i = 0; i < tamanho; i++) {
+            if (unicos == 0 || ids[unicos - 1] != ids[i]) {
+                ids[unicos++] = ids[i];
+            }
+        }
+        tamanho = unicos;
+        ordenada = true;
+    }
+
+    public int Tamanho() {
+        return tamanho;
+    }
+
+    // Método para encontrar os IDs presentes em ao menos uma lista de cada termo e aceitos pelo filtro, do
+    // mais bem pontuado para o menos (empate: menor ID primeiro), no máximo 'limite'. A pontuação de um ID
+    // soma, por termo, a maior pontuação entre as listas do termo que o contêm. As listas precisam estar
+    // ordenadas. Os candidatos saem do termo com menos IDs, em ordem de ID, e as listas dos demais termos
+    // são percorridas junto, com saltos exponenciais.
+    // Com o limite preenchido, como no empate o menor ID ganha, um ID seguinte só entra se passar do pior
+    // escolhido: as listas que não conseguem mais isso (ex: na busca de nomes, os prefixos e os erros de
+    // digitação quando os casamentos exatos já preencheram o limite) saem da busca, o termo que dá os
+    // candidatos é escolhido de novo entre as listas que sobraram, e a busca para quando nenhum ID seguinte
+    // pode passar do pior.
+    static int[] Melhores(List<List<Casamento>> porTermo, int limite, IntPredicate filtro) {
+        if (porTermo.isEmpty() || limite <= 0) {
+            return new int[0];
+        }
+        PriorityQueue<double[]> melhores = new PriorityQueue<>(
+                Comparator.<double[]>comparingDouble(p -> p[0]).thenComparingDouble(p -> -p[1]));
+        // Posição atual em cada lista; os candidatos vêm em ordem de ID, então as listas só avançam (uma
+        // lista que saiu da busca fica na posição do fim)
+        int[][] posicoes = new int[porTermo.size()][];
+        for (int t = 0; t < posicoes.length; t++) {
+            posicoes[t] = new int[porTermo.get(t).size()];
+        }
+        Intercalacao[] intercalacoes = Intercalacoes(porTermo, posicoes);
+        int gerador = Gerador(porTermo, posicoes);
+        int id;
+        while ((id = intercalacoes[gerador].Menor()) != Integer.MAX_VALUE) {
+            double pontos = intercalacoes[gerador].Pontos(id);
+            for (int t = 0; t < porTermo.size() && pontos > 0; t++) {
+                if (t != gerador) {
+                    double doTermo = intercalacoes[t].Pontos(id);
+                    pontos = doTermo > 0 ? pontos + doTermo : 0;
+                }
+            }
+            if (pontos <= 0) {
+                continue;
+            }
+            if (melhores.size() == limite && !Melhor(pontos, id, melhores.peek())) {
+                continue;
+            }
+            if (!filtro.test(id)) {
+                continue;
+            }
+            melhores.add(new double[] { pontos, id });
+            if (melhores.size() > limite) {
+                melhores.poll();
+            }
+            if (melhores.size() == limite) {
+                int podadas = Podar(porTermo, posicoes, id, melhores.peek()[0]);
+                if (podadas < 0) {
+                    break;
+                }
+                int novo = Gerador(porTermo, posicoes);
+                if (podadas > 0 || novo != gerador) {
+                    intercalacoes = Intercalacoes(porTermo, posicoes);
+                    // As listas do novo gerador podem não ter sido consultadas para este ID
+                    intercalacoes[novo].Pontos(id);
+                    gerador = novo;
+                }
+            }
+        }
+        int[] resultado = new int[melhores.size()];
+        for (int i = resultado.length - 1; i >= 0; i--) {
+            resultado[i] = (int) melhores.poll()[1];
+        }
+        return resultado;
+    }
+
+    private static Intercalacao[] Intercalacoes(List<List<Casamento>> porTermo, int[][] posicoes) {
+        Intercalacao[] intercalacoes = new Intercalacao[porTermo.size()];
+        for (int t = 0; t < intercalacoes.length; t++) {
+            intercalacoes[t] = new Intercalacao(porTermo.get(t), posicoes[t]);
+        }
+        return intercalacoes;
+    }
+
+    // Termo com menos IDs ainda por visitar, que dá os candidatos
+    private static int Gerador(List<List<Casamento>> porTermo, int[][] posicoes) {
+        int gerador = 0;
+        long menos = Long.MAX_VALUE;
+        for (int t = 0; t < porTermo.size(); t++) {
+            long restantes = 0;
+            List<Casamento> casamentos = porTermo.get(t);
+            for (int i = 0; i < casamentos.size(); i++) {
+                restantes += casamentos.get(i).lista.tamanho - posicoes[t][i];
+            }
+            if (restantes < menos) {
+                menos = restantes;
+                gerador = t;
+            }
+        }
+        return gerador;
+    }
+
+    // Tira da busca as listas que não conseguem mais levar um ID maior que 'id' além de 'pior': a pontuação
+    // da lista mais a maior possível nos outros termos. Retorna quantas saíram, ou -1 se nenhum ID seguinte
+    // passa de 'pior'.
+    private static int Podar(List<List<Casamento>> porTermo, int[][] posicoes, int id, double pior) {
+        double[] maximos = new double[porTermo.size()];
+        double total = 0;
+        for (int t = 0; t < porTermo.size(); t++) {
+            List<Casamento> casamentos = porTermo.get(t);
+            for (int i = 0; i < casamentos.size(); i++) {
+                if (Restam(casamentos.get(i).lista, posicoes[t][i], id)) {
+                    maximos[t] = Math.max(maximos[t], casamentos.get(i).pontos);
+                }
+            }
+            if (maximos[t] == 0) {
+                return -1;
+            }
+            total += maximos[t];
+        }
+        if (total <= pior) {
+            return -1;
+        }
+        int podadas = 0;
+        for (int t = 0; t < porTermo.size(); t++) {
+            List<Casamento> casamentos = porTermo.get(t);
+            for (int i = 0; i < casamentos.size(); i++) {
+                ListaIds lista = casamentos.get(i).lista;
+                if (posicoes[t][i] < lista.tamanho && casamentos.get(i).pontos + total - maximos[t] <= pior) {
+                    posicoes[t][i] = lista.tamanho;
+                    podadas++;
+                }
+            }
+        }
+        return podadas;
+    }
+
+    // Se a lista ainda tem IDs maiores que 'id' a partir da posição
+    private static boolean Restam(ListaIds lista, int posicao, int id) {
+        return posicao < lista.tamanho && lista.ids[lista.tamanho - 1] > id;
+    }
+
+    // Primeira posição a partir de 'inicio' com ID >= 'id': busca exponencial (saltos de 1, 2, 4...) e
+    // depois binária no último salto, então IDs próximos custam pouco e distantes custam log
+    private int Avancar(int inicio, int id) {
+        int fim = inicio;
+        int salto = 1;
+        while (fim < tamanho && ids[fim] < id) {
+            inicio = fim + 1;
+            fim += salto;
+            salto <<= 1;
+        }
+        int posicao = Arrays.binarySearch(ids, inicio, Math.min(fim + 1, tamanho), id);
+        return posicao >= 0 ? posicao : -posicao - 1;
+    }
+
+    private static boolean Melhor(double pontos, int id, double[] pior) {
+        return pontos > pior[0] || (pontos == pior[0] && id < pior[1]);
+    }
+}
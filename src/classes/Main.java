@@ -1,12 +1,55 @@
 package classes;
 // Classe principal
+//
+// Uso:
+//   java classes.Main                      menu no console
+//   java classes.Main servidor [porta]     servidor HTTP/JSON (ver ServidorHttp), até Ctrl+C
+//   java classes.Main lote [arquivo]       aplica um arquivo de comandos, ou a entrada padrão sem
+//                                          arquivo (ver ProcessadorLote); termina com status 1 se algo falhar
+//   java classes.Main catracas (arquivo <caminho> | porta <n>)...
+//                                          check-ins das catracas (ver IngestaoCatracas), até Ctrl+C
 
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 import java.util.Scanner;
 
 import classes.Menu.MenuPrincipal;
 
 public class Main {
-    public static void main(String[] args) {
+    public static void main(String[] args) throws IOException {
+
+        if (args.length > 0 && args[0].equals("servidor")) {
+            int porta = args.length > 1 ? Integer.parseInt(args[1]) : ServidorHttp.PORTA;
+            ServidorHttp servidor = new ServidorHttp(new MotorEventos(), porta);
+            servidor.Iniciar();
+            System.out.println("Servidor HTTP ouvindo na porta " + servidor.GetPorta());
+            return;
+        }
+
+        if (args.length > 0 && args[0].equals("lote")) {
+            MotorEventos motor = new MotorEventos();
+            boolean sucesso;
+            try (InputStream in = args.length > 1 ? new FileInputStream(args[1]) : System.in) {
+                BufferedReader entrada = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+                sucesso = new ProcessadorLote(motor).Executar(entrada, System.out);
+            } finally {
+                motor.Encerrar();
+            }
+            if (!sucesso) {
+                System.exit(1);
+            }
+            return;
+        }
+
+        if (args.length > 0 && args[0].equals("catracas")) {
+            IngestarCatracas(args);
+            return;
+        }
 
         SistemaEventos sistema = new SistemaEventos();
         Scanner scanner = new Scanner(System.in);
@@ -14,4 +57,36 @@ public class Main {
         MenuPrincipal menu = new MenuPrincipal(sistema, scanner);
         menu.ExibirMenu();
     }
-}
\ No newline at end of file
+
+    // Acompanha as fontes informadas e mostra um relatório a cada sistema.catracas.relatorio segundos
+    private static void IngestarCatracas(String[] args) throws IOException {
+        if (args.length < 3 || args.length % 2 == 0) {
+            System.out.println("Uso: Main catracas (arquivo <caminho> | porta <n>)...");
+            return;
+        }
+        MotorEventos motor = new MotorEventos();
+        IngestaoCatracas ingestao = new IngestaoCatracas(motor);
+        for (int i = 1; i < args.length; i += 2) {
+            if (args[i].equals("arquivo")) {
+                ingestao.AcompanharArquivo(new File(args[i + 1]));
+                System.out.println("Acompanhando " + args[i + 1]);
+            } else {
+                System.out.println("Catracas na porta " + ingestao.OuvirPorta(Integer.parseInt(args[i + 1])));
+            }
+        }
+        // No Ctrl+C, o gancho do motor para a ingestão (esperando os lotes já lidos) antes de gravar e fechar
+        motor.EncerrarAntes(() -> {
+            ingestao.Parar();
+            System.out.println(ingestao.Relatorio());
+        });
+        long intervalo = Long.getLong("sistema.catracas.relatorio", 10) * 1000;
+        while (true) {
+            try {
+                Thread.sleep(intervalo);
+            } catch (InterruptedException e) {
+                return;
+            }
+            System.out.println(ingestao.Relatorio());
+        }
+    }
+}
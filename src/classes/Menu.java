@@ -25,6 +25,8 @@ public class Menu {
                 System.out.println("6. Consultar Usuário");
                 System.out.println("7. Marcar Presença em Evento");
                 System.out.println("8. Cancelar Presença em Evento");
+                System.out.println("9. Exportar Presenças (presenca.data)");
+                System.out.println("10. Buscar Eventos");
                 System.out.println("0. Sair");
                 System.out.print("\nEscolha uma opção: ");
                 int opcao = Integer.parseInt(scanner.nextLine());
@@ -54,9 +56,16 @@ public class Menu {
                     case 8:
                         sistema.CancelarPresenca();
                         break;
+                    case 9:
+                        sistema.ExportarPresencasTexto("presenca.data");
+                        break;
+                    case 10:
+                        sistema.BuscarEventos();
+                        break;
                     case 0:
                         System.out.println("Encerrando o programa...");
-                        System.exit(0);
+                        sistema.Encerrar(); // Grava as alterações pendentes antes de sair
+                        return;
                     default:
                         System.out.println("Opção inválida! Tente novamente.");
                 }
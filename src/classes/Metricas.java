@@ -0,0 +1,266 @@
+package classes;
+
+import java.io.BufferedWriter;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+import javax.management.Attribute;
+import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.DynamicMBean;
+import javax.management.JMException;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanInfo;
+import javax.management.MBeanOperationInfo;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+// Métricas do sistema: latência de cada operação (um Histograma por operação), contadores de registros e
+// bytes lidos e gravados, e medidores consultados na hora (ex: tamanho dos índices).
+// Ficam visíveis via JMX (classes:type=Metricas, ex: no jconsole) e em um relatório em texto anexado a
+// metricas.log periodicamente. Com sistema.metricas=false, Iniciar e Registrar não leem o relógio e
+// retornam na primeira linha.
+//
+// Uso em uma operação:
+//   long medicao = Metricas.Iniciar();
+//   try { ... } finally { Metricas.Registrar(Metricas.Operacao.MARCAR_PRESENCA, medicao); }
+class Metricas {
+
+    static final boolean ATIVAS = Boolean.parseBoolean(System.getProperty("sistema.metricas", "true"));
+    // Intervalo (em segundos) entre relatórios em metricas.log; 0 = sem relatório
+    private static final long INTERVALO_RELATORIO = Long.getLong("sistema.metricas.intervalo", 60);
+
+    public enum Operacao {
+        CADASTRAR_EVENTO, CADASTRAR_USUARIO, MARCAR_PRESENCA, MARCAR_PRESENCAS_LOTE, CANCELAR_PRESENCA,
+        VERIFICAR_PRESENCA, LISTAR_EVENTOS, EVENTOS_FUTUROS, EVENTOS_PASSADOS, EVENTOS_DA_CIDADE, EVENTOS_OCORRENDO,
+        EVENTOS_DO_USUARIO, BUSCAR_EVENTOS_TEXTO, BUSCAR_USUARIOS, BUSCAR_USUARIOS_APROXIMADO, SALVAR_EVENTOS,
+        EXPORTAR_PRESENCAS, CARREGAR_EVENTOS, CARREGAR_USUARIOS, CARREGAR_PRESENCAS,
+        GRAVAR_LOTE, COMPACTAR_LOG, COMPACTAR_PRESENCAS
+    }
+
+    public enum Contador {
+        REGISTROS_LIDOS, BYTES_LIDOS, REGISTROS_GRAVADOS, BYTES_GRAVADOS, SNAPSHOTS_GRAVADOS
+    }
+
+    private static final Histograma[] LATENCIAS = new Histograma[Operacao.values().length];
+    private static final LongAdder[] CONTADORES = new LongAdder[Contador.values().length];
+    private static final Map<String, LongSupplier> MEDIDORES = new ConcurrentSkipListMap<>();
+    private static boolean publicadas;
+
+    static {
+        for (int i = 0; i < LATENCIAS.length; i++) {
+            LATENCIAS[i] = new Histograma();
+        }
+        for (int i = 0; i < CONTADORES.length; i++) {
+            CONTADORES[i] = new LongAdder();
+        }
+    }
+
+    private Metricas() {
+    }
+
+    // Instante de início de uma operação, para passar a Registrar (0 com as métricas desligadas)
+    public static long Iniciar() {
+        return ATIVAS ? System.nanoTime() : 0;
+    }
+
+    // Método para registrar a latência de uma operação iniciada em 'inicio' (ver Iniciar)
+    public static void Registrar(Operacao operacao, long inicio) {
+        if (!ATIVAS) {
+            return;
+        }
+        LATENCIAS[operacao.ordinal()].Registrar(System.nanoTime() - inicio);
+    }
+
+    public static void Contar(Contador contador, long quantidade) {
+        if (!ATIVAS) {
+            return;
+        }
+        CONTADORES[contador.ordinal()].add(quantidade);
+    }
+
+    // Método para incluir um medidor, lido só quando as métricas são consultadas; um medidor com o
+    // mesmo nome é substituído
+    public static void RegistrarMedidor(String nome, LongSupplier medidor) {
+        if (ATIVAS) {
+            MEDIDORES.put(nome, medidor);
+        }
+    }
+
+    public static Histograma Latencias(Operacao operacao) {
+        return LATENCIAS[operacao.ordinal()];
+    }
+
+    public static long Valor(Contador contador) {
+        return CONTADORES[contador.ordinal()].sum();
+    }
+
+    public static void Zerar() {
+        for (Histograma histograma : LATENCIAS) {
+            histograma.Zerar();
+        }
+        for (LongAdder contador : CONTADORES) {
+            contador.reset();
+        }
+    }
+
+    // Método para registrar o MBean e começar os relatórios periódicos (uma vez só)
+    public static synchronized void Publicar() {
+        if (!ATIVAS || publicadas) {
+            return;
+        }
+        publicadas = true;
+        try {
+            MBeanServer servidor = ManagementFactory.getPlatformMBeanServer();
+            ObjectName nome = new ObjectName("classes:type=Metricas");
+            if (!servidor.isRegistered(nome)) {
+                servidor.registerMBean(new Bean(), nome);
+            }
+        } catch (JMException e) {
+            System.out.println("Erro ao registrar as métricas no JMX: " + e.getMessage());
+        }
+        if (INTERVALO_RELATORIO > 0) {
+            ScheduledExecutorService relator = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "metricas");
+                thread.setDaemon(true);
+                return thread;
+            });
+            relator.scheduleAtFixedRate(Metricas::GravarRelatorio, INTERVALO_RELATORIO, INTERVALO_RELATORIO,
+                    TimeUnit.SECONDS);
+        }
+    }
+
+    private static void GravarRelatorio() {
+        try (PrintWriter writer = new PrintWriter(new BufferedWriter(new FileWriter("metricas.log", true)))) {
+            writer.println("== " + LocalDateTime.now().format(Evento.FORMATO_DATA_HORA));
+            writer.print(Relatorio());
+        } catch (IOException e) {
+            System.out.println("Erro ao gravar o relatório de métricas: " + e.getMessage());
+        }
+    }
+
+    // Relatório em texto: latências (em µs) das operações já executadas, contadores e medidores
+    public static String Relatorio() {
+        StringBuilder relatorio = new StringBuilder();
+        for (Operacao operacao : Operacao.values()) {
+            Histograma histograma = Latencias(operacao);
+            if (histograma.GetTotal() == 0) {
+                continue;
+            }
+            relatorio.append(String.format("%-20s n=%d media=%dus p50=%dus p99=%dus max=%dus%n", operacao,
+                    histograma.GetTotal(), histograma.GetMedia() / 1000, histograma.Percentil(0.5) / 1000,
+                    histograma.Percentil(0.99) / 1000, histograma.GetMaximo() / 1000));
+        }
+        for (Contador contador : Contador.values()) {
+            relatorio.append(String.format("%-20s %d%n", contador, Valor(contador)));
+        }
+        for (Map.Entry<String, LongSupplier> medidor : MEDIDORES.entrySet()) {
+            relatorio.append(String.format("%-20s %d%n", medidor.getKey(), medidor.getValue().getAsLong()));
+        }
+        return relatorio.toString();
+    }
+
+    // MBean dinâmico: um atributo por estatística de cada operação (ex: MARCAR_PRESENCA.p99Us), um por
+    // contador e um por medidor
+    private static class Bean implements DynamicMBean {
+        private static final String[] ESTATISTICAS = { "total", "mediaUs", "p50Us", "p99Us", "maxUs" };
+
+        @Override
+        public Object getAttribute(String atributo) throws AttributeNotFoundException {
+            if (atributo.equals("Relatorio")) {
+                return Relatorio();
+            }
+            int ponto = atributo.indexOf('.');
+            try {
+                if (ponto > 0) {
+                    Histograma histograma = Latencias(Operacao.valueOf(atributo.substring(0, ponto)));
+                    switch (atributo.substring(ponto + 1)) {
+                        case "total":
+                            return histograma.GetTotal();
+                        case "mediaUs":
+                            return histograma.GetMedia() / 1000;
+                        case "p50Us":
+                            return histograma.Percentil(0.5) / 1000;
+                        case "p99Us":
+                            return histograma.Percentil(0.99) / 1000;
+                        case "maxUs":
+                            return histograma.GetMaximo() / 1000;
+                        default:
+                            throw new AttributeNotFoundException(atributo);
+                    }
+                }
+                LongSupplier medidor = MEDIDORES.get(atributo);
+                return medidor != null ? medidor.getAsLong() : Valor(Contador.valueOf(atributo));
+            } catch (IllegalArgumentException e) {
+                throw new AttributeNotFoundException(atributo);
+            }
+        }
+
+        @Override
+        public void setAttribute(Attribute atributo) throws AttributeNotFoundException {
+            throw new AttributeNotFoundException("As métricas são somente leitura: " + atributo.getName());
+        }
+
+        @Override
+        public AttributeList getAttributes(String[] atributos) {
+            AttributeList lista = new AttributeList();
+            for (String atributo : atributos) {
+                try {
+                    lista.add(new Attribute(atributo, getAttribute(atributo)));
+                } catch (AttributeNotFoundException e) {
+                    // atributos desconhecidos ficam de fora, como pede a interface
+                }
+            }
+            return lista;
+        }
+
+        @Override
+        public AttributeList setAttributes(AttributeList atributos) {
+            return new AttributeList();
+        }
+
+        @Override
+        public Object invoke(String acao, Object[] parametros, String[] assinatura) {
+            if (acao.equals("Zerar")) {
+                Zerar();
+                return null;
+            }
+            throw new UnsupportedOperationException(acao);
+        }
+
+        @Override
+        public MBeanInfo getMBeanInfo() {
+            List<MBeanAttributeInfo> atributos = new ArrayList<>();
+            for (Operacao operacao : Operacao.values()) {
+                for (String estatistica : ESTATISTICAS) {
+                    atributos.add(new MBeanAttributeInfo(operacao + "." + estatistica, "long",
+                            "Latência de " + operacao, true, false, false));
+                }
+            }
+            for (Contador contador : Contador.values()) {
+                atributos.add(new MBeanAttributeInfo(contador.name(), "long", contador.name(), true, false, false));
+            }
+            for (String medidor : MEDIDORES.keySet()) {
+                atributos.add(new MBeanAttributeInfo(medidor, "long", medidor, true, false, false));
+            }
+            atributos.add(new MBeanAttributeInfo("Relatorio", "java.lang.String", "Relatório em texto", true,
+                    false, false));
+            MBeanOperationInfo zerar = new MBeanOperationInfo("Zerar", "Zera latências e contadores",
+                    null, "void", MBeanOperationInfo.ACTION);
+            return new MBeanInfo(Metricas.class.getName(), "Métricas do sistema de eventos",
+                    atributos.toArray(new MBeanAttributeInfo[0]), null, new MBeanOperationInfo[] { zerar }, null);
+        }
+    }
+}
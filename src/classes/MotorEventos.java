@@ -0,0 +1,1114 @@
+package classes;
+
+import java.io.*;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Motor do sistema de eventos: dados, índices, persistência e as operações do sistema, sem entrada
+// e saída de console, para que o menu (SistemaEventos) e o servidor HTTP (ServidorHttp) usem o mesmo.
+// Pode ser usado por várias threads (ex: vários balcões de check-in): as coleções são concorrentes,
+// consultas não usam trava e presenças são marcadas/canceladas sob a trava do evento.
+// Eventos e usuários ficam divididos por cidade (ParticaoCidade): consultas de uma cidade olham só a sua
+// partição e as de todas as cidades juntam as partições em paralelo.
+// Com sistema.eventos.armazem=foraheap, os eventos ficam fora do heap (ArmazemEventos) e as consultas de
+// eventos varrem o armazém; as partições continuam cuidando dos arquivos de cada cidade.
+class MotorEventos {
+    // Tamanho do log de alterações (em bytes) a partir do qual um snapshot novo é gravado
+    private static final long LIMITE_LOG = Long.getLong("sistema.log.limite", 1024 * 1024);
+    // Quantidade de IDs reservados a cada gravação dos arquivos de sequência
+    private static final int BLOCO_IDS = Integer.getInteger("sistema.ids.bloco", 1000);
+    // Quantidade mínima de presenças canceladas para regravar o arquivo de presenças sem elas
+    private static final long MINIMO_CANCELADOS = Long.getLong("sistema.presencas.compactar", 1000);
+    // Formato do snapshot de eventos gravado pela compactação: "texto" ou "binario"
+    private static final String FORMATO_SNAPSHOT_EVENTOS = System.getProperty("sistema.eventos.snapshot", "texto");
+    // Quanto quem altera espera pela gravação: "sync", "batched" ou "async"
+    private static final String DURABILIDADE = System.getProperty("sistema.persistencia.durabilidade", "batched");
+    // Tempo máximo (em ms) que a thread de gravação espera para juntar alterações em um lote (modo async)
+    private static final long INTERVALO_PERSISTENCIA = Long.getLong("sistema.persistencia.intervalo", 10);
+    // Quantidade máxima de alterações em um lote
+    private static final int LOTE_PERSISTENCIA = Integer.getInteger("sistema.persistencia.lote", 256);
+    // Antecedências (em minutos, separadas por vírgula) dos lembretes enviados aos participantes
+    private static final String ANTECEDENCIAS_LEMBRETES = System.getProperty("sistema.lembretes.antecedencias",
+            "1440,60");
+    // Para onde vão os lembretes: "arquivo" (lembretes.log), "memoria" ou "nenhum"
+    private static final String DESTINO_LEMBRETES = System.getProperty("sistema.lembretes.destino", "arquivo");
+    // Resolução (em ms) da roda de tempo dos lembretes
+    private static final long TICK_LEMBRETES = Long.getLong("sistema.lembretes.tick", 1000);
+    // Onde ficam os eventos em memória: "heap" (nas partições, com índices) ou "foraheap" (ArmazemEventos)
+    private static final String ARMAZEM_EVENTOS = System.getProperty("sistema.eventos.armazem", "heap");
+
+    // Arquivos de antes da divisão por cidade: um snapshot + log para todos os eventos e outro para os usuários
+    private static final String[] ARQUIVOS_SEM_PARTICAO = { "events.data", "events.log", "users.data", "users.log" };
+
+    // Eventos e usuários ficam na partição da sua cidade (arquivos, listas e índices próprios); só as buscas
+    // por ID e email, que não dependem da cidade, são globais
+    private Map<String, ParticaoCidade> particoes;
+    private Map<Integer, Evento> eventosPorId; // cadastrados ou lidos de arquivos texto
+    // Snapshots binários das partições, que continuam mapeados: os eventos deles só são criados quando
+    // acessados, e a busca por ID usa a tabela ordenada (ID << 32 | posição), em que a posição conta os
+    // eventos de todos os snapshots, na ordem de 'mapeados'
+    private SnapshotEventos[] mapeados = new SnapshotEventos[0];
+    private int[] inicioMapeados = new int[0]; // posição do primeiro evento de cada snapshot
+    private long[] mapeadosPorId = new long[0];
+    private ArmazemEventos armazem; // null quando os eventos ficam no heap
+    private IndiceTexto indiceTexto; // nome e descrição de todos os eventos, para BuscarEventosPorTexto
+    private Map<Integer, Usuario> usuariosPorId;
+    private Map<String, Usuario> usuariosPorEmail;
+    private IndiceNomes indiceNomes; // nome e sobrenome de todos os usuários, para BuscarUsuariosAproximado
+    private SequenciaIds sequenciaUsuarios;
+    private SequenciaIds sequenciaEventos;
+    private RegistroPresencas presencas;
+    private ArquivoPresencas arquivoPresencas;
+    private PersistenciaAssincrona persistencia;
+    private AgendadorLembretes lembretes;
+    private Thread ganchoEncerramento;
+    private final List<Closeable> antesDeEncerrar = new CopyOnWriteArrayList<>();
+    private boolean encerrado;
+
+    // Construtor, com o destino de lembretes configurado em sistema.lembretes.destino
+    public MotorEventos() {
+        this(DestinoLembretesConfigurado());
+    }
+
+    // Construtor com um destino de lembretes próprio
+    public MotorEventos(AgendadorLembretes.Destino destinoLembretes) {
+        particoes = new ConcurrentHashMap<>();
+        indiceTexto = new IndiceTexto();
+        eventosPorId = new ConcurrentHashMap<>();
+        usuariosPorId = new ConcurrentHashMap<>();
+        usuariosPorEmail = new ConcurrentHashMap<>();
+        indiceNomes = new IndiceNomes();
+        presencas = new RegistroPresencas();
+        armazem = ARMAZEM_EVENTOS.equals("foraheap") ? new ArmazemEventos() : null;
+        arquivoPresencas = new ArquivoPresencas("presenca.bin", MINIMO_CANCELADOS);
+        AbrirParticoes();
+        boolean semParticao = ExistemArquivosSemParticao();
+        // Eventos e usuários são carregados ao mesmo tempo; as presenças dependem de ambos
+        CompletableFuture<Void> cargaEventos = CompletableFuture.runAsync(this::CarregarEventos);
+        CarregarUsuarios();
+        cargaEventos.join();
+        if (semParticao) {
+            DividirArquivosSemParticao();
+        }
+        Collection<Evento> comPresencas = CarregarPresencas();
+        lembretes = new AgendadorLembretes(LerAntecedencias(ANTECEDENCIAS_LEMBRETES), destinoLembretes,
+                TICK_LEMBRETES);
+        AgendarLembretesCarregados(comPresencas);
+        lembretes.Iniciar();
+
+        persistencia = new PersistenciaAssincrona(
+                PersistenciaAssincrona.Durabilidade.valueOf(DURABILIDADE.toUpperCase(Locale.ROOT)),
+                INTERVALO_PERSISTENCIA, LOTE_PERSISTENCIA);
+        // Grava o que estiver pendente mesmo se o programa for encerrado sem passar pelo menu
+        ganchoEncerramento = new Thread(this::Encerrar, "encerramento");
+        Runtime.getRuntime().addShutdownHook(ganchoEncerramento);
+        RegistrarMedidores();
+        Metricas.Publicar();
+    }
+
+    // Medidores do tamanho dos índices, lidos quando as métricas são consultadas
+    private void RegistrarMedidores() {
+        Metricas.RegistrarMedidor("eventos",
+                () -> armazem == null ? eventosPorId.size() + mapeadosPorId.length : armazem.Quantidade());
+        Metricas.RegistrarMedidor("usuarios", () -> usuariosPorId.size());
+        Metricas.RegistrarMedidor("emails", () -> usuariosPorEmail.size());
+        Metricas.RegistrarMedidor("cidades", () -> particoes.size());
+        Metricas.RegistrarMedidor("presencas_ativas", () -> arquivoPresencas.Ativos());
+        Metricas.RegistrarMedidor("lembretes_pendentes", () -> lembretes.Pendentes());
+        Metricas.RegistrarMedidor("termos_busca", () -> indiceTexto.QuantidadeTermos());
+        Metricas.RegistrarMedidor("termos_nomes", () -> indiceNomes.QuantidadeTermos());
+        Metricas.RegistrarMedidor("textos_dicionario", () -> DicionarioTextos.COMPARTILHADO.Tamanho());
+        if (armazem != null) {
+            Metricas.RegistrarMedidor("eventos_fixados", () -> armazem.Fixados().size());
+            Metricas.RegistrarMedidor("bytes_fora_do_heap", () -> armazem.BytesForaDoHeap());
+        }
+    }
+
+    // Método para registrar um componente que alimenta o motor (ex: IngestaoCatracas) e deve parar antes que
+    // Encerrar grave as alterações pendentes. O gancho de encerramento do motor é o único, então ninguém
+    // marca presenças depois que os arquivos foram fechados. Os componentes param na ordem inversa do registro.
+    public void EncerrarAntes(Closeable componente) {
+        antesDeEncerrar.add(componente);
+    }
+
+    // Método para parar os componentes registrados em EncerrarAntes, gravar as alterações pendentes e fechar
+    // os arquivos; pode ser chamado mais de uma vez
+    public synchronized void Encerrar() {
+        if (encerrado) {
+            return;
+        }
+        encerrado = true;
+        // Encerrado pelo programa, o gancho não é mais necessário (e não deve prender o motor na memória)
+        if (Thread.currentThread() != ganchoEncerramento) {
+            try {
+                Runtime.getRuntime().removeShutdownHook(ganchoEncerramento);
+            } catch (IllegalStateException e) {
+                // a JVM já está encerrando; o gancho vai rodar e retornar na primeira linha
+            }
+        }
+        for (int i = antesDeEncerrar.size() - 1; i >= 0; i--) {
+            try {
+                antesDeEncerrar.get(i).close();
+            } catch (IOException | RuntimeException e) {
+                System.out.println("Erro ao parar um componente antes do encerramento: " + e.getMessage());
+            }
+        }
+        try {
+            lembretes.Encerrar();
+            persistencia.Encerrar();
+            for (ParticaoCidade particao : particoes.values()) {
+                particao.GetLogEventos().Descarregar();
+                particao.GetLogUsuarios().Descarregar();
+            }
+            arquivoPresencas.Fechar();
+        } catch (IOException e) {
+            System.out.println("Erro ao gravar as alterações pendentes: " + e.getMessage());
+        }
+    }
+
+    private static AgendadorLembretes.Destino DestinoLembretesConfigurado() {
+        switch (DESTINO_LEMBRETES) {
+            case "memoria":
+                return new AgendadorLembretes.DestinoMemoria();
+            case "nenhum":
+                return entregues -> {
+                };
+            default:
+                try {
+                    return new AgendadorLembretes.DestinoArquivo("lembretes.log");
+                } catch (IOException e) {
+                    System.out.println("Erro ao abrir o arquivo de lembretes: " + e.getMessage());
+                    return entregues -> {
+                    };
+                }
+        }
+    }
+
+    // Lê uma lista de minutos separados por vírgula, ex: "1440,60"
+    private static int[] LerAntecedencias(String texto) {
+        List<Integer> minutos = new ArrayList<>();
+        for (String parte : texto.split(",")) {
+            if (!parte.trim().isEmpty()) {
+                minutos.add(Integer.parseInt(parte.trim()));
+            }
+        }
+        return minutos.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    // Método para agendar os lembretes das presenças lidas do arquivo, nos eventos que ainda não começaram
+    private void AgendarLembretesCarregados(Collection<Evento> comPresencas) {
+        int agora = Evento.ParaMinutos(LocalDateTime.now());
+        for (Evento evento : comPresencas) {
+            if (evento.GetInicioMinutos() <= agora) {
+                continue;
+            }
+            ConjuntoIds participantes = evento.GetParticipantes();
+            for (int i = 0; i < participantes.Tamanho(); i++) {
+                lembretes.Agendar(evento, participantes.Get(i));
+            }
+        }
+    }
+
+    // Método para abrir as partições que já existem em disco (um diretório por cidade)
+    private void AbrirParticoes() {
+        File[] diretorios = new File(ParticaoCidade.DIRETORIO_RAIZ).listFiles(File::isDirectory);
+        if (diretorios == null) {
+            return;
+        }
+        for (File diretorio : diretorios) {
+            Particao(ParticaoCidade.CidadeDoDiretorio(diretorio.getName()));
+        }
+    }
+
+    // Partição da cidade, criada no primeiro cadastro nela
+    private ParticaoCidade Particao(String cidade) {
+        return particoes.computeIfAbsent(IndiceUsuarios.Normalizar(cidade),
+                chave -> new ParticaoCidade(chave, LIMITE_LOG, FORMATO_SNAPSHOT_EVENTOS.equals("binario"),
+                        armazem, this::BuscarEventoPorId));
+    }
+
+    // Partição da cidade, ou null se não há nada cadastrado nela (consultas não criam partições)
+    private ParticaoCidade ParticaoExistente(String cidade) {
+        return particoes.get(IndiceUsuarios.Normalizar(cidade));
+    }
+
+    // Método para juntar, em paralelo, o resultado de uma consulta em todas as partições
+    private <T> List<T> Juntar(Function<ParticaoCidade, List<T>> consulta, Comparator<T> ordem) {
+        List<T> resultado = particoes.values().parallelStream()
+                .flatMap(particao -> consulta.apply(particao).stream())
+                .collect(Collectors.toList());
+        resultado.sort(ordem);
+        return resultado;
+    }
+
+    private List<IndiceTemporal> IndicesTemporais() {
+        List<IndiceTemporal> indices = new ArrayList<>(particoes.size());
+        for (ParticaoCidade particao : particoes.values()) {
+            indices.add(particao.GetIndiceTemporal());
+        }
+        return indices;
+    }
+
+    // Método para salvar um evento novo no log de alterações da sua cidade
+    private void SalvarEvento(Evento evento) throws IOException {
+        String registro = evento.toFileString();
+        ArquivoLog<Evento> log = Particao(evento.GetCidade()).GetLogEventos();
+        persistencia.Registrar(log, () -> log.Anexar(registro));
+    }
+
+    // Método para começar um lote de alterações (ex: um arquivo de comandos do modo lote): até ConcluirLote,
+    // as gravações feitas por esta thread não descarregam os arquivos nem esperam pela durabilidade
+    // configurada; as das outras threads não mudam
+    public void IniciarLote() {
+        persistencia.IniciarLote();
+    }
+
+    // Método para descarregar de uma vez os arquivos alterados pelo lote desta thread desde IniciarLote
+    public void ConcluirLote() throws IOException {
+        persistencia.ConcluirLote();
+    }
+
+    // Método para salvar os eventos de cada cidade em um snapshot novo (no formato configurado) e esvaziar
+    // os logs; as cidades são gravadas em paralelo
+    public void SalvarEventos() throws IOException {
+        long medicao = Metricas.Iniciar();
+        try {
+            particoes.values().parallelStream().forEach(particao -> {
+                try {
+                    particao.GetLogEventos().CompactarAgora();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            Metricas.Registrar(Metricas.Operacao.SALVAR_EVENTOS, medicao);
+        }
+    }
+
+    // Método para salvar um usuário novo no log de alterações da sua cidade
+    private void SalvarUsuario(Usuario usuario) throws IOException {
+        String registro = usuario.toFileString();
+        ArquivoLog<Usuario> log = Particao(usuario.GetCidade()).GetLogUsuarios();
+        persistencia.Registrar(log, () -> log.Anexar(registro));
+    }
+
+    private static boolean ExistemArquivosSemParticao() {
+        for (String nome : ARQUIVOS_SEM_PARTICAO) {
+            if (new File(nome).exists() || new File(nome + ".old").exists()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Método para preparar a carga dos arquivos de antes da divisão por cidade, se ainda existirem
+    private static List<File> ArquivosSemParticao(String nomeSnapshot, String nomeLog) throws IOException {
+        if (!new File(nomeSnapshot).exists() && !new File(nomeLog).exists() && !new File(nomeLog + ".old").exists()) {
+            return new ArrayList<>();
+        }
+        ArquivoLog<Object> antigo = new ArquivoLog<>(nomeSnapshot, nomeLog, Long.MAX_VALUE, String::valueOf,
+                ArrayList::new);
+        List<File> arquivos = antigo.PrepararCarga();
+        antigo.Fechar();
+        return arquivos;
+    }
+
+    // Método para gravar nas partições o que foi lido dos arquivos de antes da divisão por cidade e
+    // renomear esses arquivos para *.migrado. Se o programa parar antes de renomear, a próxima carga lê
+    // os dois e descarta os registros repetidos.
+    private void DividirArquivosSemParticao() {
+        try {
+            for (ParticaoCidade particao : particoes.values()) {
+                particao.GetLogEventos().CompactarAgora();
+                particao.GetLogUsuarios().CompactarAgora();
+            }
+            for (String nome : ARQUIVOS_SEM_PARTICAO) {
+                File arquivo = new File(nome);
+                if (arquivo.exists()) {
+                    Files.move(arquivo.toPath(), new File(nome + ".migrado").toPath(),
+                            StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+            System.out.println("Eventos e usuários divididos por cidade em " + ParticaoCidade.DIRETORIO_RAIZ);
+        } catch (IOException e) {
+            System.out.println("Erro ao dividir os arquivos por cidade: " + e.getMessage());
+        }
+    }
+
+    // Método para carregar os usuários de todas as cidades a partir dos snapshots e logs
+    private void CarregarUsuarios() {
+        long medicao = Metricas.Iniciar();
+        try {
+            sequenciaUsuarios = new SequenciaIds("users.seq", BLOCO_IDS);
+            CarregadorParalelo.Tempos tempos = new CarregadorParalelo.Tempos();
+            // Os arquivos sem partição vêm primeiro: neles, o ID padrão de uma linha é a sua posição
+            List<File> arquivos = ArquivosSemParticao("users.data", "users.log");
+            for (ParticaoCidade particao : new ArrayList<>(particoes.values())) {
+                arquivos.addAll(particao.GetLogUsuarios().PrepararCarga());
+            }
+            List<Usuario> carregados = CarregadorParalelo.Carregar(arquivos, ParserRegistros::LerUsuario, tempos);
+
+            long inicioIndices = System.nanoTime();
+            for (Usuario usuario : carregados) {
+                sequenciaUsuarios.Observar(usuario.GetId());
+                // Um registro pode estar no snapshot e no log se a compactação rodou com ele ainda na fila
+                if (!usuariosPorId.containsKey(usuario.GetId())) {
+                    AdicionarUsuario(usuario);
+                }
+            }
+            tempos.indices = System.nanoTime() - inicioIndices;
+            System.out.println("Carga de usuários: " + tempos);
+        } catch (IOException e) {
+            System.out.println("Erro ao carregar usuários: " + e.getMessage());
+        } finally {
+            Metricas.Registrar(Metricas.Operacao.CARREGAR_USUARIOS, medicao);
+        }
+    }
+
+    // Método para carregar os eventos de todas as cidades a partir dos snapshots e logs
+    private void CarregarEventos() {
+        long medicao = Metricas.Iniciar();
+        try {
+            sequenciaEventos = new SequenciaIds("events.seq", BLOCO_IDS);
+            CarregadorParalelo.Tempos tempos = new CarregadorParalelo.Tempos();
+            List<File> arquivos = new ArrayList<>();
+            // Os arquivos sem partição vêm primeiro: neles, o ID padrão de uma linha é a sua posição
+            SnapshotEventos semParticao = SepararSnapshotBinario(ArquivosSemParticao("events.data", "events.log"),
+                    arquivos);
+            List<ParticaoCidade> particoesMapeadas = new ArrayList<>();
+            List<SnapshotEventos> snapshots = new ArrayList<>();
+            for (ParticaoCidade particao : new ArrayList<>(particoes.values())) {
+                SnapshotEventos snapshot = SepararSnapshotBinario(particao.GetLogEventos().PrepararCarga(), arquivos);
+                if (snapshot != null && !snapshot.isEmpty()) {
+                    particoesMapeadas.add(particao);
+                    snapshots.add(snapshot);
+                }
+            }
+            List<Evento> carregados = CarregadorParalelo.Carregar(arquivos, ParserRegistros::LerEvento, tempos);
+
+            long inicioIndices = System.nanoTime();
+            if (semParticao != null) {
+                // Os eventos sem partição vão para a partição de cada um, então são criados agora
+                AdicionarEventosDoSnapshot(semParticao);
+                tempos.registros += semParticao.size();
+            }
+            // Fora do heap, o armazém guarda uma cópia de cada evento, então eles são criados de uma vez
+            if (armazem != null || !MapearSnapshots(particoesMapeadas, snapshots)) {
+                for (SnapshotEventos snapshot : snapshots) {
+                    AdicionarEventosDoSnapshot(snapshot);
+                }
+            }
+            for (SnapshotEventos snapshot : snapshots) {
+                tempos.registros += snapshot.size();
+            }
+            for (Evento evento : carregados) {
+                sequenciaEventos.Observar(evento.GetId());
+                // Um registro pode estar no snapshot e no log se a compactação rodou com ele ainda na fila
+                if (!ExisteEvento(evento.GetId())) {
+                    AdicionarEvento(evento);
+                }
+            }
+            tempos.indices = System.nanoTime() - inicioIndices;
+            System.out.println("Carga de eventos: " + tempos);
+        } catch (IOException e) {
+            System.out.println("Erro ao carregar eventos: " + e.getMessage());
+        } finally {
+            Metricas.Registrar(Metricas.Operacao.CARREGAR_EVENTOS, medicao);
+        }
+    }
+
+    // Método para separar um snapshot binário (o primeiro arquivo, se houver) dos arquivos texto; retorna o
+    // snapshot mapeado, ou null. O snapshot binário não precisa de parse: os eventos são lidos direto do
+    // arquivo mapeado.
+    private static SnapshotEventos SepararSnapshotBinario(List<File> arquivosDoLog, List<File> texto)
+            throws IOException {
+        SnapshotEventos snapshot = null;
+        if (!arquivosDoLog.isEmpty() && SnapshotEventos.EhSnapshotBinario(arquivosDoLog.get(0))) {
+            snapshot = SnapshotEventos.Abrir(arquivosDoLog.remove(0));
+        }
+        texto.addAll(arquivosDoLog);
+        return snapshot;
+    }
+
+    // Método para criar e incluir todos os eventos de um snapshot (os que já existem são ignorados)
+    private void AdicionarEventosDoSnapshot(SnapshotEventos snapshot) {
+        for (int i = 0; i < snapshot.size(); i++) {
+            sequenciaEventos.Observar(snapshot.GetId(i));
+            if (!ExisteEvento(snapshot.GetId(i))) {
+                AdicionarEvento(snapshot.Ler(i));
+            }
+        }
+    }
+
+    // Método para deixar os snapshots das partições mapeados, indexando os eventos pelo ID, horários e texto
+    // lidos do arquivo, sem criá-los. Se algum ID se repete (entre os snapshots ou com um evento já incluído),
+    // nada é feito e retorna false: os eventos precisam ser criados um a um para descartar as repetições.
+    private boolean MapearSnapshots(List<ParticaoCidade> particoesMapeadas, List<SnapshotEventos> snapshots) {
+        int total = 0;
+        for (SnapshotEventos snapshot : snapshots) {
+            total += snapshot.size();
+        }
+        long[] porId = new long[total];
+        int[] inicios = new int[snapshots.size()];
+        int posicao = 0;
+        for (int s = 0; s < snapshots.size(); s++) {
+            inicios[s] = posicao;
+            for (int i = 0; i < snapshots.get(s).size(); i++, posicao++) {
+                porId[posicao] = (long) snapshots.get(s).GetId(i) << 32 | posicao;
+            }
+        }
+        Arrays.sort(porId);
+        for (int i = 0; i < porId.length; i++) {
+            int id = (int) (porId[i] >>> 32);
+            if ((i > 0 && id == (int) (porId[i - 1] >>> 32)) || eventosPorId.containsKey(id)) {
+                return false;
+            }
+        }
+
+        mapeados = snapshots.toArray(new SnapshotEventos[0]);
+        inicioMapeados = inicios;
+        mapeadosPorId = porId;
+        for (int s = 0; s < snapshots.size(); s++) {
+            SnapshotEventos snapshot = snapshots.get(s);
+            particoesMapeadas.get(s).AdicionarMapeado(snapshot);
+            for (int i = 0; i < snapshot.size(); i++) {
+                sequenciaEventos.Observar(snapshot.GetId(i));
+                indiceTexto.Adicionar(snapshot.GetId(i), snapshot.GetNome(i), snapshot.GetDescricao(i));
+            }
+        }
+        return true;
+    }
+
+    // Posição do evento na tabela dos snapshots mapeados, ou -1 se ele não está em nenhum
+    private int PosicaoMapeada(int id) {
+        long[] porId = mapeadosPorId;
+        int indice = Arrays.binarySearch(porId, (long) id << 32);
+        if (indice < 0) {
+            indice = -indice - 1;
+        }
+        return indice < porId.length && (int) (porId[indice] >>> 32) == id ? (int) porId[indice] : -1;
+    }
+
+    // Evento de um snapshot mapeado, criado no primeiro acesso (null se ele não está em nenhum)
+    private Evento BuscarMapeado(int id) {
+        int posicao = PosicaoMapeada(id);
+        if (posicao < 0) {
+            return null;
+        }
+        int snapshot = Arrays.binarySearch(inicioMapeados, posicao);
+        if (snapshot < 0) {
+            snapshot = -snapshot - 2;
+        }
+        return mapeados[snapshot].get(posicao - inicioMapeados[snapshot]);
+    }
+
+    // Método para carregar as presenças do arquivo binário para a memória; retorna os eventos com presenças
+    // ou lista de espera (os únicos que precisam ser criados, se estão em um snapshot mapeado)
+    private Collection<Evento> CarregarPresencas() {
+        long medicao = Metricas.Iniciar();
+        Map<Integer, Evento> comPresencas = new HashMap<>();
+        try {
+            boolean primeiraCarga = !arquivoPresencas.Existe();
+            arquivoPresencas.Carregar((idUsuario, idEvento, instante, espera) -> {
+                Evento evento = BuscarEventoPorId(idEvento);
+                Usuario usuario = usuariosPorId.get(idUsuario);
+                if (evento == null || usuario == null) {
+                    return;
+                }
+                evento = Fixado(evento);
+                comPresencas.putIfAbsent(evento.GetId(), evento);
+                if (espera) {
+                    presencas.Esperar(evento, usuario);
+                } else {
+                    presencas.Marcar(evento, usuario);
+                }
+            });
+            if (primeiraCarga) {
+                ImportarPresencasTexto("presenca.data", comPresencas);
+            }
+            // Se o programa parou entre um cancelamento e a promoção correspondente, promove agora
+            for (Evento evento : comPresencas.values()) {
+                if (evento.TamanhoEspera() == 0) {
+                    continue;
+                }
+                int promovido;
+                while ((promovido = presencas.PromoverDaEspera(evento)) >= 0) {
+                    arquivoPresencas.Promover(promovido, evento.GetId());
+                }
+            }
+        } catch (IOException e) {
+            System.out.println("Erro ao ler o arquivo de presença: " + e.getMessage());
+        } finally {
+            Metricas.Registrar(Metricas.Operacao.CARREGAR_PRESENCAS, medicao);
+        }
+        return comPresencas.values();
+    }
+
+    // Método para importar presenças no formato texto antigo para o arquivo binário.
+    // No texto, o evento é identificado pelo nome, horário de início e cidade do usuário.
+    private void ImportarPresencasTexto(String nomeArquivo, Map<Integer, Evento> comPresencas) throws IOException {
+        File arquivo = new File(nomeArquivo);
+        if (!arquivo.exists()) {
+            return;
+        }
+
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
+        Map<String, Evento> eventosPorChave = new HashMap<>();
+        for (Evento evento : GetEventos()) {
+            String chave = evento.GetNome() + ";" + evento.GetHorarioInicio().format(formatter) + ";"
+                    + IndiceUsuarios.Normalizar(evento.GetCidade());
+            eventosPorChave.putIfAbsent(chave, evento);
+        }
+
+        try (BufferedReader reader = new BufferedReader(new FileReader(arquivo))) {
+            int idUsuario = -1;
+            String cidade = "";
+            String nomeEvento = "";
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith("ID do Usuário: ")) {
+                    idUsuario = Integer.parseInt(line.substring("ID do Usuário: ".length()).trim());
+                } else if (line.startsWith("Cidade do Usuário: ")) {
+                    cidade = line.substring("Cidade do Usuário: ".length());
+                } else if (line.startsWith("Evento: ")) {
+                    nomeEvento = line.substring("Evento: ".length());
+                } else if (line.startsWith("Horário de Início do Evento: ")) {
+                    String inicio = line.substring("Horário de Início do Evento: ".length());
+                    Evento evento = eventosPorChave
+                            .get(nomeEvento + ";" + inicio + ";" + IndiceUsuarios.Normalizar(cidade));
+                    Usuario usuario = usuariosPorId.get(idUsuario);
+                    if (evento != null && usuario != null && presencas.Marcar(Fixado(evento), usuario)) {
+                        comPresencas.putIfAbsent(evento.GetId(), Fixado(evento));
+                        arquivoPresencas.Anexar(usuario.GetId(), evento.GetId(), arquivo.lastModified(), false);
+                    }
+                }
+            }
+        }
+    }
+
+    // Método para exportar as presenças ativas no formato texto (o mesmo de presenca.data)
+    public void ExportarPresencasTexto(String nomeArquivo) throws IOException {
+        long medicao = Metricas.Iniciar();
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
+        try (PrintWriter writer = new PrintWriter(new BufferedWriter(new FileWriter(nomeArquivo)))) {
+            arquivoPresencas.PercorrerAtivos((idUsuario, idEvento, instante, espera) -> {
+                Usuario usuario = usuariosPorId.get(idUsuario);
+                Evento evento = BuscarEventoPorId(idEvento);
+                if (usuario == null || evento == null || espera) {
+                    return;
+                }
+                writer.println("ID do Usuário: " + usuario.GetId());
+                writer.println("Nome do Usuário: " + usuario.GetNomeCompleto());
+                writer.println("Cidade do Usuário: " + usuario.GetCidade());
+                writer.println("Evento: " + evento.GetNome());
+                writer.println("Horário de Início do Evento: " + evento.GetHorarioInicio().format(formatter));
+                writer.println();
+            });
+        } finally {
+            Metricas.Registrar(Metricas.Operacao.EXPORTAR_PRESENCAS, medicao);
+        }
+    }
+
+    // Método para incluir um evento na partição da sua cidade e no índice por ID (ou no armazém fora do heap)
+    private void AdicionarEvento(Evento evento) {
+        indiceTexto.Adicionar(evento);
+        if (armazem != null) {
+            armazem.Adicionar(evento);
+            Particao(evento.GetCidade());
+            return;
+        }
+        eventosPorId.put(evento.GetId(), evento);
+        Particao(evento.GetCidade()).AdicionarEvento(evento);
+    }
+
+    private boolean ExisteEvento(int id) {
+        if (armazem != null) {
+            return armazem.Contem(id);
+        }
+        return eventosPorId.containsKey(id) || PosicaoMapeada(id) >= 0;
+    }
+
+    // Instância do evento que guarda participantes, vagas e lista de espera. Fora do heap, cada busca cria
+    // um Evento novo, então quem altera esses dados usa a instância fixada no armazém.
+    private Evento Fixado(Evento evento) {
+        return armazem == null ? evento : armazem.Fixar(evento);
+    }
+
+    // Versão atual do evento para consultar participantes, vagas e lista de espera, sem fixá-lo
+    private Evento Atual(Evento evento) {
+        return armazem == null ? evento : armazem.Buscar(evento.GetId());
+    }
+
+    // Método para incluir um usuário na partição da sua cidade e nos índices globais
+    private void AdicionarUsuario(Usuario usuario) {
+        usuariosPorId.put(usuario.GetId(), usuario);
+        // Mantém o primeiro cadastro do email
+        usuariosPorEmail.putIfAbsent(IndiceUsuarios.Normalizar(usuario.GetEmail()), usuario);
+        indiceNomes.Adicionar(usuario);
+        Particao(usuario.GetCidade()).AdicionarUsuario(usuario);
+    }
+
+    // Método para cadastrar um evento com capacidade máxima (0 = sem limite); lança IllegalArgumentException
+    // se um campo de texto não for válido (ValidarCampo), a categoria não existir ou a capacidade for negativa
+    public Evento CadastrarEvento(String nome, String endereco, String cidade, String categoria,
+            LocalDateTime horarioInicio, LocalDateTime horarioFim, String descricao, int capacidade) throws IOException {
+        long medicao = Metricas.Iniciar();
+        try {
+            ValidarCampo("nome", nome, false);
+            ValidarCampo("endereço", endereco, false);
+            ValidarCampo("cidade", cidade, false);
+            ValidarCampo("descrição", descricao, true);
+            if (!CategoriaValida(categoria)) {
+                throw new IllegalArgumentException(
+                        "Categoria inválida! Escolha entre festas, eventos esportivos e shows");
+            }
+            if (capacidade < 0) {
+                throw new IllegalArgumentException("A capacidade não pode ser negativa");
+            }
+            Evento evento = new Evento(sequenciaEventos.Proximo(), nome, endereco, cidade, categoria, horarioInicio,
+                    horarioFim, descricao, capacidade);
+            AdicionarEvento(evento);
+            SalvarEvento(evento);
+            return evento;
+        } finally {
+            Metricas.Registrar(Metricas.Operacao.CADASTRAR_EVENTO, medicao);
+        }
+    }
+
+    // Os registros são gravados uma linha por registro, com os campos separados por ';' (events.data,
+    // users.data, log de eventos). Nenhum campo pode ter quebra de linha ou outro caractere de controle, e
+    // só o último campo da linha (a descrição do evento, lida como o resto da linha) pode ter ';'. Usado
+    // por todos os cadastros: console, HTTP e lote.
+    static void ValidarCampo(String nome, String valor, boolean ultimo) {
+        if (valor == null) {
+            throw new IllegalArgumentException("Campo obrigatório ausente: " + nome);
+        }
+        for (int i = 0; i < valor.length(); i++) {
+            char c = valor.charAt(i);
+            if (Character.isISOControl(c)) {
+                throw new IllegalArgumentException(
+                        "O campo " + nome + " não pode ter quebras de linha nem caracteres de controle");
+            }
+            if (c == ';' && !ultimo) {
+                throw new IllegalArgumentException("O campo " + nome + " não pode ter ';'");
+            }
+        }
+    }
+
+    // Se o usuário é da cidade do evento (sem diferenciar maiúsculas nem espaços nas pontas, como as
+    // partições; acentos diferenciam: "São Paulo" e "Sao Paulo" são cidades diferentes); a presença só é
+    // marcada ou cancelada nos eventos da cidade do usuário (ConferirPresenca e catracas)
+    public static boolean MesmaCidade(Usuario usuario, Evento evento) {
+        String cidadeUsuario = usuario.GetCidade();
+        String cidadeEvento = evento.GetCidade();
+        return cidadeUsuario.equalsIgnoreCase(cidadeEvento)
+                || IndiceUsuarios.Normalizar(cidadeUsuario).equals(IndiceUsuarios.Normalizar(cidadeEvento));
+    }
+
+    // Regras de toda marcação e cancelamento de presença pelo usuário (console, HTTP e lote): só em eventos
+    // da cidade dele que ainda não começaram, os mesmos listados por EventosFuturos(cidade)
+    private static void ConferirPresenca(Usuario usuario, Evento evento) {
+        if (!MesmaCidade(usuario, evento)) {
+            throw new IllegalArgumentException("O evento selecionado não pertence à mesma cidade do usuário.");
+        }
+        if (evento.GetInicioMinutos() <= Evento.ParaMinutos(LocalDateTime.now())) {
+            throw new IllegalArgumentException("O evento selecionado já começou.");
+        }
+    }
+
+    // Categorias aceitas: festas, eventos esportivos e shows
+    public static boolean CategoriaValida(String categoria) {
+        return Categoria.De(categoria) != null;
+    }
+
+    // Método para cadastrar um usuário, com um ID novo; lança IllegalArgumentException se um campo não for
+    // válido (ValidarCampo)
+    public Usuario CadastrarUsuario(String nome, String sobrenome, String email, String cidade) throws IOException {
+        long medicao = Metricas.Iniciar();
+        try {
+            ValidarCampo("nome", nome, false);
+            ValidarCampo("sobrenome", sobrenome, false);
+            ValidarCampo("email", email, false);
+            ValidarCampo("cidade", cidade, false);
+            Usuario usuario = new Usuario(sequenciaUsuarios.Proximo(), nome, sobrenome, email, cidade);
+            AdicionarUsuario(usuario);
+            SalvarUsuario(usuario);
+            return usuario;
+        } finally {
+            Metricas.Registrar(Metricas.Operacao.CADASTRAR_USUARIO, medicao);
+        }
+    }
+
+    // Método para marcar a presença (ou, com o evento lotado, entrar na lista de espera) e registrá-la no arquivo.
+    // A marcação e o pedido de gravação acontecem sob a trava do evento, para que os registros no arquivo
+    // fiquem na mesma ordem das alterações em memória; a espera pela gravação acontece fora dela.
+    // Lança IllegalArgumentException se o evento não puder receber a presença do usuário (ConferirPresenca).
+    public RegistroPresencas.Inscricao MarcarPresenca(Usuario usuario, Evento evento) throws IOException {
+        long medicao = Metricas.Iniciar();
+        try {
+            evento = Fixado(evento);
+            ConferirPresenca(usuario, evento);
+            return MarcarPresencaNoEvento(usuario, evento);
+        } finally {
+            Metricas.Registrar(Metricas.Operacao.MARCAR_PRESENCA, medicao);
+        }
+    }
+
+    private RegistroPresencas.Inscricao MarcarPresencaNoEvento(Usuario usuario, Evento evento) throws IOException {
+        RegistroPresencas.Inscricao[] inscricao = new RegistroPresencas.Inscricao[1];
+        CompletableFuture<Void> gravacao = InscreverNoEvento(usuario, evento, inscricao, 0);
+        if (gravacao != null) {
+            persistencia.Aguardar(gravacao);
+        }
+        return inscricao[0];
+    }
+
+    // Método para marcar várias presenças e só então esperar pelas gravações, que assim entram juntas nos
+    // mesmos lotes de gravação (ex: um micro-lote da IngestaoCatracas). O resultado de cada par
+    // (usuarios[i], eventos[i]) fica em inscricoes[i]. Não passa por ConferirPresenca: o check-in na catraca
+    // vale durante o evento, e a IngestaoCatracas confere a cidade e a janela de horário de cada par.
+    public void MarcarPresencas(Usuario[] usuarios, Evento[] eventos, int quantidade,
+            RegistroPresencas.Inscricao[] inscricoes) throws IOException {
+        long medicao = Metricas.Iniciar();
+        try {
+            List<CompletableFuture<Void>> gravacoes = new ArrayList<>(quantidade);
+            for (int i = 0; i < quantidade; i++) {
+                CompletableFuture<Void> gravacao = InscreverNoEvento(usuarios[i], Fixado(eventos[i]), inscricoes, i);
+                if (gravacao != null) {
+                    gravacoes.add(gravacao);
+                }
+            }
+            for (CompletableFuture<Void> gravacao : gravacoes) {
+                persistencia.Aguardar(gravacao);
+            }
+        } finally {
+            Metricas.Registrar(Metricas.Operacao.MARCAR_PRESENCAS_LOTE, medicao);
+        }
+    }
+
+    // Inscreve o usuário sob a trava do evento e enfileira o registro no arquivo; guarda o resultado em
+    // inscricoes[posicao] e retorna a gravação a esperar (null se nada foi alterado)
+    private CompletableFuture<Void> InscreverNoEvento(Usuario usuario, Evento evento,
+            RegistroPresencas.Inscricao[] inscricoes, int posicao) throws IOException {
+        Lock trava = presencas.TravaDoEvento(evento);
+        trava.lock();
+        try {
+            RegistroPresencas.Inscricao inscricao = presencas.Inscrever(evento, usuario);
+            inscricoes[posicao] = inscricao;
+            if (inscricao != RegistroPresencas.Inscricao.CONFIRMADA
+                    && inscricao != RegistroPresencas.Inscricao.LISTA_DE_ESPERA) {
+                return null;
+            }
+            // Anexar um registro de tamanho fixo ao arquivo de presenças
+            boolean espera = inscricao == RegistroPresencas.Inscricao.LISTA_DE_ESPERA;
+            if (!espera) {
+                lembretes.Agendar(evento, usuario.GetId());
+            }
+            long instante = System.currentTimeMillis();
+            return persistencia.Enfileirar(arquivoPresencas,
+                    () -> arquivoPresencas.Anexar(usuario.GetId(), evento.GetId(), instante, espera));
+        } finally {
+            trava.unlock();
+        }
+    }
+
+    // Método para cancelar a presença (ou a inscrição na lista de espera) e marcar o registro como cancelado
+    // no arquivo; a vaga liberada vai para o primeiro da lista de espera. Retorna false se o usuário não
+    // estava presente nem na lista de espera (ou não existe); lança IllegalArgumentException se a presença
+    // do usuário no evento não puder ser alterada (ConferirPresenca).
+    public boolean CancelarPresenca(int idUsuario, Evento evento) throws IOException {
+        long medicao = Metricas.Iniciar();
+        try {
+            Usuario usuario = usuariosPorId.get(idUsuario);
+            if (usuario == null) {
+                return false;
+            }
+            evento = Fixado(evento);
+            ConferirPresenca(usuario, evento);
+            return CancelarPresencaNoEvento(idUsuario, evento);
+        } finally {
+            Metricas.Registrar(Metricas.Operacao.CANCELAR_PRESENCA, medicao);
+        }
+    }
+
+    private boolean CancelarPresencaNoEvento(int idUsuario, Evento evento) throws IOException {
+        Lock trava = presencas.TravaDoEvento(evento);
+        CompletableFuture<Void> gravacao;
+        CompletableFuture<Void> promocao = null;
+        trava.lock();
+        try {
+            if (!presencas.SairDaEspera(evento, idUsuario) && !presencas.Cancelar(evento, idUsuario)) {
+                return false;
+            }
+            lembretes.Cancelar(evento.GetId(), idUsuario);
+            gravacao = persistencia.Enfileirar(arquivoPresencas,
+                    () -> arquivoPresencas.Cancelar(idUsuario, evento.GetId()));
+            int promovido = presencas.PromoverDaEspera(evento);
+            if (promovido >= 0) {
+                lembretes.Agendar(evento, promovido);
+                promocao = persistencia.Enfileirar(arquivoPresencas,
+                        () -> arquivoPresencas.Promover(promovido, evento.GetId()));
+            }
+        } finally {
+            trava.unlock();
+        }
+        persistencia.Aguardar(gravacao);
+        if (promocao != null) {
+            persistencia.Aguardar(promocao);
+        }
+        return true;
+    }
+
+    // Agendador dos lembretes enviados aos participantes
+    public AgendadorLembretes GetLembretes() {
+        return lembretes;
+    }
+
+    // Método para verificar se o usuário está na lista de espera do evento
+    public boolean VerificarEsperaUsuario(int idUsuario, Evento evento) {
+        return presencas.EstaNaEspera(Atual(evento), idUsuario);
+    }
+
+    // IDs da lista de espera do evento, em ordem de chegada
+    public List<Integer> ListaDeEspera(Evento evento) {
+        return presencas.ListaDeEspera(Atual(evento));
+    }
+
+    // Método para verificar se o usuário tem presença marcada no evento (consulta em memória)
+    public boolean VerificarPresencaUsuario(int idUsuario, Evento evento) {
+        long medicao = Metricas.Iniciar();
+        try {
+            return presencas.EstaPresente(Atual(evento), idUsuario);
+        } finally {
+            Metricas.Registrar(Metricas.Operacao.VERIFICAR_PRESENCA, medicao);
+        }
+    }
+
+    // Método para retornar os eventos de todas as cidades, em ordem de ID
+    public List<Evento> GetEventos() {
+        long medicao = Metricas.Iniciar();
+        try {
+            if (armazem != null) {
+                return armazem.Eventos();
+            }
+            return Juntar(ParticaoCidade::GetEventos, Comparator.comparingInt(Evento::GetId));
+        } finally {
+            Metricas.Registrar(Metricas.Operacao.LISTAR_EVENTOS, medicao);
+        }
+    }
+
+    // Método para verificar se há algum evento cadastrado, sem juntar as partições
+    public boolean PossuiEventos() {
+        return armazem == null ? !eventosPorId.isEmpty() || mapeadosPorId.length > 0 : armazem.Quantidade() > 0;
+    }
+
+    // Método para verificar se há algum evento que ainda não começou, sem listar todos
+    public boolean PossuiEventosFuturos() {
+        return !BuscarEventosFuturos(null, 1).GetEventos().isEmpty();
+    }
+
+    // Método para buscar um evento pelo ID (null se não existir)
+    public Evento BuscarEventoPorId(int id) {
+        if (armazem != null) {
+            return armazem.Buscar(id);
+        }
+        Evento evento = eventosPorId.get(id);
+        return evento != null ? evento : BuscarMapeado(id);
+    }
+
+    // Eventos que ainda não começaram, do mais próximo para o mais distante
+    public List<Evento> EventosFuturos() {
+        return BuscarEventosFuturos(null, Integer.MAX_VALUE).GetEventos();
+    }
+
+    // Eventos futuros de uma cidade (sem diferenciar maiúsculas de minúsculas); só olha a partição da cidade
+    public List<Evento> EventosFuturos(String cidade) {
+        long medicao = Metricas.Iniciar();
+        try {
+            if (armazem != null) {
+                return armazem.EventosFuturos(cidade, LocalDateTime.now(), null, Integer.MAX_VALUE).GetEventos();
+            }
+            ParticaoCidade particao = ParticaoExistente(cidade);
+            if (particao == null) {
+                return new ArrayList<>();
+            }
+            return particao.GetIndiceTemporal().EventosFuturos(LocalDateTime.now());
+        } finally {
+            Metricas.Registrar(Metricas.Operacao.EVENTOS_DA_CIDADE, medicao);
+        }
+    }
+
+    // Eventos que já terminaram, do mais recente para o mais antigo
+    public List<Evento> EventosPassados() {
+        return BuscarEventosPassados(null, Integer.MAX_VALUE).GetEventos();
+    }
+
+    // Método para buscar a próxima página de eventos futuros a partir de um cursor (nulo na primeira página)
+    public IndiceTemporal.Pagina BuscarEventosFuturos(IndiceTemporal.Cursor cursor, int limite) {
+        long medicao = Metricas.Iniciar();
+        try {
+            if (armazem != null) {
+                return armazem.EventosFuturos(null, LocalDateTime.now(), cursor, limite);
+            }
+            return IndiceTemporal.EventosFuturos(IndicesTemporais(), LocalDateTime.now(), cursor, limite);
+        } finally {
+            Metricas.Registrar(Metricas.Operacao.EVENTOS_FUTUROS, medicao);
+        }
+    }
+
+    // Método para buscar a próxima página de eventos passados a partir de um cursor (nulo na primeira página)
+    public IndiceTemporal.Pagina BuscarEventosPassados(IndiceTemporal.Cursor cursor, int limite) {
+        long medicao = Metricas.Iniciar();
+        try {
+            if (armazem != null) {
+                return armazem.EventosPassados(null, LocalDateTime.now(), cursor, limite);
+            }
+            return IndiceTemporal.EventosPassados(IndicesTemporais(), LocalDateTime.now(), cursor, limite);
+        } finally {
+            Metricas.Registrar(Metricas.Operacao.EVENTOS_PASSADOS, medicao);
+        }
+    }
+
+    // Método para consultar os eventos em andamento em um instante qualquer
+    public List<Evento> EventosOcorrendoEm(LocalDateTime instante) {
+        return EventosOcorrendoEntre(instante, instante);
+    }
+
+    // Método para consultar os eventos que se sobrepõem a uma janela de tempo, ordenados pelo início
+    public List<Evento> EventosOcorrendoEntre(LocalDateTime inicio, LocalDateTime fim) {
+        long medicao = Metricas.Iniciar();
+        try {
+            if (armazem != null) {
+                return armazem.OcorrendoEntre(inicio, fim);
+            }
+            return Juntar(particao -> particao.GetIndiceIntervalos().OcorrendoEntre(inicio, fim),
+                    Comparator.comparingInt(Evento::GetInicioMinutos).thenComparingInt(Evento::GetId));
+        } finally {
+            Metricas.Registrar(Metricas.Operacao.EVENTOS_OCORRENDO, medicao);
+        }
+    }
+
+    // Método para buscar eventos pelo texto do nome e da descrição (sem diferenciar acentos e maiúsculas; um
+    // termo incompleto casa com os termos que começam com ele), do mais relevante para o menos, no máximo
+    // 'limite'. Os filtros nulos não restringem: cidade, categoria (IllegalArgumentException se não
+    // existir) e uma janela de tempo com que o evento precisa se sobrepor.
+    public List<Evento> BuscarEventosPorTexto(String consulta, String cidade, String categoria, LocalDateTime de,
+            LocalDateTime ate, int limite) {
+        return BuscarEventosPorTexto(consulta, cidade, categoria, de, ate, Integer.MIN_VALUE, limite);
+    }
+
+    // Como BuscarEventosPorTexto, mas só entre os eventos que ainda não começaram (como em EventosFuturos):
+    // o filtro é aplicado durante a busca, então eventos em andamento não ocupam o limite
+    public List<Evento> BuscarEventosFuturosPorTexto(String consulta, String cidade, int limite) {
+        // Começar depois de agora é começar depois do minuto atual, desprezando os segundos
+        return BuscarEventosPorTexto(consulta, cidade, null, null, null,
+                Evento.ParaMinutos(LocalDateTime.now()) + 1, limite);
+    }
+
+    // 'inicioMinimo': primeiro minuto de início aceito
+    private List<Evento> BuscarEventosPorTexto(String consulta, String cidade, String categoria, LocalDateTime de,
+            LocalDateTime ate, int inicioMinimo, int limite) {
+        long medicao = Metricas.Iniciar();
+        try {
+            String chaveCidade = cidade == null ? null : IndiceUsuarios.Normalizar(cidade);
+            Categoria filtroCategoria = categoria == null ? null : Categoria.Ler(categoria);
+            int inicio = de == null ? Integer.MIN_VALUE : Evento.ParaMinutos(de);
+            int fim = ate == null ? Integer.MAX_VALUE : Evento.ParaMinutos(ate);
+            return indiceTexto.Buscar(consulta, evento -> (chaveCidade == null
+                    || IndiceUsuarios.Normalizar(evento.GetCidade()).equals(chaveCidade))
+                    && (filtroCategoria == null || evento.GetCategoria() == filtroCategoria)
+                    && evento.GetFimMinutos() >= inicio && evento.GetInicioMinutos() <= fim
+                    && evento.GetInicioMinutos() >= inicioMinimo,
+                    limite, this::BuscarEventoPorId);
+        } finally {
+            Metricas.Registrar(Metricas.Operacao.BUSCAR_EVENTOS_TEXTO, medicao);
+        }
+    }
+
+    // Método para consultar os eventos em que um usuário tem presença marcada
+    public List<Evento> EventosDoUsuario(int idUsuario) {
+        long medicao = Metricas.Iniciar();
+        try {
+            ConjuntoIds ids = presencas.EventosDoUsuario(idUsuario);
+            List<Evento> eventosDoUsuario = new ArrayList<>(ids.Tamanho());
+            for (int i = 0; i < ids.Tamanho(); i++) {
+                eventosDoUsuario.add(BuscarEventoPorId(ids.Get(i)));
+            }
+            return eventosDoUsuario;
+        } finally {
+            Metricas.Registrar(Metricas.Operacao.EVENTOS_DO_USUARIO, medicao);
+        }
+    }
+
+    // Método para retornar os usuários de todas as cidades, em ordem de ID
+    public List<Usuario> GetUsuarios() {
+        return Juntar(ParticaoCidade::GetUsuarios, Comparator.comparingInt(Usuario::GetId));
+    }
+
+    // Método para buscar um usuário pelo ID (null se não existir)
+    public Usuario BuscarUsuarioPorId(int id) {
+        return usuariosPorId.get(id);
+    }
+
+    // Método para buscar usuários pelo nome completo, em todas as cidades
+    public List<Usuario> BuscarUsuariosPorNome(String nomeCompleto) {
+        long medicao = Metricas.Iniciar();
+        try {
+            return Juntar(particao -> particao.GetIndiceUsuarios().BuscarPorNome(nomeCompleto),
+                    Comparator.comparingInt(Usuario::GetId));
+        } finally {
+            Metricas.Registrar(Metricas.Operacao.BUSCAR_USUARIOS, medicao);
+        }
+    }
+
+    // Método para buscar usuários por parte do nome e do sobrenome, em qualquer ordem (sem diferenciar
+    // acentos e maiúsculas; o último termo pode estar incompleto e os termos longos aceitam erros de
+    // digitação), do mais parecido para o menos, no máximo 'limite'
+    public List<Usuario> BuscarUsuariosAproximado(String consulta, int limite) {
+        long medicao = Metricas.Iniciar();
+        try {
+            int[] ids = indiceNomes.Buscar(consulta, limite);
+            List<Usuario> encontrados = new ArrayList<>(ids.length);
+            for (int id : ids) {
+                encontrados.add(usuariosPorId.get(id));
+            }
+            return encontrados;
+        } finally {
+            Metricas.Registrar(Metricas.Operacao.BUSCAR_USUARIOS_APROXIMADO, medicao);
+        }
+    }
+
+    // Método para buscar usuários de uma cidade; só olha a partição da cidade
+    public List<Usuario> BuscarUsuariosPorCidade(String cidade) {
+        long medicao = Metricas.Iniciar();
+        try {
+            ParticaoCidade particao = ParticaoExistente(cidade);
+            return particao == null ? new ArrayList<>() : new ArrayList<>(particao.GetUsuarios());
+        } finally {
+            Metricas.Registrar(Metricas.Operacao.BUSCAR_USUARIOS, medicao);
+        }
+    }
+
+    // Método para buscar um usuário pelo email (null se não existir)
+    public Usuario BuscarUsuarioPorEmail(String email) {
+        return usuariosPorEmail.get(IndiceUsuarios.Normalizar(email));
+    }
+}
@@ -0,0 +1,151 @@
+package classes;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+
+// Parser das linhas de events.data e users.data que percorre cada linha uma única vez.
+// As datas no formato fixo "dd/MM/yyyy HH:mm" são lidas direto dos caracteres, sem regex nem
+// DateTimeFormatter, e o vetor de posições dos separadores é reaproveitado entre as linhas.
+// O último campo (descrição do evento, cidade do usuário) é o resto da linha, então pode conter ';'.
+// Uma instância não deve ser usada por mais de uma thread ao mesmo tempo.
+class ParserRegistros {
+
+    private static final char SEPARADOR = ';';
+
+    private final int[] separadores = new int[8];
+
+    // Método para criar um evento a partir de uma linha (formato com capacidade, só com ID ou antigo sem ID)
+    public Evento LerEvento(String linha, int idPadrao) {
+        // Formato atual:  id;nome;endereco;cidade;categoria;capacidade;inicio;fim;descricao
+        // Formato com ID: id;nome;endereco;cidade;categoria;inicio;fim;descricao
+        // Formato antigo:    nome;endereco;cidade;categoria;inicio;fim;descricao
+        int encontrados = Separadores(linha, 6);
+        if (encontrados < 6) {
+            throw new IllegalArgumentException("Linha de evento incompleta: " + linha);
+        }
+        // No formato antigo o quinto campo já é a data; a categoria nunca contém '/'
+        boolean formatoAntigo = ContemBarra(linha, separadores[3] + 1, separadores[4]);
+        // No formato com ID o sexto campo é a data; a capacidade nunca contém '/'
+        boolean comCapacidade = !formatoAntigo && !ContemBarra(linha, separadores[4] + 1, separadores[5]);
+        int esperados = formatoAntigo ? 6 : comCapacidade ? 8 : 7;
+        if (esperados > 6 && Separadores(linha, esperados) < esperados) {
+            throw new IllegalArgumentException("Linha de evento incompleta: " + linha);
+        }
+
+        int campo = 0;
+        int id = formatoAntigo ? idPadrao : LerInteiro(linha, 0, separadores[campo++]);
+        String nome = Campo(linha, campo++);
+        String endereco = Campo(linha, campo++);
+        String cidade = Campo(linha, campo++);
+        Categoria categoria = Categoria.Ler(Campo(linha, campo++));
+        int capacidade = 0;
+        if (comCapacidade) {
+            capacidade = LerInteiro(linha, separadores[campo - 1] + 1, separadores[campo]);
+            campo++;
+        }
+        int inicio = LerMinutos(linha, separadores[campo - 1] + 1, separadores[campo++]);
+        int fim = LerMinutos(linha, separadores[campo - 1] + 1, separadores[campo]);
+        String descricao = linha.substring(separadores[campo] + 1);
+        return new Evento(id, nome, endereco, cidade, categoria, inicio, fim, descricao, capacidade);
+    }
+
+    // Método para criar um usuário a partir de uma linha (formato com ID ou formato antigo sem ID)
+    public Usuario LerUsuario(String linha, int idPadrao) {
+        // Formato atual: id;nome;sobrenome;email;cidade
+        // Formato antigo:    nome;sobrenome;email;cidade
+        int encontrados = Separadores(linha, 4);
+        if (encontrados < 3) {
+            throw new IllegalArgumentException("Linha de usuário incompleta: " + linha);
+        }
+        boolean formatoAntigo = encontrados == 3 || !EhInteiro(linha, 0, separadores[0]);
+
+        int campo = 0;
+        int id = formatoAntigo ? idPadrao : LerInteiro(linha, 0, separadores[campo++]);
+        String nome = Campo(linha, campo++);
+        String sobrenome = Campo(linha, campo++);
+        String email = Campo(linha, campo);
+        String cidade = linha.substring(separadores[campo] + 1);
+        return new Usuario(id, nome, sobrenome, email, cidade);
+    }
+
+    // Guarda as posições dos primeiros 'maximo' separadores e retorna quantos foram encontrados
+    private int Separadores(String linha, int maximo) {
+        int encontrados = 0;
+        for (int i = 0, tamanho = linha.length(); i < tamanho && encontrados < maximo; i++) {
+            if (linha.charAt(i) == SEPARADOR) {
+                separadores[encontrados++] = i;
+            }
+        }
+        return encontrados;
+    }
+
+    // Texto entre o separador anterior ao campo e o separador que o encerra
+    private String Campo(String linha, int campo) {
+        int inicio = campo == 0 ? 0 : separadores[campo - 1] + 1;
+        return linha.substring(inicio, separadores[campo]);
+    }
+
+    private static boolean ContemBarra(String texto, int inicio, int fim) {
+        int barra = texto.indexOf('/', inicio);
+        return barra >= 0 && barra < fim;
+    }
+
+    private static boolean EhInteiro(String texto, int inicio, int fim) {
+        if (inicio >= fim) {
+            return false;
+        }
+        for (int i = inicio; i < fim; i++) {
+            char c = texto.charAt(i);
+            if (c < '0' || c > '9') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int LerInteiro(String texto, int inicio, int fim) {
+        return Integer.parseInt(texto, inicio, fim, 10);
+    }
+
+    // Lê "dd/MM/yyyy HH:mm" entre as posições informadas, ignorando espaços nas pontas
+    static LocalDateTime LerDataHora(CharSequence texto, int inicio, int fim) {
+        return Evento.DeMinutos(LerMinutos(texto, inicio, fim));
+    }
+
+    // Lê "dd/MM/yyyy HH:mm" como minutos desde 01/01/1970, sem criar um LocalDateTime
+    static int LerMinutos(CharSequence texto, int inicio, int fim) {
+        while (inicio < fim && texto.charAt(inicio) == ' ') {
+            inicio++;
+        }
+        while (fim > inicio && texto.charAt(fim - 1) == ' ') {
+            fim--;
+        }
+        if (fim - inicio != 16 || texto.charAt(inicio + 2) != '/' || texto.charAt(inicio + 5) != '/'
+                || texto.charAt(inicio + 10) != ' ' || texto.charAt(inicio + 13) != ':') {
+            throw new DateTimeParseException("Data fora do formato dd/MM/yyyy HH:mm",
+                    texto.subSequence(inicio, fim), 0);
+        }
+        int dia = Digitos(texto, inicio, 2);
+        int mes = Digitos(texto, inicio + 3, 2);
+        int ano = Digitos(texto, inicio + 6, 4);
+        int hora = Digitos(texto, inicio + 11, 2);
+        int minuto = Digitos(texto, inicio + 14, 2);
+        if (hora > 23 || minuto > 59) {
+            throw new DateTimeParseException("Horário inválido", texto.subSequence(inicio, fim), 11);
+        }
+        return (int) (LocalDate.of(ano, mes, dia).toEpochDay() * 24 * 60) + hora * 60 + minuto;
+    }
+
+    private static int Digitos(CharSequence texto, int inicio, int quantidade) {
+        int valor = 0;
+        for (int i = inicio; i < inicio + quantidade; i++) {
+            char c = texto.charAt(i);
+            if (c < '0' || c > '9') {
+                throw new DateTimeParseException("Dígito inválido na data", texto, i);
+            }
+            valor = valor * 10 + (c - '0');
+        }
+        return valor;
+    }
+}
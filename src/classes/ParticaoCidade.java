@@ -0,0 +1,158 @@
+package classes;
+
+import java.io.File;
+import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.util.AbstractList;
+import java.util.List;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+// Partição dos dados de uma cidade: os eventos e usuários da cidade, seus índices e seus arquivos
+// (snapshot + log em cidades/<cidade>/). Consultas de uma cidade olham só a sua partição, e cadastros
+// em cidades diferentes não disputam trava: cada partição tem seus próprios logs e listas, e a trava
+// de cada um deles é só dela.
+class ParticaoCidade {
+
+    static final String DIRETORIO_RAIZ = "cidades";
+
+    private final String cidade; // normalizada (ver IndiceUsuarios.Normalizar)
+    private final List<Evento> eventos = new ListaConcorrente<>(); // cadastrados ou lidos de arquivos texto
+    private volatile SnapshotEventos mapeado; // snapshot binário carregado; seus eventos vêm antes dos outros
+    private final List<Usuario> usuarios = new ListaConcorrente<>();
+    private final IndiceTemporal indiceTemporal;
+    private final IndiceIntervalos indiceIntervalos;
+    private final IndiceUsuarios indiceUsuarios = new IndiceUsuarios();
+    private final ArquivoLog<Evento> logEventos;
+    private final ArquivoLog<Usuario> logUsuarios;
+
+    // Construtor; 'snapshotBinario' define o formato do snapshot de eventos gravado pela compactação.
+    // Com um 'armazem' (eventos fora do heap), a partição não guarda eventos nem os indexa: só grava os
+    // seus arquivos, e o snapshot é montado com os eventos da cidade lidos do armazém.
+    // 'eventoPorId' busca os eventos para os índices de horário, que só guardam os IDs.
+    public ParticaoCidade(String cidade, long limiteLog, boolean snapshotBinario, ArmazemEventos armazem,
+            IntFunction<Evento> eventoPorId) {
+        this.cidade = cidade;
+        this.indiceTemporal = new IndiceTemporal(eventoPorId);
+        this.indiceIntervalos = new IndiceIntervalos(eventoPorId);
+        File diretorio = new File(DIRETORIO_RAIZ, NomeDiretorio(cidade));
+        diretorio.mkdirs();
+        String eventosData = new File(diretorio, "events.data").getPath();
+        String eventosLog = new File(diretorio, "events.log").getPath();
+        // A compactação não cria os eventos do snapshot mapeado que ainda não foram acessados (ver Eventos)
+        Supplier<List<Evento>> estadoEventos = armazem == null ? () -> Eventos(false)
+                : () -> armazem.EventosDaCidade(cidade);
+        if (snapshotBinario) {
+            logEventos = new ArquivoLog<>(eventosData, eventosLog, limiteLog, SnapshotEventos::Gravar, estadoEventos);
+        } else {
+            logEventos = new ArquivoLog<>(eventosData, eventosLog, limiteLog, Evento::toFileString, estadoEventos);
+        }
+        logUsuarios = new ArquivoLog<>(new File(diretorio, "users.data").getPath(),
+                new File(diretorio, "users.log").getPath(), limiteLog, Usuario::toFileString, () -> usuarios);
+    }
+
+    // Nome do diretório de uma cidade normalizada, seguro para qualquer sistema de arquivos
+    // (ex: "são paulo" -> "s%C3%A3o+paulo"); '.' é codificado para não gerar "." ou "..", e a cidade
+    // vazia vira "_"
+    static String NomeDiretorio(String cidade) {
+        if (cidade.isEmpty()) {
+            return "_";
+        }
+        try {
+            return URLEncoder.encode(cidade, "UTF-8").replace(".", "%2E").replace("_", "%5F").replace("*", "%2A");
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Cidade normalizada a partir do nome do diretório
+    static String CidadeDoDiretorio(String nome) {
+        if (nome.equals("_")) {
+            return "";
+        }
+        try {
+            return URLDecoder.decode(nome, "UTF-8");
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public void AdicionarEvento(Evento evento) {
+        eventos.add(evento);
+        indiceTemporal.Adicionar(evento);
+        indiceIntervalos.Adicionar(evento);
+    }
+
+    // Método para usar um snapshot binário mapeado como os primeiros eventos da partição (antes de qualquer
+    // outro evento ser adicionado). Os eventos são indexados pelo ID e pelos horários lidos do arquivo, e só
+    // são criados quando acessados.
+    public void AdicionarMapeado(SnapshotEventos snapshot) {
+        mapeado = snapshot;
+        for (int i = 0; i < snapshot.size(); i++) {
+            int id = snapshot.GetId(i);
+            indiceTemporal.Adicionar(id, snapshot.GetInicioMinutos(i), snapshot.GetFimMinutos(i));
+            indiceIntervalos.Adicionar(id, snapshot.GetInicioMinutos(i), snapshot.GetFimMinutos(i));
+        }
+    }
+
+    public void AdicionarUsuario(Usuario usuario) {
+        usuarios.add(usuario);
+        indiceUsuarios.Adicionar(usuario);
+    }
+
+    public String GetCidade() {
+        return cidade;
+    }
+
+    public List<Evento> GetEventos() {
+        return Eventos(true);
+    }
+
+    // Os eventos do snapshot mapeado seguidos dos demais. Sem 'criar', os eventos do snapshot que ainda não
+    // foram acessados são lidos em cópias que não ficam guardadas (ver SnapshotEventos.Ler).
+    private List<Evento> Eventos(boolean criar) {
+        SnapshotEventos snapshot = mapeado;
+        if (snapshot == null) {
+            return eventos;
+        }
+        return new AbstractList<Evento>() {
+            @Override
+            public int size() {
+                return snapshot.size() + eventos.size();
+            }
+
+            @Override
+            public Evento get(int indice) {
+                if (indice >= snapshot.size()) {
+                    return eventos.get(indice - snapshot.size());
+                }
+                return criar ? snapshot.get(indice) : snapshot.Ler(indice);
+            }
+        };
+    }
+
+    public List<Usuario> GetUsuarios() {
+        return usuarios;
+    }
+
+    public IndiceTemporal GetIndiceTemporal() {
+        return indiceTemporal;
+    }
+
+    public IndiceIntervalos GetIndiceIntervalos() {
+        return indiceIntervalos;
+    }
+
+    public IndiceUsuarios GetIndiceUsuarios() {
+        return indiceUsuarios;
+    }
+
+    public ArquivoLog<Evento> GetLogEventos() {
+        return logEventos;
+    }
+
+    public ArquivoLog<Usuario> GetLogUsuarios() {
+        return logUsuarios;
+    }
+}
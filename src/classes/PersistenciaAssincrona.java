@@ -0,0 +1,301 @@
+package classes;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Classe para gravar as alterações em segundo plano (write-behind).
+// As gravações entram em uma fila e uma única thread as executa em lotes, descarregando cada arquivo
+// alterado uma vez por lote (group commit). Só essa thread escreve nos arquivos. A durabilidade define
+// quanto quem altera espera:
+//   SYNC    - entra no próximo lote e espera o lote ser descarregado e forçado ao disco (fsync); a
+//             alteração sobrevive a uma queda do sistema, não só à do programa
+//   BATCHED - entra no próximo lote e espera o lote ser descarregado (entregue ao sistema operacional,
+//             sem fsync); o lote é formado pelas alterações que chegaram enquanto o anterior era
+//             gravado, sem espera extra
+//   ASYNC   - entra no próximo lote e retorna na hora; a thread espera até o intervalo configurado
+//             para juntar mais alterações no mesmo lote
+// Entre IniciarLote e ConcluirLote (ex: no modo lote do Main), as gravações da thread que iniciou o lote
+// não esperam nem descarregam os arquivos, e ConcluirLote descarrega uma única vez cada arquivo alterado
+// por elas; as gravações das outras threads continuam com a durabilidade configurada.
+class PersistenciaAssincrona {
+
+    public enum Durabilidade {
+        SYNC, BATCHED, ASYNC
+    }
+
+    // Gravação bufferizada em um arquivo, sem descarregar
+    public interface Operacao {
+        void Executar() throws IOException;
+    }
+
+    // Arquivo que acumula gravações até ser descarregado
+    public interface Descarregavel {
+        void Descarregar() throws IOException;
+
+        // Força ao disco o que já foi descarregado
+        void Forcar() throws IOException;
+    }
+
+    // Lote de uma thread (entre IniciarLote e ConcluirLote); 'alterados' e 'erro' só são usados pela thread
+    // de gravação, e lidos por ConcluirLote depois de esperar o último pedido
+    private static class Lote {
+        final Set<Descarregavel> alterados = new LinkedHashSet<>();
+        IOException erro; // primeira falha de uma gravação do lote
+        int enfileirados;
+        CompletableFuture<Void> marca = CONCLUIDO; // pedido até onde Enfileirar esperou, para limitar a fila
+    }
+
+    private static class Pedido {
+        final Operacao operacao;
+        final Descarregavel destino;
+        final Lote lote; // null fora de um lote
+        final CompletableFuture<Void> concluido = new CompletableFuture<>();
+
+        Pedido(Operacao operacao, Descarregavel destino, Lote lote) {
+            this.operacao = operacao;
+            this.destino = destino;
+            this.lote = lote;
+        }
+    }
+
+    private static final CompletableFuture<Void> CONCLUIDO = CompletableFuture.completedFuture(null);
+
+    // Pedido especial que só serve para acordar a thread de gravação no encerramento
+    private static final Pedido FIM = new Pedido(() -> {
+    }, null, null);
+
+    private final Durabilidade durabilidade;
+    private final long intervaloMs;
+    private final int tamanhoLote;
+    private final BlockingQueue<Pedido> fila = new LinkedBlockingQueue<>();
+    private final Thread gravador;
+    private final ThreadLocal<Lote> loteDaThread = new ThreadLocal<>();
+    // Colocar usa a leitura e Encerrar a escrita
+    private final ReadWriteLock travaEncerramento = new ReentrantReadWriteLock();
+    private boolean encerrado; // só muda e só é lido sob travaEncerramento
+
+    // Construtor
+    public PersistenciaAssincrona(Durabilidade durabilidade, long intervaloMs, int tamanhoLote) {
+        this.durabilidade = durabilidade;
+        this.intervaloMs = intervaloMs;
+        this.tamanhoLote = tamanhoLote;
+        gravador = new Thread(this::Gravar, "persistencia");
+        gravador.setDaemon(true);
+        gravador.start();
+    }
+
+    // Método para registrar uma gravação no arquivo 'destino' e esperar conforme a durabilidade
+    public void Registrar(Descarregavel destino, Operacao operacao) throws IOException {
+        Aguardar(Enfileirar(destino, operacao));
+    }
+
+    // Método para colocar uma gravação na fila sem esperar por ela. Gravações enfileiradas são executadas
+    // na ordem de chegada; quem precisa dessa ordem enfileira sob a própria trava e chama Aguardar
+    // depois de soltá-la. Retorna o que Aguardar deve esperar.
+    public CompletableFuture<Void> Enfileirar(Descarregavel destino, Operacao operacao) throws IOException {
+        Lote lote = loteDaThread.get();
+        Pedido pedido = new Pedido(operacao, destino, lote);
+        Colocar(pedido);
+        if (lote != null) {
+            // O lote não espera cada gravação, mas a cada tamanhoLote pedidos espera os da janela anterior,
+            // para que um arquivo de comandos grande não acumule a fila inteira na memória
+            if (++lote.enfileirados % tamanhoLote == 0) {
+                AguardarExecucao(lote.marca);
+                lote.marca = pedido.concluido;
+            }
+            return CONCLUIDO;
+        }
+        return durabilidade == Durabilidade.ASYNC ? CONCLUIDO : pedido.concluido;
+    }
+
+    // Método para que as próximas gravações desta thread, até ConcluirLote, não esperem nem descarreguem
+    // os arquivos
+    public void IniciarLote() {
+        if (loteDaThread.get() != null) {
+            throw new IllegalStateException("já existe um lote em andamento nesta thread");
+        }
+        loteDaThread.set(new Lote());
+    }
+
+    // Método para esperar as gravações do lote desta thread, descarregar uma vez cada arquivo alterado por
+    // elas e voltar à durabilidade configurada; lança a primeira falha de uma gravação do lote
+    public void ConcluirLote() throws IOException {
+        Lote lote = loteDaThread.get();
+        if (lote == null) {
+            return;
+        }
+        loteDaThread.remove();
+        long medicao = Metricas.Iniciar();
+        try {
+            // Executado pela thread de gravação depois de todos os pedidos do lote
+            Pedido descarga = new Pedido(() -> {
+                for (Descarregavel destino : lote.alterados) {
+                    destino.Descarregar();
+                    if (durabilidade == Durabilidade.SYNC) {
+                        destino.Forcar();
+                    }
+                }
+            }, null, null);
+            Colocar(descarga);
+            Aguardar(descarga.concluido);
+            if (lote.erro != null) {
+                throw lote.erro;
+            }
+        } finally {
+            Metricas.Registrar(Metricas.Operacao.GRAVAR_LOTE, medicao);
+        }
+    }
+
+    // Método para gravar tudo o que estiver pendente e parar a thread de gravação
+    public void Encerrar() throws IOException {
+        travaEncerramento.writeLock().lock();
+        try {
+            if (encerrado) {
+                return;
+            }
+            encerrado = true;
+            fila.add(FIM);
+        } finally {
+            travaEncerramento.writeLock().unlock();
+        }
+        try {
+            gravador.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("encerramento interrompido");
+        }
+    }
+
+    // Coloca um pedido na fila. A verificação e a inclusão são atômicas em relação a Encerrar: nenhum pedido
+    // entra depois de FIM, onde a thread de gravação não o veria e quem o espera ficaria parado para sempre.
+    private void Colocar(Pedido pedido) throws IOException {
+        travaEncerramento.readLock().lock();
+        try {
+            if (encerrado) {
+                throw new IOException("a persistência já foi encerrada");
+            }
+            fila.add(pedido);
+        } finally {
+            travaEncerramento.readLock().unlock();
+        }
+    }
+
+    // Laço da thread de gravação: junta os pedidos pendentes (até o tamanho do lote), executa todos e
+    // descarrega cada arquivo alterado uma única vez (e, em SYNC, força cada um ao disco). Os pedidos de
+    // um lote de ConcluirLote são executados na ordem, mas só descarregados no final do lote.
+    private void Gravar() {
+        List<Pedido> grupo = new ArrayList<>();
+        Set<Descarregavel> alterados = new LinkedHashSet<>();
+        boolean continuar = true;
+        while (continuar) {
+            try {
+                grupo.add(fila.take());
+                // Quem usa SYNC ou BATCHED está esperando, então o grupo não espera por mais pedidos
+                long espera = durabilidade == Durabilidade.ASYNC ? intervaloMs : 0;
+                long limite = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(espera);
+                while (grupo.size() < tamanhoLote) {
+                    long restante = limite - System.nanoTime();
+                    Pedido proximo = restante > 0 ? fila.poll(restante, TimeUnit.NANOSECONDS) : fila.poll();
+                    if (proximo == null) {
+                        break;
+                    }
+                    grupo.add(proximo);
+                }
+            } catch (InterruptedException e) {
+                continuar = false;
+            }
+
+            long medicao = Metricas.Iniciar();
+            IOException erro = null; // alguma falha no grupo (só para o aviso em ASYNC)
+            Map<Descarregavel, IOException> falhasDestino = new HashMap<>();
+            for (Pedido pedido : grupo) {
+                if (pedido == FIM) {
+                    continuar = false;
+                    continue;
+                }
+                // Uma falha (inclusive RuntimeException) fica com o seu pedido; a thread continua gravando
+                IOException falha = null;
+                try {
+                    pedido.operacao.Executar();
+                } catch (IOException e) {
+                    falha = e;
+                } catch (RuntimeException e) {
+                    falha = new IOException(e);
+                }
+                if (pedido.lote != null) {
+                    // Ninguém espera pelos pedidos de um lote; a falha aparece em ConcluirLote
+                    if (falha == null) {
+                        pedido.lote.alterados.add(pedido.destino);
+                    } else if (pedido.lote.erro == null) {
+                        pedido.lote.erro = falha;
+                    }
+                    pedido.concluido.complete(null);
+                } else if (falha != null) {
+                    erro = falha;
+                    pedido.concluido.completeExceptionally(falha);
+                } else if (pedido.destino != null) {
+                    alterados.add(pedido.destino);
+                }
+            }
+            for (Descarregavel destino : alterados) {
+                try {
+                    destino.Descarregar();
+                    if (durabilidade == Durabilidade.SYNC) {
+                        destino.Forcar();
+                    }
+                } catch (IOException e) {
+                    falhasDestino.put(destino, e);
+                } catch (RuntimeException e) {
+                    falhasDestino.put(destino, new IOException(e));
+                }
+            }
+            Metricas.Registrar(Metricas.Operacao.GRAVAR_LOTE, medicao);
+            // Cada pedido falha só pela própria gravação (já concluída acima) ou pela descarga do seu arquivo;
+            // as alterações dos outros arquivos do grupo já estão gravadas
+            for (Pedido pedido : grupo) {
+                IOException falha = pedido.destino == null ? null : falhasDestino.get(pedido.destino);
+                if (falha != null) {
+                    erro = falha;
+                    pedido.concluido.completeExceptionally(falha);
+                } else {
+                    pedido.concluido.complete(null);
+                }
+            }
+            if (erro != null && durabilidade == Durabilidade.ASYNC) {
+                System.out.println("Erro ao gravar alterações: " + erro.getMessage());
+            }
+            grupo.clear();
+            alterados.clear();
+        }
+    }
+
+    // Espera um pedido ser executado, sem se importar com o resultado (só a interrupção é lançada)
+    private void AguardarExecucao(CompletableFuture<Void> concluido) throws IOException {
+        Aguardar(concluido.handle((resultado, falha) -> null));
+    }
+
+    // Método para esperar uma gravação retornada por Enfileirar
+    public void Aguardar(CompletableFuture<Void> concluido) throws IOException {
+        try {
+            concluido.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("gravação interrompida");
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof IOException ? (IOException) e.getCause() : new IOException(e.getCause());
+        }
+    }
+}
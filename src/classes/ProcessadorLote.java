@@ -0,0 +1,264 @@
+package classes;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+// Modo lote: aplica um arquivo de comandos sem passar pelo console. Todas as linhas são validadas antes
+// de qualquer alteração; com um erro de validação, nada é aplicado. Os comandos válidos são aplicados em
+// um único lote do MotorEventos (os arquivos são descarregados uma vez, no final) e o relatório tem uma
+// linha por comando.
+//
+// Um comando por linha, com campos separados por ';' (linhas vazias e começadas por '#' são ignoradas):
+//   cadastrar-evento;nome;endereço;cidade;categoria;[capacidade;]início;término;descrição
+//   cadastrar-usuario;nome;sobrenome;email;cidade
+//   marcar-presenca;idUsuario;idEvento
+//   cancelar-presenca;idUsuario;idEvento
+// Como em events.data, a descrição é o resto da linha e pode conter ';'. Horários no formato
+// dd/MM/yyyy HH:mm. Em vez de um ID, @N se refere ao usuário ou ao evento cadastrado pela linha N do mesmo
+// arquivo. Como no console e no HTTP, a presença só é marcada ou cancelada se o usuário for da cidade do
+// evento e o evento ainda não tiver começado (regras do MotorEventos).
+class ProcessadorLote {
+
+    private static class Comando {
+        final int linha;
+        final String nome;
+        final String[] campos; // sem o nome do comando
+
+        Comando(int linha, String nome, String[] campos) {
+            this.linha = linha;
+            this.nome = nome;
+            this.campos = campos;
+        }
+    }
+
+    private final MotorEventos motor;
+    private int aplicados;
+    private int falhas;
+
+    public ProcessadorLote(MotorEventos motor) {
+        this.motor = motor;
+    }
+
+    // Método para validar e aplicar os comandos de 'entrada', escrevendo o relatório em 'relatorio'.
+    // Retorna false se alguma linha for inválida (nada é aplicado) ou algum comando falhar.
+    public boolean Executar(BufferedReader entrada, PrintStream relatorio) throws IOException {
+        List<Comando> comandos = new ArrayList<>();
+        List<String> erros = new ArrayList<>();
+        Map<Integer, String> cadastros = new HashMap<>(); // linha -> nome do comando de cadastro
+        String texto;
+        int linha = 0;
+        while ((texto = entrada.readLine()) != null) {
+            linha++;
+            if (texto.trim().isEmpty() || texto.trim().startsWith("#")) {
+                continue;
+            }
+            int separador = texto.indexOf(';');
+            String nome = (separador < 0 ? texto : texto.substring(0, separador)).trim().toLowerCase(Locale.ROOT);
+            Comando comando = new Comando(linha, nome,
+                    Campos(nome, separador < 0 ? null : texto.substring(separador + 1)));
+            String erro = Validar(comando, cadastros);
+            if (erro != null) {
+                erros.add("linha " + linha + ": " + erro);
+            } else {
+                comandos.add(comando);
+                if (comando.nome.startsWith("cadastrar-")) {
+                    cadastros.put(linha, comando.nome);
+                }
+            }
+        }
+        if (!erros.isEmpty()) {
+            for (String erro : erros) {
+                relatorio.println(erro);
+            }
+            relatorio.println(erros.size() + " linha(s) inválida(s); nenhum comando foi aplicado.");
+            falhas = erros.size();
+            return false;
+        }
+
+        Map<Integer, Integer> idsCadastrados = new HashMap<>(); // linha -> ID cadastrado
+        motor.IniciarLote();
+        try {
+            for (Comando comando : comandos) {
+                String resultado;
+                try {
+                    resultado = Aplicar(comando, idsCadastrados);
+                    aplicados++;
+                } catch (IllegalArgumentException | IllegalStateException e) {
+                    resultado = "erro - " + e.getMessage();
+                    falhas++;
+                }
+                relatorio.println("linha " + comando.linha + ": " + comando.nome + " " + resultado);
+            }
+        } finally {
+            motor.ConcluirLote();
+        }
+        relatorio.println(aplicados + " comando(s) aplicado(s), " + falhas + " com erro.");
+        return falhas == 0;
+    }
+
+    // Campos de um comando (sem o nome). Os de cadastrar-evento ficam sempre na ordem nome, endereço,
+    // cidade, categoria, início, término, descrição e capacidade (se informada), com a descrição sendo o
+    // resto da linha; a capacidade é reconhecida por não ter '/', como em ParserRegistros
+    private static String[] Campos(String nome, String resto) {
+        if (resto == null) {
+            return new String[0];
+        }
+        if (!nome.equals("cadastrar-evento")) {
+            return resto.split(";", -1);
+        }
+        String[] partes = resto.split(";", 6);
+        boolean comCapacidade = partes.length == 6 && !partes[4].contains("/");
+        if (!comCapacidade) {
+            return resto.split(";", 7);
+        }
+        partes = resto.split(";", 8);
+        if (partes.length < 8) {
+            return partes; // incompleto; Validar aponta a quantidade de campos
+        }
+        return new String[] { partes[0], partes[1], partes[2], partes[3], partes[5], partes[6], partes[7],
+                partes[4] };
+    }
+
+    // Retorna a mensagem de erro do comando, ou null se ele for válido
+    private String Validar(Comando comando, Map<Integer, String> cadastros) {
+        String[] campos = comando.campos;
+        try {
+            switch (comando.nome) {
+                case "cadastrar-evento":
+                    if (campos.length != 7 && campos.length != 8) {
+                        return "cadastrar-evento espera 7 ou 8 campos, recebeu " + campos.length;
+                    }
+                    if (campos[0].trim().isEmpty() || campos[2].trim().isEmpty()) {
+                        return "nome e cidade são obrigatórios";
+                    }
+                    if (!MotorEventos.CategoriaValida(campos[3].trim())) {
+                        return "categoria inválida: " + campos[3];
+                    }
+                    if (Horario(campos[5]).isBefore(Horario(campos[4]))) {
+                        return "o término é anterior ao início";
+                    }
+                    if (Capacidade(campos) < 0) {
+                        return "a capacidade não pode ser negativa";
+                    }
+                    MotorEventos.ValidarCampo("nome", campos[0], false);
+                    MotorEventos.ValidarCampo("endereço", campos[1], false);
+                    MotorEventos.ValidarCampo("cidade", campos[2], false);
+                    MotorEventos.ValidarCampo("descrição", campos[6], true);
+                    return null;
+                case "cadastrar-usuario":
+                    if (campos.length != 4) {
+                        return "cadastrar-usuario espera 4 campos, recebeu " + campos.length;
+                    }
+                    String[] nomes = { "nome", "sobrenome", "email", "cidade" };
+                    for (int i = 0; i < campos.length; i++) {
+                        if (campos[i].trim().isEmpty()) {
+                            return "nome, sobrenome, email e cidade são obrigatórios";
+                        }
+                        MotorEventos.ValidarCampo(nomes[i], campos[i], false);
+                    }
+                    return null;
+                case "marcar-presenca":
+                case "cancelar-presenca":
+                    if (campos.length != 2) {
+                        return comando.nome + " espera 2 campos, recebeu " + campos.length;
+                    }
+                    String erro = ValidarReferencia(campos[0], "cadastrar-usuario", cadastros);
+                    return erro != null ? erro : ValidarReferencia(campos[1], "cadastrar-evento", cadastros);
+                default:
+                    return "comando desconhecido: " + comando.nome;
+            }
+        } catch (DateTimeException e) {
+            return "horário fora do formato dd/MM/yyyy HH:mm: " + e.getMessage();
+        } catch (NumberFormatException e) {
+            return "número inválido: " + e.getMessage();
+        } catch (IllegalArgumentException e) {
+            return e.getMessage(); // campo com caractere que não pode ser gravado (MotorEventos.ValidarCampo)
+        }
+    }
+
+    // Um ID existente ou @N, com N uma linha anterior que cadastra um usuário ou evento (conforme 'cadastro')
+    private String ValidarReferencia(String texto, String cadastro, Map<Integer, String> cadastros) {
+        String valor = texto.trim();
+        boolean usuario = cadastro.equals("cadastrar-usuario");
+        if (valor.startsWith("@")) {
+            int linha = Integer.parseInt(valor.substring(1));
+            return cadastro.equals(cadastros.get(linha)) ? null
+                    : "a linha " + linha + " não é um " + cadastro + " anterior a esta";
+        }
+        int id = Integer.parseInt(valor);
+        if (usuario ? motor.BuscarUsuarioPorId(id) == null : motor.BuscarEventoPorId(id) == null) {
+            return (usuario ? "usuário " : "evento ") + id + " não encontrado";
+        }
+        return null;
+    }
+
+    // Aplica um comando já validado e retorna o resultado para o relatório; lança IllegalStateException
+    // quando o comando não pode ser aplicado (ex: presença já marcada)
+    private String Aplicar(Comando comando, Map<Integer, Integer> idsCadastrados) throws IOException {
+        String[] campos = comando.campos;
+        switch (comando.nome) {
+            case "cadastrar-evento": {
+                Evento evento = motor.CadastrarEvento(campos[0].trim(), campos[1].trim(), campos[2].trim(),
+                        campos[3].trim(), Horario(campos[4]), Horario(campos[5]), campos[6].trim(),
+                        Capacidade(campos));
+                idsCadastrados.put(comando.linha, evento.GetId());
+                return "ok - evento " + evento.GetId();
+            }
+            case "cadastrar-usuario": {
+                Usuario usuario = motor.CadastrarUsuario(campos[0].trim(), campos[1].trim(), campos[2].trim(),
+                        campos[3].trim());
+                idsCadastrados.put(comando.linha, usuario.GetId());
+                return "ok - usuário " + usuario.GetId();
+            }
+            default: {
+                Usuario usuario = motor.BuscarUsuarioPorId(Id(campos[0], idsCadastrados));
+                Evento evento = motor.BuscarEventoPorId(Id(campos[1], idsCadastrados));
+                if (comando.nome.equals("cancelar-presenca")) {
+                    if (!motor.CancelarPresenca(usuario.GetId(), evento)) {
+                        throw new IllegalStateException(
+                                "o usuário não está presente nem na lista de espera deste evento");
+                    }
+                    return "ok - usuário " + usuario.GetId() + ", evento " + evento.GetId();
+                }
+                RegistroPresencas.Inscricao inscricao = motor.MarcarPresenca(usuario, evento);
+                switch (inscricao) {
+                    case JA_PRESENTE:
+                        throw new IllegalStateException("o usuário já está presente neste evento");
+                    case JA_NA_LISTA_DE_ESPERA:
+                        throw new IllegalStateException("o usuário já está na lista de espera deste evento");
+                    default:
+                        return "ok - usuário " + usuario.GetId() + ", evento " + evento.GetId() + ", " + inscricao;
+                }
+            }
+        }
+    }
+
+    // ID de um campo validado; @N só falha se o cadastro da linha N tiver falhado
+    private static int Id(String texto, Map<Integer, Integer> idsCadastrados) {
+        String valor = texto.trim();
+        if (!valor.startsWith("@")) {
+            return Integer.parseInt(valor);
+        }
+        Integer id = idsCadastrados.get(Integer.parseInt(valor.substring(1)));
+        if (id == null) {
+            throw new IllegalStateException("o cadastro da linha " + valor.substring(1) + " falhou");
+        }
+        return id;
+    }
+
+    private static LocalDateTime Horario(String texto) {
+        return ParserRegistros.LerDataHora(texto, 0, texto.length());
+    }
+
+    private static int Capacidade(String[] campos) {
+        return campos.length > 7 && !campos[7].trim().isEmpty() ? Integer.parseInt(campos[7].trim()) : 0;
+    }
+}
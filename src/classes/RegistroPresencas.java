@@ -0,0 +1,196 @@
+package classes;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Classe para manter as presenças em memória. Cada evento guarda o conjunto dos IDs dos seus
+// participantes; aqui fica também o índice inverso, com o conjunto de IDs de eventos de cada usuário.
+//
+// Pode ser usada por várias threads: o conjunto de participantes de um evento é protegido por uma
+// trava escolhida pelo ID do evento entre TOTAL_TRAVAS (check-ins em eventos diferentes raramente
+// disputam a mesma trava), e os conjuntos do índice inverso nunca são alterados depois de publicados
+// (cada alteração troca o conjunto do usuário por uma cópia), então podem ser lidos sem trava.
+//
+// Eventos com capacidade contam as vagas ocupadas no próprio evento. A contagem só muda sob a mesma trava
+// de escrita que protege os participantes, então reservar a vaga e marcar a presença são um passo só; as
+// leituras da contagem (ex: para exibir o evento) não usam trava. Quem chega com o evento lotado entra na
+// lista de espera (FIFO), e cada vaga liberada vai para o primeiro da lista.
+class RegistroPresencas {
+
+    // Resultado de uma inscrição em um evento
+    public enum Inscricao {
+        CONFIRMADA, LISTA_DE_ESPERA, JA_PRESENTE, JA_NA_LISTA_DE_ESPERA
+    }
+
+    private static final int TOTAL_TRAVAS = 64; // potência de 2
+    private static final ConjuntoIds VAZIO = new ConjuntoIds();
+
+    private final Map<Integer, ConjuntoIds> eventosPorUsuario = new ConcurrentHashMap<>();
+    private final ReadWriteLock[] travas = new ReadWriteLock[TOTAL_TRAVAS];
+
+    // Construtor
+    public RegistroPresencas() {
+        for (int i = 0; i < TOTAL_TRAVAS; i++) {
+            travas[i] = new ReentrantReadWriteLock();
+        }
+    }
+
+    // Trava de escrita do evento, para quem precisa alterar a presença e registrá-la em arquivo
+    // sem que outra alteração no mesmo evento passe no meio
+    public Lock TravaDoEvento(Evento evento) {
+        return Trava(evento).writeLock();
+    }
+
+    // Método para marcar a presença sem olhar a capacidade (ex: presenças lidas do arquivo);
+    // retorna false se o usuário já estava presente no evento
+    public boolean Marcar(Evento evento, Usuario usuario) {
+        Lock trava = TravaDoEvento(evento);
+        trava.lock();
+        try {
+            if (!evento.AdicionarParticipante(usuario)) {
+                return false;
+            }
+            evento.OcuparVaga();
+            AdicionarEventoDoUsuario(usuario.GetId(), evento);
+            return true;
+        } finally {
+            trava.unlock();
+        }
+    }
+
+    // Método para inscrever o usuário: marca a presença se houver vaga, senão o coloca na lista de espera
+    public Inscricao Inscrever(Evento evento, Usuario usuario) {
+        Lock trava = TravaDoEvento(evento);
+        trava.lock();
+        try {
+            if (evento.PossuiParticipante(usuario.GetId())) {
+                return Inscricao.JA_PRESENTE;
+            }
+            if (evento.EstaNaEspera(usuario.GetId())) {
+                return Inscricao.JA_NA_LISTA_DE_ESPERA;
+            }
+            if (!evento.ReservarVaga()) {
+                evento.EntrarNaEspera(usuario.GetId());
+                return Inscricao.LISTA_DE_ESPERA;
+            }
+            evento.AdicionarParticipante(usuario);
+            AdicionarEventoDoUsuario(usuario.GetId(), evento);
+            return Inscricao.CONFIRMADA;
+        } finally {
+            trava.unlock();
+        }
+    }
+
+    // Método para colocar o usuário no fim da lista de espera sem olhar as vagas (ex: inscrições lidas do arquivo)
+    public void Esperar(Evento evento, Usuario usuario) {
+        Lock trava = TravaDoEvento(evento);
+        trava.lock();
+        try {
+            evento.EntrarNaEspera(usuario.GetId());
+        } finally {
+            trava.unlock();
+        }
+    }
+
+    // Retorna false se o usuário não estava na lista de espera do evento
+    public boolean SairDaEspera(Evento evento, int idUsuario) {
+        Lock trava = TravaDoEvento(evento);
+        trava.lock();
+        try {
+            return evento.SairDaEspera(idUsuario);
+        } finally {
+            trava.unlock();
+        }
+    }
+
+    // Método para passar o primeiro da lista de espera para participante, se houver vaga;
+    // retorna o ID promovido ou -1
+    public int PromoverDaEspera(Evento evento) {
+        Lock trava = TravaDoEvento(evento);
+        trava.lock();
+        try {
+            if (evento.TamanhoEspera() == 0 || !evento.ReservarVaga()) {
+                return -1;
+            }
+            int idUsuario = evento.ProximoDaEspera();
+            evento.GetParticipantes().Adicionar(idUsuario);
+            AdicionarEventoDoUsuario(idUsuario, evento);
+            return idUsuario;
+        } finally {
+            trava.unlock();
+        }
+    }
+
+    public boolean EstaNaEspera(Evento evento, int idUsuario) {
+        Lock trava = Trava(evento).readLock();
+        trava.lock();
+        try {
+            return evento.EstaNaEspera(idUsuario);
+        } finally {
+            trava.unlock();
+        }
+    }
+
+    // IDs da lista de espera do evento, em ordem de chegada
+    public List<Integer> ListaDeEspera(Evento evento) {
+        Lock trava = Trava(evento).readLock();
+        trava.lock();
+        try {
+            return evento.GetListaEspera();
+        } finally {
+            trava.unlock();
+        }
+    }
+
+    private void AdicionarEventoDoUsuario(int idUsuario, Evento evento) {
+        eventosPorUsuario.compute(idUsuario, (id, atuais) -> {
+            ConjuntoIds novos = atuais == null ? new ConjuntoIds() : atuais.Copiar();
+            novos.Adicionar(evento.GetId());
+            return novos;
+        });
+    }
+
+    // Método para cancelar a presença e liberar a vaga (que não é repassada à lista de espera aqui;
+    // veja PromoverDaEspera); retorna false se o usuário não estava presente no evento
+    public boolean Cancelar(Evento evento, int idUsuario) {
+        Lock trava = TravaDoEvento(evento);
+        trava.lock();
+        try {
+            if (!evento.RemoverParticipante(idUsuario)) {
+                return false;
+            }
+            evento.LiberarVaga();
+            eventosPorUsuario.computeIfPresent(idUsuario, (id, atuais) -> {
+                ConjuntoIds novos = atuais.Copiar();
+                novos.Remover(evento.GetId());
+                return novos.EstaVazio() ? null : novos;
+            });
+            return true;
+        } finally {
+            trava.unlock();
+        }
+    }
+
+    public boolean EstaPresente(Evento evento, int idUsuario) {
+        Lock trava = Trava(evento).readLock();
+        trava.lock();
+        try {
+            return evento.PossuiParticipante(idUsuario);
+        } finally {
+            trava.unlock();
+        }
+    }
+
+    // IDs dos eventos em que o usuário tem presença marcada (não deve ser alterado por quem chama)
+    public ConjuntoIds EventosDoUsuario(int idUsuario) {
+        return eventosPorUsuario.getOrDefault(idUsuario, VAZIO);
+    }
+
+    private ReadWriteLock Trava(Evento evento) {
+        return travas[evento.GetId() & (TOTAL_TRAVAS - 1)];
+    }
+}
@@ -0,0 +1,119 @@
+package classes;
+
+import java.io.PrintStream;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BooleanSupplier;
+
+// Classe para exibir listas de eventos no console. Cada página é montada em um único buffer reaproveitado
+// e escrita de uma vez (um print em vez de oito println por evento). O bloco de texto de cada evento fica
+// em cache (por ID, com no máximo 'tamanhoCache' blocos) e é refeito quando as vagas ocupadas ou a lista
+// de espera do evento mudam. Listas grandes são exibidas em páginas: depois de cada página, 'continuar'
+// decide se a próxima é exibida.
+class RenderizadorEventos {
+
+    // Consulta paginada de eventos (ex: MotorEventos.BuscarEventosFuturos)
+    public interface FontePaginas {
+        IndiceTemporal.Pagina Buscar(IndiceTemporal.Cursor cursor, int limite);
+    }
+
+    // Bloco de texto de um evento e os valores mutáveis com que ele foi montado
+    private static class Bloco {
+        final String texto;
+        final int ocupadas;
+        final int espera;
+
+        Bloco(String texto, int ocupadas, int espera) {
+            this.texto = texto;
+            this.ocupadas = ocupadas;
+            this.espera = espera;
+        }
+    }
+
+    private final int tamanhoPagina; // 0 = sem paginação
+    private final Map<Integer, Bloco> cache;
+    private final StringBuilder buffer = new StringBuilder(16 * 1024);
+
+    public RenderizadorEventos(int tamanhoPagina, int tamanhoCache) {
+        this.tamanhoPagina = tamanhoPagina;
+        // LinkedHashMap em ordem de acesso: o bloco usado há mais tempo sai primeiro
+        this.cache = new LinkedHashMap<Integer, Bloco>(256, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, Bloco> maisAntigo) {
+                return size() > tamanhoCache;
+            }
+        };
+    }
+
+    // Método para anexar o bloco de texto do evento a 'destino', usando o cache se ele ainda valer
+    public synchronized StringBuilder Renderizar(Evento evento, StringBuilder destino) {
+        int ocupadas = evento.GetVagasOcupadas();
+        int espera = evento.TamanhoEspera();
+        Bloco bloco = cache.get(evento.GetId());
+        if (bloco == null || bloco.ocupadas != ocupadas || bloco.espera != espera) {
+            bloco = new Bloco(Montar(evento, ocupadas, espera), ocupadas, espera);
+            cache.put(evento.GetId(), bloco);
+        }
+        return destino.append(bloco.texto);
+    }
+
+    private static String Montar(Evento evento, int ocupadas, int espera) {
+        StringBuilder texto = new StringBuilder(256);
+        texto.append("Nome: ").append(evento.GetNome()).append('\n');
+        texto.append("Endereço: ").append(evento.GetEndereco()).append('\n');
+        texto.append("Cidade: ").append(evento.GetCidade()).append('\n');
+        texto.append("Categoria: ").append(evento.GetCategoria()).append('\n');
+        texto.append("Horário de Início: ").append(evento.GetHorarioInicio().format(Evento.FORMATO_DATA_HORA))
+                .append('\n');
+        texto.append("Horário de Término: ").append(evento.GetHorarioFim().format(Evento.FORMATO_DATA_HORA))
+                .append('\n');
+        texto.append("Descrição: ").append(evento.GetDescricao()).append('\n');
+        if (evento.GetCapacidade() > 0) {
+            texto.append("Vagas ocupadas: ").append(ocupadas).append(" de ").append(evento.GetCapacidade());
+            if (espera > 0) {
+                texto.append(" (").append(espera).append(" na lista de espera)");
+            }
+            texto.append('\n');
+        }
+        return texto.append('\n').toString();
+    }
+
+    // Método para exibir os eventos de uma consulta paginada, buscando uma página por vez
+    public synchronized void Exibir(FontePaginas fonte, PrintStream saida, BooleanSupplier continuar) {
+        int limite = tamanhoPagina > 0 ? tamanhoPagina : Integer.MAX_VALUE;
+        IndiceTemporal.Cursor cursor = null;
+        do {
+            IndiceTemporal.Pagina pagina = fonte.Buscar(cursor, limite);
+            EscreverPagina(pagina.GetEventos(), saida);
+            cursor = pagina.GetProximo();
+        } while (cursor != null && continuar.getAsBoolean());
+    }
+
+    // Método para exibir uma lista de eventos já consultada, em páginas
+    public synchronized void Exibir(List<Evento> eventos, PrintStream saida, BooleanSupplier continuar) {
+        int limite = tamanhoPagina > 0 ? tamanhoPagina : Math.max(1, eventos.size());
+        for (int inicio = 0; inicio < eventos.size(); inicio += limite) {
+            if (inicio > 0 && !continuar.getAsBoolean()) {
+                return;
+            }
+            EscreverPagina(eventos.subList(inicio, Math.min(eventos.size(), inicio + limite)), saida);
+        }
+    }
+
+    private void EscreverPagina(List<Evento> eventos, PrintStream saida) {
+        buffer.setLength(0);
+        for (Evento evento : eventos) {
+            Renderizar(evento, buffer);
+        }
+        saida.print(buffer);
+        saida.flush();
+        // Não guarda um buffer enorme depois de uma página atípica
+        if (buffer.capacity() > 1024 * 1024) {
+            buffer.setLength(0);
+            buffer.trimToSize();
+        }
+    }
+}
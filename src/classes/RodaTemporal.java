@@ -0,0 +1,188 @@
+package classes;
+
+import java.util.List;
+import java.util.PriorityQueue;
+
+// Roda de tempo hierárquica (hierarchical timing wheel) para agendar muitas tarefas com prazo.
+// Cada nível tem 'tamanho' baldes de 'tick' ms; o prazo que não cabe no intervalo de um nível vai para
+// o nível de cima, com baldes 'tamanho' vezes mais largos, criado só quando é preciso. Incluir e cancelar
+// custam O(1): a tarefa entra ou sai da lista duplamente ligada do seu balde. Só os baldes (no máximo
+// 'tamanho' por nível) entram na fila de prioridade que diz qual vence primeiro, então avançar o relógio
+// não passa por ticks vazios. Quando um balde de um nível alto vence, suas tarefas descem de nível.
+// Não é thread-safe: quem usa sincroniza.
+class RodaTemporal<T> {
+
+    // Tarefa agendada; guarda o balde em que está para poder ser cancelada em O(1)
+    public static class Tarefa<T> {
+        private final long prazo; // em ms desde 01/01/1970
+        private final long alvo; // prazo arredondado para cima até o tick, para a tarefa nunca vencer antes
+        private final T valor;
+        private Balde<T> balde;
+        private Tarefa<T> anterior;
+        private Tarefa<T> proxima;
+
+        private Tarefa(long prazo, long alvo, T valor) {
+            this.prazo = prazo;
+            this.alvo = alvo;
+            this.valor = valor;
+        }
+
+        public long GetPrazo() {
+            return prazo;
+        }
+
+        public T GetValor() {
+            return valor;
+        }
+    }
+
+    private static class Balde<T> {
+        final Tarefa<T> sentinela = new Tarefa<>(0, 0, null);
+        long vencimento = -1; // início do intervalo coberto pelo balde; -1 quando não está na fila
+
+        Balde() {
+            sentinela.anterior = sentinela;
+            sentinela.proxima = sentinela;
+        }
+
+        void Incluir(Tarefa<T> tarefa) {
+            tarefa.balde = this;
+            tarefa.anterior = sentinela.anterior;
+            tarefa.proxima = sentinela;
+            sentinela.anterior.proxima = tarefa;
+            sentinela.anterior = tarefa;
+        }
+
+        void Remover(Tarefa<T> tarefa) {
+            tarefa.anterior.proxima = tarefa.proxima;
+            tarefa.proxima.anterior = tarefa.anterior;
+            tarefa.anterior = null;
+            tarefa.proxima = null;
+            tarefa.balde = null;
+        }
+
+        // Retira e retorna a primeira tarefa, ou null se o balde estiver vazio
+        Tarefa<T> RetirarPrimeira() {
+            Tarefa<T> primeira = sentinela.proxima;
+            if (primeira == sentinela) {
+                return null;
+            }
+            Remover(primeira);
+            return primeira;
+        }
+    }
+
+    private class Nivel {
+        final long tick;
+        final long intervalo;
+        final Balde<T>[] baldes;
+        long inicio; // início do tick atual (múltiplo de tick)
+        Nivel superior;
+
+        @SuppressWarnings({ "unchecked", "rawtypes" })
+        Nivel(long tick, long agora) {
+            this.tick = tick;
+            this.intervalo = tick * tamanho;
+            this.baldes = new Balde[tamanho];
+            for (int i = 0; i < tamanho; i++) {
+                baldes[i] = new Balde<>();
+            }
+            this.inicio = agora - agora % tick;
+        }
+
+        // Retorna false se o prazo já está no tick atual (a tarefa venceu)
+        boolean Incluir(Tarefa<T> tarefa) {
+            if (tarefa.alvo < inicio + tick) {
+                return false;
+            }
+            if (tarefa.alvo < inicio + intervalo) {
+                long numero = tarefa.alvo / tick;
+                Balde<T> balde = baldes[(int) (numero % tamanho)];
+                balde.Incluir(tarefa);
+                // O balde só é reaproveitado para outro intervalo depois de vencer e sair da fila
+                if (balde.vencimento != numero * tick) {
+                    balde.vencimento = numero * tick;
+                    fila.add(balde);
+                }
+                return true;
+            }
+            if (superior == null) {
+                superior = new Nivel(intervalo, inicio);
+            }
+            return superior.Incluir(tarefa);
+        }
+
+        void AvancarRelogio(long agora) {
+            if (agora >= inicio + tick) {
+                inicio = agora - agora % tick;
+                if (superior != null) {
+                    superior.AvancarRelogio(inicio);
+                }
+            }
+        }
+    }
+
+    private final long tick;
+    private final int tamanho;
+    private final PriorityQueue<Balde<T>> fila = new PriorityQueue<>(
+            (a, b) -> Long.compare(a.vencimento, b.vencimento));
+    private final Nivel base;
+    private final Balde<T> vencidas = new Balde<>(); // agendadas com o prazo já no tick atual
+    private int quantidade;
+
+    // Construtor: 'tick' é a resolução em ms e 'agora' o instante inicial do relógio
+    public RodaTemporal(long tick, int tamanho, long agora) {
+        this.tick = tick;
+        this.tamanho = tamanho;
+        this.base = new Nivel(tick, agora);
+    }
+
+    // Método para agendar um valor para o prazo (em ms); prazos que já passaram vencem no próximo Avancar.
+    // A tarefa vence no primeiro Avancar com 'agora' >= prazo arredondado para cima até o tick.
+    public Tarefa<T> Agendar(long prazo, T valor) {
+        Tarefa<T> tarefa = new Tarefa<>(prazo, Math.floorDiv(prazo + tick - 1, tick) * tick, valor);
+        if (!base.Incluir(tarefa)) {
+            vencidas.Incluir(tarefa);
+        }
+        quantidade++;
+        return tarefa;
+    }
+
+    // Método para cancelar uma tarefa; retorna false se ela já venceu ou já foi cancelada
+    public boolean Cancelar(Tarefa<T> tarefa) {
+        if (tarefa.balde == null) {
+            return false;
+        }
+        tarefa.balde.Remover(tarefa);
+        quantidade--;
+        return true;
+    }
+
+    // Método para avançar o relógio até 'agora', colocando em 'destino' os valores das tarefas vencidas
+    public void Avancar(long agora, List<T> destino) {
+        Tarefa<T> tarefa;
+        while ((tarefa = vencidas.RetirarPrimeira()) != null) {
+            quantidade--;
+            destino.add(tarefa.valor);
+        }
+        Balde<T> balde;
+        while ((balde = fila.peek()) != null && balde.vencimento <= agora) {
+            fila.poll();
+            base.AvancarRelogio(balde.vencimento);
+            balde.vencimento = -1;
+            // As tarefas de um balde de nível alto descem para um nível mais fino ou vencem
+            while ((tarefa = balde.RetirarPrimeira()) != null) {
+                if (!base.Incluir(tarefa)) {
+                    quantidade--;
+                    destino.add(tarefa.valor);
+                }
+            }
+        }
+        base.AvancarRelogio(agora);
+    }
+
+    // Quantidade de tarefas agendadas que ainda não venceram
+    public int Tamanho() {
+        return quantidade;
+    }
+}
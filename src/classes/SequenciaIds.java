@@ -0,0 +1,82 @@
+package classes;
+
+import java.io.*;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Classe para gerar IDs únicos e crescentes que sobrevivem a reinícios.
+// Os IDs são reservados em blocos: o arquivo guarda o limite do último bloco reservado, então só
+// é preciso gravar em disco uma vez por bloco. Depois de um reinício, a numeração continua a partir
+// desse limite, nunca reutilizando um ID que possa ter sido entregue antes.
+class SequenciaIds {
+
+    private final File arquivo;
+    private final int tamanhoBloco;
+    private final AtomicInteger proximo;
+    private volatile int limite; // primeiro ID fora do bloco reservado em disco
+
+    // Construtor
+    public SequenciaIds(String nomeArquivo, int tamanhoBloco) throws IOException {
+        this.arquivo = new File(nomeArquivo);
+        this.tamanhoBloco = tamanhoBloco;
+        int reservado = LerLimite();
+        this.proximo = new AtomicInteger(reservado);
+        this.limite = reservado;
+    }
+
+    // Método para obter o próximo ID; no caminho comum é apenas um compare-and-set. Lança IOException se
+    // for preciso reservar um novo bloco e a gravação do limite falhar
+    public int Proximo() throws IOException {
+        while (true) {
+            int id = proximo.get();
+            if (id < limite) {
+                if (proximo.compareAndSet(id, id + 1)) {
+                    return id;
+                }
+            } else {
+                ReservarBloco(id);
+            }
+        }
+    }
+
+    // Método para garantir que IDs já existentes (carregados dos arquivos) nunca sejam gerados de novo
+    public void Observar(int idExistente) {
+        proximo.accumulateAndGet(idExistente + 1, Math::max);
+    }
+
+    // Apenas quem esgota o bloco entra aqui; as demais threads continuam no compare-and-set
+    private synchronized void ReservarBloco(int necessario) throws IOException {
+        if (necessario < limite) {
+            return; // outra thread já reservou
+        }
+        int novoLimite = necessario + tamanhoBloco;
+        GravarLimite(novoLimite);
+        limite = novoLimite;
+    }
+
+    private int LerLimite() throws IOException {
+        if (!arquivo.exists()) {
+            return 1;
+        }
+        try (BufferedReader reader = new BufferedReader(new FileReader(arquivo))) {
+            String line = reader.readLine();
+            return line == null || line.isBlank() ? 1 : Integer.parseInt(line.trim());
+        }
+    }
+
+    private void GravarLimite(int novoLimite) throws IOException {
+        File temp = new File(arquivo.getPath() + ".tmp");
+        try (FileOutputStream out = new FileOutputStream(temp)) {
+            out.write((novoLimite + System.lineSeparator()).getBytes());
+            out.getFD().sync();
+        }
+        try {
+            Files.move(temp.toPath(), arquivo.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(temp.toPath(), arquivo.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
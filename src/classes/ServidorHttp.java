@@ -0,0 +1,398 @@
+package classes;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Servidor HTTP/JSON embutido (com.sun.net.httpserver) com as mesmas operações do menu.
+// Usa o mesmo MotorEventos do console, então pode rodar junto com ele.
+//
+//   POST   /eventos                      {"nome", "endereco", "cidade", "categoria", "inicio", "fim", "descricao"}
+//   GET    /eventos/{id}
+//   GET    /eventos?busca=&cidade=&categoria=&de=&ate=&limite=   (busca no nome e na descrição)
+//   GET    /eventos/futuros?limite=&cursor=
+//   GET    /eventos/passados?limite=&cursor=
+//   GET    /eventos/agora
+//   POST   /usuarios                     {"nome", "sobrenome", "email", "cidade"}
+//   GET    /usuarios/{id}
+//   GET    /usuarios/{id}/eventos
+//   GET    /usuarios?nome= | ?email= | ?cidade=
+//   GET    /usuarios?busca=&limite=      (nome aproximado: prefixo e erros de digitação)
+//   POST   /presencas                    {"idUsuario", "idEvento"}
+//   DELETE /presencas?idUsuario=&idEvento=
+//
+// Presenças só são marcadas ou canceladas em eventos da cidade do usuário que ainda não começaram (400
+// caso contrário), como no console. Datas usam o mesmo formato dos arquivos (dd/MM/yyyy HH:mm). Cada
+// requisição roda em uma virtual thread quando a JVM as tem (Java 21+); senão, em um pool de tamanho fixo.
+class ServidorHttp {
+    // Porta padrão quando nenhuma é informada
+    static final int PORTA = Integer.getInteger("sistema.http.porta", 8080);
+    // Threads do pool usado quando não há virtual threads
+    private static final int THREADS = Integer.getInteger("sistema.http.threads", 256);
+    // Conexões aguardando aceite antes de o sistema operacional recusar novas
+    private static final int FILA_CONEXOES = Integer.getInteger("sistema.http.fila", 4096);
+    // Tamanho da página quando 'limite' não é informado
+    private static final int LIMITE_PADRAO = 50;
+
+    static {
+        // O servidor envia cabeçalhos e corpo em escritas separadas; com o algoritmo de Nagle ligado, cada
+        // resposta em conexão keep-alive espera o ACK atrasado do cliente (~40 ms). Lido só na primeira criação
+        // de um HttpServer, então precisa ser definido antes dela.
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    // Resposta de erro com o código HTTP correspondente
+    private static class ErroHttp extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+        final int codigo;
+
+        ErroHttp(int codigo, String mensagem) {
+            super(mensagem);
+            this.codigo = codigo;
+        }
+    }
+
+    private final MotorEventos motor;
+    private final HttpServer servidor;
+    private final ExecutorService executor;
+
+    // Construtor
+    public ServidorHttp(MotorEventos motor, int porta) throws IOException {
+        this.motor = motor;
+        this.executor = CriarExecutor();
+        this.servidor = HttpServer.create(new InetSocketAddress(porta), FILA_CONEXOES);
+        servidor.setExecutor(executor);
+        servidor.createContext("/eventos", this::Eventos);
+        servidor.createContext("/usuarios", this::Usuarios);
+        servidor.createContext("/presencas", this::Presencas);
+    }
+
+    public void Iniciar() {
+        servidor.start();
+    }
+
+    // Método para parar de aceitar requisições, esperando até 'segundos' pelas que estão em andamento
+    public void Parar(int segundos) {
+        servidor.stop(segundos);
+        executor.shutdown();
+    }
+
+    public int GetPorta() {
+        return servidor.getAddress().getPort();
+    }
+
+    // Usa Executors.newVirtualThreadPerTaskExecutor por reflexão, para continuar compilando no Java 17
+    private static ExecutorService CriarExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            AtomicInteger contador = new AtomicInteger();
+            ThreadFactory fabrica = r -> {
+                Thread thread = new Thread(r, "http-" + contador.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            };
+            return Executors.newFixedThreadPool(THREADS, fabrica);
+        }
+    }
+
+    // /eventos
+    private void Eventos(HttpExchange troca) throws IOException {
+        Responder(troca, () -> {
+            String[] partes = Partes(troca);
+            String metodo = troca.getRequestMethod();
+            Map<String, String> parametros = Parametros(troca);
+            if (partes.length == 1 && metodo.equals("POST")) {
+                Map<String, String> corpo = Corpo(troca);
+                Evento evento = motor.CadastrarEvento(Obrigatorio(corpo, "nome"), Obrigatorio(corpo, "endereco"),
+                        Obrigatorio(corpo, "cidade"), Obrigatorio(corpo, "categoria"),
+                        Data(Obrigatorio(corpo, "inicio")), Data(Obrigatorio(corpo, "fim")),
+                        corpo.getOrDefault("descricao", ""),
+                        Inteiro(corpo.getOrDefault("capacidade", "0"), "capacidade"));
+                return new Resposta(201, EventoJson(new StringBuilder(), evento));
+            }
+            if (partes.length == 1 && metodo.equals("GET")) {
+                String de = parametros.get("de");
+                String ate = parametros.get("ate");
+                return new Resposta(200, ListaEventosJson(motor.BuscarEventosPorTexto(
+                        Obrigatorio(parametros, "busca"), parametros.get("cidade"), parametros.get("categoria"),
+                        de == null ? null : Data(de), ate == null ? null : Data(ate), Limite(parametros))));
+            }
+            if (partes.length == 2 && metodo.equals("GET")) {
+                switch (partes[1]) {
+                    case "futuros":
+                        return new Resposta(200, PaginaJson(motor.BuscarEventosFuturos(Cursor(parametros),
+                                Limite(parametros))));
+                    case "passados":
+                        return new Resposta(200, PaginaJson(motor.BuscarEventosPassados(Cursor(parametros),
+                                Limite(parametros))));
+                    case "agora":
+                        return new Resposta(200, ListaEventosJson(motor.EventosOcorrendoEm(LocalDateTime.now())));
+                    default:
+                        Evento evento = motor.BuscarEventoPorId(Inteiro(partes[1], "id"));
+                        if (evento == null) {
+                            throw new ErroHttp(404, "Evento " + partes[1] + " não encontrado");
+                        }
+                        return new Resposta(200, EventoJson(new StringBuilder(), evento));
+                }
+            }
+            throw new ErroHttp(404, "Rota não encontrada");
+        });
+    }
+
+    // /usuarios
+    private void Usuarios(HttpExchange troca) throws IOException {
+        Responder(troca, () -> {
+            String[] partes = Partes(troca);
+            String metodo = troca.getRequestMethod();
+            if (partes.length == 1 && metodo.equals("POST")) {
+                Map<String, String> corpo = Corpo(troca);
+                Usuario usuario = motor.CadastrarUsuario(Obrigatorio(corpo, "nome"), Obrigatorio(corpo, "sobrenome"),
+                        Obrigatorio(corpo, "email"), Obrigatorio(corpo, "cidade"));
+                return new Resposta(201, UsuarioJson(new StringBuilder(), usuario));
+            }
+            if (partes.length == 1 && metodo.equals("GET")) {
+                Map<String, String> parametros = Parametros(troca);
+                List<Usuario> encontrados;
+                if (parametros.containsKey("busca")) {
+                    encontrados = motor.BuscarUsuariosAproximado(parametros.get("busca"), Limite(parametros));
+                } else if (parametros.containsKey("nome")) {
+                    encontrados = motor.BuscarUsuariosPorNome(parametros.get("nome"));
+                } else if (parametros.containsKey("cidade")) {
+                    encontrados = motor.BuscarUsuariosPorCidade(parametros.get("cidade"));
+                } else if (parametros.containsKey("email")) {
+                    Usuario usuario = motor.BuscarUsuarioPorEmail(parametros.get("email"));
+                    encontrados = usuario == null ? List.of() : List.of(usuario);
+                } else {
+                    throw new ErroHttp(400, "Informe busca, nome, email ou cidade");
+                }
+                StringBuilder json = new StringBuilder("{\"usuarios\":[");
+                for (int i = 0; i < encontrados.size(); i++) {
+                    UsuarioJson(i == 0 ? json : json.append(','), encontrados.get(i));
+                }
+                return new Resposta(200, json.append("]}"));
+            }
+            if (partes.length >= 2 && partes.length <= 3 && metodo.equals("GET")) {
+                Usuario usuario = motor.BuscarUsuarioPorId(Inteiro(partes[1], "id"));
+                if (usuario == null) {
+                    throw new ErroHttp(404, "Usuário " + partes[1] + " não encontrado");
+                }
+                if (partes.length == 2) {
+                    return new Resposta(200, UsuarioJson(new StringBuilder(), usuario));
+                }
+                if (partes[2].equals("eventos")) {
+                    return new Resposta(200, ListaEventosJson(motor.EventosDoUsuario(usuario.GetId())));
+                }
+            }
+            throw new ErroHttp(404, "Rota não encontrada");
+        });
+    }
+
+    // /presencas
+    private void Presencas(HttpExchange troca) throws IOException {
+        Responder(troca, () -> {
+            String metodo = troca.getRequestMethod();
+            if (Partes(troca).length != 1 || !(metodo.equals("POST") || metodo.equals("DELETE"))) {
+                throw new ErroHttp(404, "Rota não encontrada");
+            }
+            Map<String, String> dados = metodo.equals("POST") ? Corpo(troca) : Parametros(troca);
+            int idUsuario = Inteiro(Obrigatorio(dados, "idUsuario"), "idUsuario");
+            int idEvento = Inteiro(Obrigatorio(dados, "idEvento"), "idEvento");
+            Usuario usuario = motor.BuscarUsuarioPorId(idUsuario);
+            Evento evento = motor.BuscarEventoPorId(idEvento);
+            if (usuario == null || evento == null) {
+                throw new ErroHttp(404, usuario == null ? "Usuário " + idUsuario + " não encontrado"
+                        : "Evento " + idEvento + " não encontrado");
+            }
+            if (metodo.equals("POST")) {
+                RegistroPresencas.Inscricao inscricao = motor.MarcarPresenca(usuario, evento);
+                switch (inscricao) {
+                    case JA_PRESENTE:
+                        throw new ErroHttp(409, "O usuário já está presente neste evento.");
+                    case JA_NA_LISTA_DE_ESPERA:
+                        throw new ErroHttp(409, "O usuário já está na lista de espera deste evento.");
+                    default:
+                        // 202 quando o evento está lotado e o usuário só entrou na lista de espera
+                        int codigo = inscricao == RegistroPresencas.Inscricao.CONFIRMADA ? 201 : 202;
+                        return new Resposta(codigo, new StringBuilder("{\"idUsuario\":").append(idUsuario)
+                                .append(",\"idEvento\":").append(idEvento)
+                                .append(",\"situacao\":\"").append(inscricao).append("\"}"));
+                }
+            }
+            if (!motor.CancelarPresenca(idUsuario, evento)) {
+                throw new ErroHttp(404, "O usuário não está presente nem na lista de espera deste evento.");
+            }
+            return new Resposta(204, null);
+        });
+    }
+
+    // Código HTTP e corpo JSON (nulo quando não há corpo) de uma resposta
+    private static class Resposta {
+        final int codigo;
+        final CharSequence corpo;
+
+        Resposta(int codigo, CharSequence corpo) {
+            this.codigo = codigo;
+            this.corpo = corpo;
+        }
+    }
+
+    private interface Rota {
+        Resposta Executar() throws IOException;
+    }
+
+    private static void Responder(HttpExchange troca, Rota rota) throws IOException {
+        int codigo;
+        CharSequence corpo;
+        try {
+            Resposta resposta = rota.Executar();
+            codigo = resposta.codigo;
+            corpo = resposta.corpo;
+        } catch (ErroHttp e) {
+            codigo = e.codigo;
+            corpo = Json.Texto(new StringBuilder("{\"erro\":"), e.getMessage()).append('}');
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            codigo = 400;
+            corpo = Json.Texto(new StringBuilder("{\"erro\":"), e.getMessage()).append('}');
+        } catch (IOException | RuntimeException e) {
+            codigo = 500;
+            corpo = Json.Texto(new StringBuilder("{\"erro\":"), String.valueOf(e.getMessage())).append('}');
+        }
+
+        try (troca) {
+            if (corpo == null) {
+                troca.sendResponseHeaders(codigo, -1);
+                return;
+            }
+            byte[] bytes = corpo.toString().getBytes(StandardCharsets.UTF_8);
+            troca.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+            troca.sendResponseHeaders(codigo, bytes.length);
+            try (OutputStream out = troca.getResponseBody()) {
+                out.write(bytes);
+            }
+        }
+    }
+
+    // Partes do caminho, ex: "/usuarios/3/eventos" -> ["usuarios", "3", "eventos"]
+    private static String[] Partes(HttpExchange troca) {
+        String caminho = troca.getRequestURI().getPath();
+        while (caminho.endsWith("/") && caminho.length() > 1) {
+            caminho = caminho.substring(0, caminho.length() - 1);
+        }
+        return caminho.substring(1).split("/");
+    }
+
+    private static Map<String, String> Parametros(HttpExchange troca) {
+        Map<String, String> parametros = new HashMap<>();
+        String consulta = troca.getRequestURI().getRawQuery();
+        if (consulta == null || consulta.isEmpty()) {
+            return parametros;
+        }
+        for (String par : consulta.split("&")) {
+            int igual = par.indexOf('=');
+            String chave = igual < 0 ? par : par.substring(0, igual);
+            String valor = igual < 0 ? "" : par.substring(igual + 1);
+            parametros.put(URLDecoder.decode(chave, StandardCharsets.UTF_8), URLDecoder.decode(valor, StandardCharsets.UTF_8));
+        }
+        return parametros;
+    }
+
+    private static Map<String, String> Corpo(HttpExchange troca) throws IOException {
+        try (InputStream in = troca.getRequestBody()) {
+            return Json.LerObjeto(new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+    }
+
+    private static String Obrigatorio(Map<String, String> campos, String nome) {
+        String valor = campos.get(nome);
+        if (valor == null) {
+            throw new IllegalArgumentException("Campo obrigatório ausente: " + nome);
+        }
+        return valor;
+    }
+
+    private static int Inteiro(String texto, String nome) {
+        try {
+            return Integer.parseInt(texto);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Valor inválido para " + nome + ": " + texto);
+        }
+    }
+
+    private static LocalDateTime Data(String texto) {
+        return ParserRegistros.LerDataHora(texto, 0, texto.length());
+    }
+
+    private static IndiceTemporal.Cursor Cursor(Map<String, String> parametros) {
+        String cursor = parametros.get("cursor");
+        return cursor == null || cursor.isEmpty() ? null : IndiceTemporal.Cursor.De(cursor);
+    }
+
+    private static int Limite(Map<String, String> parametros) {
+        String limite = parametros.get("limite");
+        int valor = limite == null ? LIMITE_PADRAO : Inteiro(limite, "limite");
+        if (valor < 1) {
+            throw new IllegalArgumentException("O limite deve ser maior que zero");
+        }
+        return valor;
+    }
+
+    private static StringBuilder PaginaJson(IndiceTemporal.Pagina pagina) {
+        StringBuilder json = ListaEventos(new StringBuilder("{\"eventos\":"), pagina.GetEventos());
+        json.append(",\"proximo\":");
+        IndiceTemporal.Cursor proximo = pagina.GetProximo();
+        return Json.Texto(json, proximo == null ? null : proximo.toString()).append('}');
+    }
+
+    private static StringBuilder ListaEventosJson(List<Evento> eventos) {
+        return ListaEventos(new StringBuilder("{\"eventos\":"), eventos).append('}');
+    }
+
+    private static StringBuilder ListaEventos(StringBuilder json, List<Evento> eventos) {
+        json.append('[');
+        for (int i = 0; i < eventos.size(); i++) {
+            EventoJson(i == 0 ? json : json.append(','), eventos.get(i));
+        }
+        return json.append(']');
+    }
+
+    private static StringBuilder EventoJson(StringBuilder json, Evento evento) {
+        json.append("{\"id\":").append(evento.GetId());
+        Json.Texto(json.append(",\"nome\":"), evento.GetNome());
+        Json.Texto(json.append(",\"endereco\":"), evento.GetEndereco());
+        Json.Texto(json.append(",\"cidade\":"), evento.GetCidade());
+        Json.Texto(json.append(",\"categoria\":"), evento.GetCategoria().GetNome());
+        Json.Texto(json.append(",\"inicio\":"), evento.GetHorarioInicio().format(Evento.FORMATO_DATA_HORA));
+        Json.Texto(json.append(",\"fim\":"), evento.GetHorarioFim().format(Evento.FORMATO_DATA_HORA));
+        Json.Texto(json.append(",\"descricao\":"), evento.GetDescricao());
+        json.append(",\"capacidade\":").append(evento.GetCapacidade());
+        json.append(",\"ocupadas\":").append(evento.GetVagasOcupadas());
+        json.append(",\"espera\":").append(evento.TamanhoEspera());
+        return json.append('}');
+    }
+
+    private static StringBuilder UsuarioJson(StringBuilder json, Usuario usuario) {
+        json.append("{\"id\":").append(usuario.GetId());
+        Json.Texto(json.append(",\"nome\":"), usuario.GetNome());
+        Json.Texto(json.append(",\"sobrenome\":"), usuario.GetSobrenome());
+        Json.Texto(json.append(",\"email\":"), usuario.GetEmail());
+        Json.Texto(json.append(",\"cidade\":"), usuario.GetCidade());
+        return json.append('}');
+    }
+}
@@ -1,75 +1,63 @@
 package classes;
 
-import java.io.*;
-import java.nio.file.Files;
-import java.nio.file.StandardCopyOption;
+import java.io.IOException;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.ArrayList;
-import java.util.Comparator;
 import java.util.List;
 import java.util.Scanner;
-import java.util.stream.Collectors;
+import java.util.function.Supplier;
 
-// Classe para representar o sistema de cadastro e notificação de eventos
+// Classe para representar o sistema de cadastro e notificação de eventos no console.
+// Os dados e as operações ficam no MotorEventos; aqui ficam só a leitura das opções e a exibição.
 class SistemaEventos {
-    private List<Evento> eventos;
-    private List<Usuario> usuarios;
+    // Quantidade de eventos por página nas listagens (0 = tudo de uma vez)
+    private static final int TAMANHO_PAGINA = Integer.getInteger("sistema.exibicao.pagina", 20);
+    // Quantidade máxima de eventos com o texto de exibição em cache
+    private static final int CACHE_EXIBICAO = Integer.getInteger("sistema.exibicao.cache", 10000);
+    // Quantidade máxima de eventos retornados por uma busca por texto
+    private static final int LIMITE_BUSCA = Integer.getInteger("sistema.busca.limite", 50);
+
+    private MotorEventos motor;
     private Scanner scanner;
+    private RenderizadorEventos renderizador;
 
     // Construtor
     public SistemaEventos() {
-        eventos = new ArrayList<>();
-        usuarios = new ArrayList<>();
+        this(new MotorEventos());
+    }
+
+    // Construtor para usar um motor já carregado (ex: o mesmo do servidor HTTP)
+    public SistemaEventos(MotorEventos motor) {
+        this.motor = motor;
         scanner = new Scanner(System.in);
-        CarregarEventos();
-        CarregarUsuarios();
+        renderizador = new RenderizadorEventos(TAMANHO_PAGINA, CACHE_EXIBICAO);
     }
 
-    // Método para salvar eventos em um arquivo
-    private void SalvarEventos() {
-        try (PrintWriter writer = new PrintWriter(new FileWriter("events.data"))) {
-            for (Evento evento : eventos) {
-                writer.println(evento.toFileString());
-            }
-        } catch (IOException e) {
-            System.out.println("Erro ao salvar eventos: " + e.getMessage());
-        }
+    public MotorEventos GetMotor() {
+        return motor;
     }
 
-    // Método para salvar usuários em um arquivo
-    private void SalvarUsuarios() {
-        try (PrintWriter writer = new PrintWriter(new FileWriter("users.data"))) {
-            for (Usuario usuario : usuarios) {
-                writer.println(usuario.toFileString());
-            }
-        } catch (IOException e) {
-            System.out.println("Erro ao salvar usuários: " + e.getMessage());
-        }
+    // Método para gravar as alterações pendentes e fechar os arquivos
+    public void Encerrar() {
+        motor.Encerrar();
     }
 
-    // Método para carregar usuários a partir de um arquivo
-    private void CarregarUsuarios() {
-        try (BufferedReader reader = new BufferedReader(new FileReader("users.data"))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                usuarios.add(Usuario.fromFileString(line));
-            }
+    // Método para salvar todos os eventos em um snapshot novo e esvaziar o log
+    public void SalvarEventos() {
+        try {
+            motor.SalvarEventos();
         } catch (IOException e) {
-            System.out.println("Erro ao carregar usuários: " + e.getMessage());
-
+            System.out.println("Erro ao salvar eventos: " + e.getMessage());
         }
     }
 
-    // Método para carregar eventos a partir de um arquivo
-    private void CarregarEventos() {
-        try (BufferedReader reader = new BufferedReader(new FileReader("events.data"))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                eventos.add(Evento.fromFileString(line));
-            }
+    // Método para exportar as presenças ativas no formato texto (o mesmo de presenca.data)
+    public void ExportarPresencasTexto(String nomeArquivo) {
+        try {
+            motor.ExportarPresencasTexto(nomeArquivo);
+            System.out.println("Presenças exportadas para " + nomeArquivo);
         } catch (IOException e) {
-            System.out.println("Erro ao carregar eventos: " + e.getMessage());
+            System.out.println("Erro ao exportar presenças: " + e.getMessage());
         }
     }
 
@@ -90,7 +78,7 @@ class SistemaEventos {
         System.out.println("Categoria (festas, eventos esportivos, shows): ");
         String categoria = scanner.nextLine();
 
-        while (!categoria.equals("festas") && !categoria.equals("eventos esportivos") && !categoria.equals("shows")) {
+        while (!MotorEventos.CategoriaValida(categoria)) {
             System.out.println("Categoria inválida! Escolha entre festas, eventos esportivos e shows: ");
             categoria = scanner.nextLine();
         }
@@ -107,57 +95,40 @@ class SistemaEventos {
         System.out.print("Descrição: ");
         String descricao = scanner.nextLine();
 
-        Evento evento = new Evento(nome, endereco, cidade, categoria, horarioInicio, horarioFim, descricao);
-        eventos.add(evento);
+        System.out.print("Capacidade máxima (0 para ilimitada): ");
+        int capacidade = Integer.parseInt(scanner.nextLine());
+        while (capacidade < 0) {
+            System.out.print("A capacidade não pode ser negativa. Capacidade máxima (0 para ilimitada): ");
+            capacidade = Integer.parseInt(scanner.nextLine());
+        }
 
-        SalvarEventos(); // Após cadastrar, salva os eventos
+        try {
+            motor.CadastrarEvento(nome, endereco, cidade, categoria, horarioInicio, horarioFim, descricao, capacidade);
+        } catch (IOException e) {
+            System.out.println("Erro ao salvar eventos: " + e.getMessage());
+            return;
+        } catch (IllegalArgumentException e) {
+            System.out.println("Cadastro não realizado: " + e.getMessage());
+            return;
+        }
 
         System.out.println("Evento cadastrado com sucesso!");
     }
 
     // Método para exibir todos os eventos cadastrados que ainda não ocorreram
     public void ExibirEventos() {
-        LocalDateTime agora = LocalDateTime.now();
         System.out.println("Eventos cadastrados que ainda não ocorreram:");
 
-        eventos.stream()
-                .filter(evento -> evento.GetHorarioInicio().isAfter(agora)) // Eventos com horário de início posterior
-                                                                            // ao horário atual
-                .sorted(Comparator.comparing(Evento::GetHorarioInicio))
-                .forEach(evento -> {
-                    DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
-                    System.out.println("Nome: " + evento.GetNome());
-                    System.out.println("Endereço: " + evento.GetEndereco());
-                    System.out.println("Cidade: " + evento.GetCidade());
-                    System.out.println("Categoria: " + evento.GetCategoria());
-                    System.out.println("Horário de Início: " + evento.GetHorarioInicio().format(formatter));
-                    System.out.println("Horário de Término: " + evento.GetHorarioFim().format(formatter));
-                    System.out.println("Descrição: " + evento.GetDescricao());
-                    System.out.println();
-                });
+        // Eventos com horário de início posterior ao horário atual, já ordenados pelo índice, uma página por vez
+        renderizador.Exibir(motor::BuscarEventosFuturos, System.out, this::ContinuarListagem);
     }
 
     // Método para exibir eventos que já ocorreram
     public void ExibirEventosPassados() {
-        LocalDateTime agora = LocalDateTime.now();
         System.out.println("Eventos que já ocorreram:");
 
-        eventos.stream()
-                .filter(evento -> evento.GetHorarioFim().isBefore(agora)) // Eventos com horário de término anterior ao
-                                                                          // horário atual
-                .sorted(Comparator.comparing(Evento::GetHorarioFim).reversed()) // Ordena do mais recente para o mais
-                                                                                // antigo
-                .forEach(evento -> {
-                    DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
-                    System.out.println("Nome: " + evento.GetNome());
-                    System.out.println("Endereço: " + evento.GetEndereco());
-                    System.out.println("Cidade: " + evento.GetCidade());
-                    System.out.println("Categoria: " + evento.GetCategoria());
-                    System.out.println("Horário de Início: " + evento.GetHorarioInicio().format(formatter));
-                    System.out.println("Horário de Término: " + evento.GetHorarioFim().format(formatter));
-                    System.out.println("Descrição: " + evento.GetDescricao());
-                    System.out.println();
-                });
+        // Eventos com horário de término anterior ao horário atual, do mais recente para o mais antigo
+        renderizador.Exibir(motor::BuscarEventosPassados, System.out, this::ContinuarListagem);
     }
 
     // Método para verificar se há eventos ocorrendo no momento e exibi-los
@@ -165,43 +136,61 @@ class SistemaEventos {
         LocalDateTime agora = LocalDateTime.now();
         System.out.println("Eventos ocorrendo agora:");
 
-        eventos.stream()
-                .filter(evento -> evento.GetHorarioInicio().isBefore(agora) && evento.GetHorarioFim().isAfter(agora)) // Eventos
-                                                                                                                      // dentro
-                                                                                                                      // do
-                                                                                                                      // horário
-                                                                                                                      // atual
-                .sorted(Comparator.comparing(Evento::GetHorarioInicio))
-                .forEach(evento -> {
-                    DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
-                    System.out.println("Nome: " + evento.GetNome());
-                    System.out.println("Endereço: " + evento.GetEndereco());
-                    System.out.println("Cidade: " + evento.GetCidade());
-                    System.out.println("Categoria: " + evento.GetCategoria());
-                    System.out.println("Horário de Início: " + evento.GetHorarioInicio().format(formatter));
-                    System.out.println("Horário de Término: " + evento.GetHorarioFim().format(formatter));
-                    System.out.println("Descrição: " + evento.GetDescricao());
-                    System.out.println();
-                });
+        // Eventos dentro do horário atual, ordenados pelo início
+        renderizador.Exibir(motor.EventosOcorrendoEm(agora), System.out, this::ContinuarListagem);
+    }
+
+    // Método para buscar eventos pelo nome ou pela descrição, com filtros opcionais de cidade e categoria
+    public void BuscarEventos() {
+        System.out.print("Buscar (nome ou descrição): ");
+        String consulta = scanner.nextLine();
+        System.out.print("Cidade (Enter para todas): ");
+        String cidade = scanner.nextLine().trim();
+        System.out.print("Categoria (festas, eventos esportivos, shows; Enter para todas): ");
+        String categoria = scanner.nextLine().trim();
+        if (!categoria.isEmpty() && !MotorEventos.CategoriaValida(categoria)) {
+            System.out.println("Categoria inválida! Escolha entre festas, eventos esportivos e shows.");
+            return;
+        }
+
+        List<Evento> encontrados = motor.BuscarEventosPorTexto(consulta, cidade.isEmpty() ? null : cidade,
+                categoria.isEmpty() ? null : categoria, null, null, LIMITE_BUSCA);
+        if (encontrados.isEmpty()) {
+            System.out.println("Nenhum evento encontrado.");
+            return;
+        }
+        System.out.println("Eventos encontrados (" + encontrados.size() + ", do mais relevante):");
+        renderizador.Exibir(encontrados, System.out, this::ContinuarListagem);
+    }
+
+    // Pergunta um texto para buscar entre os eventos futuros de uma lista de escolha (da cidade, se
+    // informada); com Enter, a lista é a de 'todos'
+    private List<Evento> FiltrarPorBusca(Supplier<List<Evento>> todos, String cidade) {
+        System.out.print("Buscar evento por nome ou descrição (Enter para listar todos): ");
+        String consulta = scanner.nextLine();
+        if (consulta.trim().isEmpty()) {
+            return todos.get();
+        }
+        return motor.BuscarEventosFuturosPorTexto(consulta, cidade, LIMITE_BUSCA);
+    }
+
+    // Pergunta, entre uma página e outra de uma listagem, se a próxima deve ser exibida
+    private boolean ContinuarListagem() {
+        System.out.print("Enter para ver mais eventos ou 'q' para voltar: ");
+        return !scanner.nextLine().trim().equalsIgnoreCase("q");
     }
 
     // Método para marcar presença em um evento
     // Método para marcar presença em um evento
     public void MarcarPresenca() {
         // Se não houver eventos disponíveis, retorna
-        if (eventos.isEmpty()) {
+        if (!motor.PossuiEventos()) {
             System.out.println("Não há eventos disponíveis para marcar presença.");
             return;
         }
 
-        LocalDateTime agora = LocalDateTime.now();
-        // Filtra os eventos futuros
-        List<Evento> eventosFuturos = eventos.stream()
-                .filter(evento -> evento.GetHorarioInicio().isAfter(agora))
-                .collect(Collectors.toList());
-
         // Se não houver eventos futuros, retorna
-        if (eventosFuturos.isEmpty()) {
+        if (!motor.PossuiEventosFuturos()) {
             System.out.println("Não há eventos futuros disponíveis para marcar presença.");
             return;
         }
@@ -211,16 +200,21 @@ class SistemaEventos {
         String cidadeUsuario = scanner.nextLine();
 
         // Filtra os eventos futuros disponíveis apenas para a cidade do usuário
-        eventosFuturos = eventosFuturos.stream()
-                .filter(evento -> evento.GetCidade().equalsIgnoreCase(cidadeUsuario))
-                .collect(Collectors.toList());
+        List<Evento> eventosDaCidade = motor.EventosFuturos(cidadeUsuario);
 
         // Se não houver eventos futuros disponíveis na cidade do usuário, retorna
-        if (eventosFuturos.isEmpty()) {
+        if (eventosDaCidade.isEmpty()) {
             System.out.println("Não há eventos futuros disponíveis na sua cidade para marcar presença.");
             return;
         }
 
+        // Permite buscar o evento pelo texto em vez de percorrer a lista inteira
+        List<Evento> eventosFuturos = FiltrarPorBusca(() -> eventosDaCidade, cidadeUsuario);
+        if (eventosFuturos.isEmpty()) {
+            System.out.println("Nenhum evento futuro encontrado com esse texto.");
+            return;
+        }
+
         // Exibe os eventos futuros disponíveis
         System.out.println("Escolha o evento para marcar presença:");
 
@@ -252,14 +246,11 @@ class SistemaEventos {
             case 1:
                 System.out.print("Digite o ID do usuário: ");
                 int idUsuario = Integer.parseInt(scanner.nextLine());
-                Usuario usuarioPorId = usuarios.stream()
-                        .filter(usuario -> usuario.GetId() == idUsuario)
-                        .findFirst()
-                        .orElse(null);
+                Usuario usuarioPorId = motor.BuscarUsuarioPorId(idUsuario);
 
                 if (usuarioPorId != null) {
                     // Verificar se o usuário já está presente no evento
-                    if (eventoSelecionado.GetParticipantes().contains(usuarioPorId)) {
+                    if (motor.VerificarPresencaUsuario(usuarioPorId.GetId(), eventoSelecionado)) {
                         System.out.println("O usuário já está presente neste evento.");
                         return;
                     }
@@ -271,11 +262,7 @@ class SistemaEventos {
                     String confirmacao = scanner.nextLine();
 
                     if (confirmacao.equalsIgnoreCase("S")) {
-                        eventoSelecionado.AdicionarParticipante(usuarioPorId);
-                        SalvarEventos();
-                        SalvarUsuarios();
-                        System.out
-                                .println("Presença marcada com sucesso para o evento: " + eventoSelecionado.GetNome());
+                        ConfirmarPresenca(usuarioPorId, eventoSelecionado);
                     } else {
                         System.out.println("Presença não confirmada.");
                     }
@@ -285,16 +272,15 @@ class SistemaEventos {
                 break;
 
             case 2:
-                System.out.print("Digite o nome + sobrenome do usuário: ");
+                System.out.print("Digite o nome, o sobrenome ou o começo deles: ");
                 String nomeSobrenome = scanner.nextLine();
-                List<Usuario> usuariosPorNome = usuarios.stream()
-                        .filter(usuario -> usuario.GetNomeCompleto().equalsIgnoreCase(nomeSobrenome))
-                        .collect(Collectors.toList());
+                List<Usuario> usuariosPorNome = motor.BuscarUsuariosAproximado(nomeSobrenome, LIMITE_BUSCA);
 
                 if (!usuariosPorNome.isEmpty()) {
                     System.out.println("Usuários encontrados com o nome '" + nomeSobrenome + "':");
                     for (int i = 0; i < usuariosPorNome.size(); i++) {
-                        System.out.println((i + 1) + ". " + usuariosPorNome.get(i).GetNomeCompleto());
+                        System.out.println((i + 1) + ". " + usuariosPorNome.get(i).GetNomeCompleto() + " ("
+                                + usuariosPorNome.get(i).GetEmail() + ")");
                     }
 
                     System.out.print("Digite o número do usuário ou 0 para cancelar: ");
@@ -304,7 +290,7 @@ class SistemaEventos {
                         usuarioSelecionado = usuariosPorNome.get(numeroUsuario - 1);
 
                         // Verificar se o usuário já está presente no evento
-                        if (eventoSelecionado.GetParticipantes().contains(usuarioSelecionado)) {
+                        if (motor.VerificarPresencaUsuario(usuarioSelecionado.GetId(), eventoSelecionado)) {
                             System.out.println("O usuário já está presente neste evento.");
                             return;
                         }
@@ -315,10 +301,7 @@ class SistemaEventos {
                         String confirmacao = scanner.nextLine();
 
                         if (confirmacao.equalsIgnoreCase("S")) {
-                            eventoSelecionado.AdicionarParticipante(usuarioSelecionado);
-                            SalvarEventos();
-                            System.out.println(
-                                    "Presença marcada com sucesso para o evento: " + eventoSelecionado.GetNome());
+                            ConfirmarPresenca(usuarioSelecionado, eventoSelecionado);
                         } else {
                             System.out.println("Presença não confirmada.");
                         }
@@ -332,9 +315,7 @@ class SistemaEventos {
 
             case 3:
                 System.out.println("Lista de todos os usuários da cidade '" + cidadeUsuario + "':");
-                List<Usuario> usuariosNaCidade = usuarios.stream()
-                        .filter(usuario -> usuario.GetCidade().equalsIgnoreCase(cidadeUsuario))
-                        .collect(Collectors.toList());
+                List<Usuario> usuariosNaCidade = motor.BuscarUsuariosPorCidade(cidadeUsuario);
 
                 if (!usuariosNaCidade.isEmpty()) {
                     for (int i = 0; i < usuariosNaCidade.size(); i++) {
@@ -347,22 +328,9 @@ class SistemaEventos {
                     if (numeroUsuarioCidade >= 1 && numeroUsuarioCidade <= usuariosNaCidade.size()) {
                         Usuario usuarioSelecionadoCidade = usuariosNaCidade.get(numeroUsuarioCidade - 1);
                         // Verificar se o usuário já está presente no evento
-                        String nomeUsuario = usuarioSelecionadoCidade.GetNomeCompleto();
-                        boolean usuarioPresente = eventoSelecionado.GetParticipantes().stream()
-                                .anyMatch(participante -> participante.GetNomeCompleto().equals(nomeUsuario));
-                        if (!usuarioPresente) {
-                            if (!VerificarPresencaUsuario(usuarioSelecionadoCidade.GetId())) {
-                                // O usuário não está presente no evento, então podemos adicioná-lo
-                                eventoSelecionado.AdicionarParticipante(usuarioSelecionadoCidade);
-                                PegarPresenca(usuarioSelecionadoCidade, eventoSelecionado); // Registrar presença no
-                                                                                            // arquivo
-                                SalvarEventos();
-                                SalvarUsuarios(); // Salvar alterações na lista de usuários
-                                System.out.println(
-                                        "Presença marcada com sucesso para o evento: " + eventoSelecionado.GetNome());
-                            } else {
-                                System.out.println("O usuário já está presente neste evento.");
-                            }
+                        if (!motor.VerificarPresencaUsuario(usuarioSelecionadoCidade.GetId(), eventoSelecionado)) {
+                            // O usuário não está presente no evento, então podemos adicioná-lo
+                            ConfirmarPresenca(usuarioSelecionadoCidade, eventoSelecionado);
                         } else {
                             System.out.println("O usuário já está presente neste evento.");
                         }
@@ -381,57 +349,48 @@ class SistemaEventos {
 
     }
 
-    public void PegarPresenca(Usuario usuario, Evento eventoSelecionado) {
-        try (PrintWriter writer = new PrintWriter(new FileWriter("presenca.data", true))) {
-            // Escrever as informações da presença no arquivo no formato desejado
-            writer.println("ID do Usuário: " + usuario.GetId());
-            writer.println("Nome do Usuário: " + usuario.GetNomeCompleto());
-            writer.println("Cidade do Usuário: " + usuario.GetCidade());
-            writer.println("Evento: " + eventoSelecionado.GetNome());
-            writer.println("Horário de Início do Evento: " +
-                    eventoSelecionado.GetHorarioInicio().format(DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm")));
-            writer.println(); // Adiciona uma linha em branco para separar as entradas no arquivo
-            System.out.println("Presença registrada com sucesso!");
-        } catch (IOException e) {
-            System.out.println("Erro ao registrar presença: " + e.getMessage());
-        }
-    }
-
-    public boolean VerificarPresencaUsuario(int idUsuario) {
-        boolean presente = false;
-        try (BufferedReader reader = new BufferedReader(new FileReader("presenca.data"))) {
-            String line;
-            while ((line = reader.readLine()) != null) {
-                // Verifica se a linha contém o ID do usuário
-                if (line.startsWith("ID do Usuário:")) {
-                    int idLido = Integer.parseInt(line.substring("ID do Usuário: ".length()).trim());
-                    // Se o ID lido for igual ao ID do usuário que estamos procurando
-                    if (idLido == idUsuario) {
-                        presente = true;
-                        break;
-                    }
-                }
+    // Método para marcar a presença em memória e registrá-la no arquivo
+    private void ConfirmarPresenca(Usuario usuario, Evento eventoSelecionado) {
+        try {
+            switch (motor.MarcarPresenca(usuario, eventoSelecionado)) {
+                case JA_PRESENTE:
+                    System.out.println("O usuário já está presente neste evento.");
+                    return;
+                case JA_NA_LISTA_DE_ESPERA:
+                    System.out.println("O usuário já está na lista de espera deste evento.");
+                    return;
+                case LISTA_DE_ESPERA:
+                    System.out.println("Evento lotado! O usuário entrou na lista de espera.");
+                    return;
+                default:
+                    System.out.println("Presença registrada com sucesso!");
             }
+        } catch (IllegalArgumentException e) {
+            System.out.println(e.getMessage());
+            return;
         } catch (IOException e) {
-            System.out.println("Erro ao ler o arquivo de presença: " + e.getMessage());
+            System.out.println("Erro ao registrar presença: " + e.getMessage());
+            return;
         }
-        return presente;
+        System.out.println("Presença marcada com sucesso para o evento: " + eventoSelecionado.GetNome());
     }
 
     // Método para cancelar a presença em um evento
     public void CancelarPresenca() {
-        if (eventos.isEmpty()) {
+        if (!motor.PossuiEventos()) {
             System.out.println("Não há eventos disponíveis para cancelar presença.");
             return;
         }
 
-        LocalDateTime agora = LocalDateTime.now();
-        List<Evento> eventosFuturos = eventos.stream()
-                .filter(evento -> evento.GetHorarioInicio().isAfter(agora))
-                .collect(Collectors.toList());
+        if (!motor.PossuiEventosFuturos()) {
+            System.out.println("Não há eventos futuros disponíveis para cancelar presença.");
+            return;
+        }
 
+        // A lista completa só é montada se nenhum texto for buscado
+        List<Evento> eventosFuturos = FiltrarPorBusca(motor::EventosFuturos, null);
         if (eventosFuturos.isEmpty()) {
-            System.out.println("Não há eventos futuros disponíveis para cancelar presença.");
+            System.out.println("Nenhum evento futuro encontrado com esse texto.");
             return;
         }
 
@@ -454,50 +413,25 @@ class SistemaEventos {
             // Verificar se o usuário está presente neste evento
             System.out.print("Digite o ID do usuário para cancelar presença: ");
             int idUsuario = Integer.parseInt(scanner.nextLine());
-            boolean usuarioPresente = VerificarPresencaUsuario(idUsuario);
+            boolean usuarioPresente = motor.VerificarPresencaUsuario(idUsuario, eventoSelecionado)
+                    || motor.VerificarEsperaUsuario(idUsuario, eventoSelecionado);
 
             if (!usuarioPresente) {
                 System.out.println("O usuário não está presente neste evento.");
                 return;
             }
 
-            // Verificar se o evento pertence à mesma cidade do usuário
-            if (!eventoSelecionado.GetCidade().equalsIgnoreCase(usuarios.stream()
-                    .filter(u -> u.GetId() == idUsuario)
-                    .findFirst()
-                    .orElse(new Usuario("", "", "", ""))
-                    .GetCidade())) {
-                System.out.println("O evento selecionado não pertence à mesma cidade do usuário.");
-                return;
-            }
-
-            // Excluir todas as informações relacionadas ao usuário do arquivo
-            // "presenca.data"
+            // Marcar o registro da presença como cancelado no arquivo de presenças (o motor confere se o
+            // evento é da cidade do usuário e se ainda não começou)
             try {
-                File inputFile = new File("presenca.data");
-                File tempFile = new File("temp.data");
-
-                BufferedReader reader = new BufferedReader(new FileReader(inputFile));
-                BufferedWriter writer = new BufferedWriter(new FileWriter(tempFile));
-
-                String lineToRemove = "ID do Usuário: " + idUsuario;
-                String currentLine;
-                while ((currentLine = reader.readLine()) != null) {
-                    if (currentLine.equals(lineToRemove)) {
-                        // Pular todas as linhas relacionadas ao usuário
-                        for (int i = 0; i < 4; i++) {
-                            reader.readLine(); // Pular as próximas três linhas
-                        }
-                        continue;
-                    }
-                    writer.write(currentLine + System.getProperty("line.separator"));
+                if (!motor.CancelarPresenca(idUsuario, eventoSelecionado)) {
+                    System.out.println("O usuário não está presente neste evento.");
+                    return;
                 }
-                writer.close();
-                reader.close();
-
-                Files.move(tempFile.toPath(), inputFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
 
                 System.out.println("Presença cancelada com sucesso para o usuário com ID: " + idUsuario);
+            } catch (IllegalArgumentException e) {
+                System.out.println(e.getMessage());
             } catch (IOException e) {
                 System.out.println("Erro ao atualizar o arquivo de presença: " + e.getMessage());
                 e.printStackTrace(); // Imprime o stack trace completo para depuração
@@ -507,22 +441,9 @@ class SistemaEventos {
         }
     }
 
-    // Método para retornar a lista de eventos
-    public List<Evento> GetEventos() {
-        return eventos;
-    }
-
-    // Método para retornar a lista de usuários
-    public List<Usuario> GetUsuarios() {
-        return usuarios;
-    }
-
     // Método para consultar usuários pelo ID
     public void ConsultarUsuarioPorId(int id) {
-        Usuario usuarioEncontrado = usuarios.stream()
-                .filter(usuario -> usuario.GetId() == id)
-                .findFirst()
-                .orElse(null);
+        Usuario usuarioEncontrado = motor.BuscarUsuarioPorId(id);
 
         if (usuarioEncontrado != null) {
             System.out.println("Usuário encontrado:");
@@ -552,23 +473,23 @@ class SistemaEventos {
         System.out.print("Cidade: ");
         String cidade = scanner.nextLine();
 
-        // Gera novo id unico para cada usuario / se bugar resolver esse problema de não
-        // usar
-        // int novoId = gerarNovoIdUsuario();
-
-        Usuario novoUsuario = new Usuario(nome, sobrenome, email, cidade);
-        usuarios.add(novoUsuario);
-
-        SalvarUsuarios(); // Após cadastrar, salva os usuários
+        // Gera novo id unico para cada usuario, persistido junto com o cadastro
+        try {
+            motor.CadastrarUsuario(nome, sobrenome, email, cidade);
+        } catch (IOException e) {
+            System.out.println("Erro ao salvar usuários: " + e.getMessage());
+            return;
+        } catch (IllegalArgumentException e) {
+            System.out.println("Cadastro não realizado: " + e.getMessage());
+            return;
+        }
 
         System.out.println("Usuário cadastrado com sucesso!");
     }
 
     // Método para consultar usuários pelo nome
     public void ConsultarUsuarioPorNome(String nome) {
-        List<Usuario> usuariosEncontrados = usuarios.stream()
-                .filter(usuario -> usuario.GetNomeCompleto().equalsIgnoreCase(nome))
-                .collect(Collectors.toList());
+        List<Usuario> usuariosEncontrados = motor.BuscarUsuariosAproximado(nome, LIMITE_BUSCA);
 
         if (!usuariosEncontrados.isEmpty()) {
             System.out.println("Usuários encontrados com o nome '" + nome + "':");
@@ -601,7 +522,7 @@ class SistemaEventos {
                 ConsultarUsuarioPorId(id);
                 break;
             case 2:
-                System.out.print("Digite o nome e sobrenome do usuário: ");
+                System.out.print("Digite o nome, o sobrenome ou o começo deles: ");
                 String nome = scanner.nextLine();
                 ConsultarUsuarioPorNome(nome);
                 break;
@@ -615,6 +536,7 @@ class SistemaEventos {
 
     // Método para listar todos os usuários
     public void ListarTodosUsuarios() {
+        List<Usuario> usuarios = motor.GetUsuarios();
         if (usuarios.isEmpty()) {
             System.out.println("Não há usuários cadastrados.");
             return;
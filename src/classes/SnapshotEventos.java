@@ -0,0 +1,227 @@
+package classes;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+// Snapshot binário do catálogo de eventos, lido através de FileChannel.map.
+//
+// Layout (big-endian):
+//   cabeçalho (32 bytes): mágico, versão, quantidade de eventos, quantidade de strings,
+//                         posição dos registros (long), posição da tabela de strings (long)
+//   registros (36 bytes cada): id, nome, endereço, cidade, categoria, descrição (índices na
+//                         tabela de strings), início e término em minutos desde a época, capacidade
+//                         (a versão 1, sem capacidade, tinha registros de 32 bytes e ainda é lida)
+//   tabela de strings:    posições (int) de cada string + 1 posição final, seguidas dos bytes UTF-8
+//
+// Os objetos Evento só são criados quando acessados, e cada string repetida é gravada uma vez. O arquivo
+// continua mapeado enquanto o snapshot for usado (o canal é fechado logo depois do mapeamento, que continua
+// válido), e o ID e os horários de cada registro podem ser lidos sem criar o evento.
+class SnapshotEventos extends AbstractList<Evento> {
+
+    // O primeiro byte é zero, o que nunca acontece em um events.data no formato texto
+    private static final int MAGICO = 0x00455654; // "\0EVT"
+    private static final int VERSAO = 2;
+    private static final int TAMANHO_CABECALHO = 32;
+    private static final int TAMANHO_REGISTRO = 36;
+    private static final int TAMANHO_REGISTRO_V1 = 32;
+
+    private final MappedByteBuffer mapa;
+    private final int tamanhoRegistro;
+    private final int quantidade;
+    private final int quantidadeStrings;
+    private final int posicaoRegistros;
+    private final int posicaoPosicoesStrings;
+    private final int posicaoBytesStrings;
+    // Eventos já criados; cada registro vira uma única instância, mesmo com acessos concorrentes, porque é
+    // nela que ficam os participantes e a lista de espera
+    private final AtomicReferenceArray<Evento> eventos;
+    private final String[] strings; // strings já decodificadas
+
+    private SnapshotEventos(File arquivo) throws IOException {
+        try (FileChannel canal = FileChannel.open(arquivo.toPath(), StandardOpenOption.READ)) {
+            if (canal.size() > Integer.MAX_VALUE) {
+                throw new IOException(arquivo.getName() + " é grande demais para ser mapeado de uma vez");
+            }
+            mapa = canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size());
+        }
+        if (mapa.capacity() < TAMANHO_CABECALHO || mapa.getInt(0) != MAGICO
+                || (mapa.getInt(4) != VERSAO && mapa.getInt(4) != 1)) {
+            throw new IOException(arquivo.getName() + " não é um snapshot binário de eventos");
+        }
+        tamanhoRegistro = mapa.getInt(4) == 1 ? TAMANHO_REGISTRO_V1 : TAMANHO_REGISTRO;
+        quantidade = mapa.getInt(8);
+        quantidadeStrings = mapa.getInt(12);
+        posicaoRegistros = (int) mapa.getLong(16);
+        posicaoPosicoesStrings = (int) mapa.getLong(24);
+        posicaoBytesStrings = posicaoPosicoesStrings + (quantidadeStrings + 1) * 4;
+        eventos = new AtomicReferenceArray<>(quantidade);
+        strings = new String[quantidadeStrings];
+        Metricas.Contar(Metricas.Contador.REGISTROS_LIDOS, quantidade);
+        Metricas.Contar(Metricas.Contador.BYTES_LIDOS, mapa.capacity());
+    }
+
+    // Método para mapear um snapshot binário
+    public static SnapshotEventos Abrir(File arquivo) throws IOException {
+        return new SnapshotEventos(arquivo);
+    }
+
+    // Método para verificar se o arquivo está no formato binário (e não no formato texto)
+    public static boolean EhSnapshotBinario(File arquivo) throws IOException {
+        if (arquivo.length() < TAMANHO_CABECALHO) {
+            return false;
+        }
+        try (DataInputStream in = new DataInputStream(new FileInputStream(arquivo))) {
+            return in.readInt() == MAGICO;
+        }
+    }
+
+    @Override
+    public int size() {
+        return quantidade;
+    }
+
+    // Cria o evento na primeira vez que é acessado; depois, retorna sempre a mesma instância
+    @Override
+    public Evento get(int indice) {
+        Evento evento = eventos.get(indice);
+        if (evento == null) {
+            eventos.compareAndSet(indice, null, Criar(indice));
+            evento = eventos.get(indice);
+        }
+        return evento;
+    }
+
+    // O evento já criado ou, se ele ainda não foi acessado, uma cópia que não fica guardada (para gravar o
+    // snapshot sem criar todos os eventos). A cópia não tem participantes: só serve para leitura.
+    public Evento Ler(int indice) {
+        Evento evento = eventos.get(indice);
+        return evento != null ? evento : Criar(indice);
+    }
+
+    // ID sem criar o evento
+    public int GetId(int indice) {
+        return mapa.getInt(Posicao(indice));
+    }
+
+    // Início em minutos desde 01/01/1970, sem criar o evento
+    public int GetInicioMinutos(int indice) {
+        return mapa.getInt(Posicao(indice) + 24);
+    }
+
+    // Término em minutos desde 01/01/1970, sem criar o evento
+    public int GetFimMinutos(int indice) {
+        return mapa.getInt(Posicao(indice) + 28);
+    }
+
+    // Horário de início sem criar o evento
+    public LocalDateTime GetHorarioInicio(int indice) {
+        return Evento.DeMinutos(GetInicioMinutos(indice));
+    }
+
+    // Horário de término sem criar o evento
+    public LocalDateTime GetHorarioFim(int indice) {
+        return Evento.DeMinutos(GetFimMinutos(indice));
+    }
+
+    // Nome sem criar o evento e sem guardar a string (para indexar)
+    public String GetNome(int indice) {
+        return Decodificar(mapa.getInt(Posicao(indice) + 4));
+    }
+
+    // Descrição sem criar o evento e sem guardar a string (para indexar)
+    public String GetDescricao(int indice) {
+        return Decodificar(mapa.getInt(Posicao(indice) + 20));
+    }
+
+    private int Posicao(int indice) {
+        return posicaoRegistros + indice * tamanhoRegistro;
+    }
+
+    private Evento Criar(int indice) {
+        int posicao = Posicao(indice);
+        int capacidade = tamanhoRegistro == TAMANHO_REGISTRO ? mapa.getInt(posicao + 32) : 0;
+        return new Evento(mapa.getInt(posicao), LerString(mapa.getInt(posicao + 4)),
+                LerString(mapa.getInt(posicao + 8)), LerString(mapa.getInt(posicao + 12)),
+                Categoria.Ler(LerString(mapa.getInt(posicao + 16))), mapa.getInt(posicao + 24),
+                mapa.getInt(posicao + 28), LerString(mapa.getInt(posicao + 20)), capacidade);
+    }
+
+    // Duas threads podem decodificar a mesma string ao mesmo tempo; as duas cópias são iguais
+    private String LerString(int indice) {
+        String texto = strings[indice];
+        if (texto == null) {
+            texto = Decodificar(indice);
+            strings[indice] = texto;
+        }
+        return texto;
+    }
+
+    private String Decodificar(int indice) {
+        int inicio = mapa.getInt(posicaoPosicoesStrings + indice * 4);
+        int fim = mapa.getInt(posicaoPosicoesStrings + (indice + 1) * 4);
+        byte[] bytes = new byte[fim - inicio];
+        mapa.get(posicaoBytesStrings + inicio, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // Método para gravar eventos no formato binário
+    public static void Gravar(List<Evento> eventos, OutputStream destino) throws IOException {
+        Map<String, Integer> indices = new HashMap<>();
+        List<byte[]> tabela = new ArrayList<>();
+        long posicaoStrings = TAMANHO_CABECALHO + (long) eventos.size() * TAMANHO_REGISTRO;
+
+        ByteBuffer registros = ByteBuffer.allocate(eventos.size() * TAMANHO_REGISTRO);
+        for (Evento evento : eventos) {
+            registros.putInt(evento.GetId())
+                    .putInt(IndiceString(evento.GetNome(), indices, tabela))
+                    .putInt(IndiceString(evento.GetEndereco(), indices, tabela))
+                    .putInt(IndiceString(evento.GetCidade(), indices, tabela))
+                    .putInt(IndiceString(evento.GetCategoria().GetNome(), indices, tabela))
+                    .putInt(IndiceString(evento.GetDescricao(), indices, tabela))
+                    .putInt(evento.GetInicioMinutos())
+                    .putInt(evento.GetFimMinutos())
+                    .putInt(evento.GetCapacidade());
+        }
+
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(destino));
+        out.writeInt(MAGICO);
+        out.writeInt(VERSAO);
+        out.writeInt(eventos.size());
+        out.writeInt(tabela.size());
+        out.writeLong(TAMANHO_CABECALHO);
+        out.writeLong(posicaoStrings);
+        out.write(registros.array(), 0, registros.position());
+
+        int posicao = 0;
+        for (byte[] bytes : tabela) {
+            out.writeInt(posicao);
+            posicao += bytes.length;
+        }
+        out.writeInt(posicao);
+        for (byte[] bytes : tabela) {
+            out.write(bytes);
+        }
+        out.flush();
+    }
+
+    private static int IndiceString(String texto, Map<String, Integer> indices, List<byte[]> tabela) {
+        Integer indice = indices.get(texto);
+        if (indice == null) {
+            indice = tabela.size();
+            indices.put(texto, indice);
+            tabela.add(texto.getBytes(StandardCharsets.UTF_8));
+        }
+        return indice;
+    }
+}
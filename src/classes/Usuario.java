@@ -1,22 +1,23 @@
 package classes;
 
+// Registro compacto: a cidade é um código no DicionarioTextos compartilhado e o nome completo é montado
+// quando é pedido (os índices por nome guardam a sua própria chave)
 class Usuario {
 
     // Variaveis
-    private static int proximoId = 1; // variavel para controlar o proximo id a ser incrementado
-    private int id; // ID unico do usuario
-    private String nome;
-    private String sobrenome;
-    private String email;
-    private String cidade;
+    private final int id; // ID unico do usuario
+    private final String nome;
+    private final String sobrenome;
+    private final String email;
+    private final int codigoCidade; // em DicionarioTextos.COMPARTILHADO
 
     // Construtor
-    public Usuario(String nome, String sobrenome, String email, String cidade) {
-        id = proximoId++;
+    public Usuario(int id, String nome, String sobrenome, String email, String cidade) {
+        this.id = id;
         this.nome = nome;
         this.sobrenome = sobrenome;
         this.email = email;
-        this.cidade = cidade;
+        this.codigoCidade = DicionarioTextos.COMPARTILHADO.Codigo(cidade);
     }
 
     // Getters
@@ -25,6 +26,14 @@ class Usuario {
         return id;
     }
 
+    public String GetNome() {
+        return nome;
+    }
+
+    public String GetSobrenome() {
+        return sobrenome;
+    }
+
     public String GetNomeCompleto() {
         return nome + " " + sobrenome;
     }
@@ -34,23 +43,21 @@ class Usuario {
     }
 
     public String GetCidade() {
-        return cidade;
+        return DicionarioTextos.COMPARTILHADO.Texto(codigoCidade);
     }
 
     // Método para converter o usuário para uma string no formato de linha do
     // arquivo
     public String toFileString() {
-        return nome + ";" + sobrenome + ";" + email + ";" + cidade;
+        return id + ";" + nome + ";" + sobrenome + ";" + email + ";" + GetCidade();
     }
 
-    // Método para criar um usuário a partir de uma linha do arquivo
-    public static Usuario fromFileString(String line) {
-        String[] parts = line.split(";");
-        String nome = parts[0];
-        String sobrenome = parts[1];
-        String email = parts[2];
-        String cidade = parts[3];
-        return new Usuario(nome, sobrenome, email, cidade);
+    // Método para criar um usuário a partir de uma linha do arquivo.
+    // Linhas no formato antigo (sem ID) recebem 'idPadrao', que deve ser a posição da linha no
+    // arquivo, igual à numeração que essas linhas sempre receberam ao serem carregadas.
+    // Para carregar muitas linhas, prefira reaproveitar um ParserRegistros.
+    public static Usuario fromFileString(String line, int idPadrao) {
+        return new ParserRegistros().LerUsuario(line, idPadrao);
     }
 
 }
\ No newline at end of file
@@ -0,0 +1,85 @@
+package classes;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ArquivoLogTest {
+
+    @TempDir
+    Path pasta;
+
+    // Uma compactação que falha deixa o log antigo no disco; a seguinte não pode sobrescrevê-lo
+    @Test
+    void CompactacaoDepoisDeUmaFalhaMantemOLogAntigo() throws Exception {
+        List<String> estado = new ArrayList<>();
+        boolean[] falhar = { true };
+        ArquivoLog<String> log = new ArquivoLog<>(pasta.resolve("dados.data").toString(),
+                pasta.resolve("dados.log").toString(), Long.MAX_VALUE, (registros, destino) -> {
+                    if (falhar[0]) {
+                        throw new IOException("disco cheio");
+                    }
+                    for (String registro : registros) {
+                        destino.write((registro + "\n").getBytes());
+                    }
+                }, () -> estado);
+        log.PrepararCarga();
+
+        Anexar(log, estado, "a");
+        assertThrows(IOException.class, log::CompactarAgora);
+        Anexar(log, estado, "b");
+        assertThrows(IOException.class, log::CompactarAgora);
+        Anexar(log, estado, "c");
+        log.Fechar();
+
+        // Na carga seguinte, o log antigo e o atual juntos têm todos os registros, em ordem
+        ArquivoLog<String> recarga = new ArquivoLog<>(pasta.resolve("dados.data").toString(),
+                pasta.resolve("dados.log").toString(), Long.MAX_VALUE, String::toString, () -> estado);
+        List<File> arquivos = recarga.PrepararCarga();
+        recarga.Fechar();
+        assertEquals(1, arquivos.size());
+        assertEquals(List.of("a", "b", "c"), Files.readAllLines(arquivos.get(0).toPath()));
+    }
+
+    // Uma queda no meio de uma gravação deixa o último registro do log pela metade; a carga o descarta e
+    // os registros anexados depois ficam em linhas próprias
+    @Test
+    void CargaDescartaRegistroIncompletoNoFimDoLog() throws Exception {
+        Path arquivoLog = pasta.resolve("events.log");
+        String completo = "1;Show;Rua A;Recife;shows;0;10/10/2030 20:00;10/10/2030 23:00;Descrição";
+        Files.writeString(arquivoLog, completo + "\n2;Festa;Rua B;Rec");
+
+        List<Evento> estado = new ArrayList<>();
+        ArquivoLog<Evento> log = new ArquivoLog<>(pasta.resolve("events.data").toString(), arquivoLog.toString(),
+                Long.MAX_VALUE, Evento::toFileString, () -> estado);
+        List<Evento> carregados = CarregadorParalelo.Carregar(log.PrepararCarga(), ParserRegistros::LerEvento,
+                new CarregadorParalelo.Tempos());
+        assertEquals(1, carregados.size());
+        assertEquals("Show", carregados.get(0).GetNome());
+
+        log.Anexar("3;Festa;Rua B;Recife;festas;0;11/10/2030 20:00;11/10/2030 23:00;Outra");
+        log.Fechar();
+        ArquivoLog<Evento> recarga = new ArquivoLog<>(pasta.resolve("events.data").toString(),
+                arquivoLog.toString(), Long.MAX_VALUE, Evento::toFileString, () -> estado);
+        carregados = CarregadorParalelo.Carregar(recarga.PrepararCarga(), ParserRegistros::LerEvento,
+                new CarregadorParalelo.Tempos());
+        recarga.Fechar();
+        assertEquals(2, carregados.size());
+        assertEquals(3, carregados.get(1).GetId());
+    }
+
+    private static void Anexar(ArquivoLog<String> log, List<String> estado, String registro) throws IOException {
+        estado.add(registro);
+        log.Anexar(registro);
+        log.Descarregar();
+    }
+}
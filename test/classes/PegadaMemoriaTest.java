@@ -0,0 +1,203 @@
+package classes;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashSet;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.openjdk.jol.info.ClassLayout;
+import org.openjdk.jol.info.GraphLayout;
+
+// Medição reproduzível da memória dos registros compactos (Evento, Usuario) e do DicionarioTextos: o JOL
+// percorre o grafo de objetos alcançável a partir dos registros e soma o tamanho de cada objeto no layout
+// desta JVM. Os textos próprios de cada registro (nome, descrição, e-mail) entram à parte, porque o seu
+// tamanho depende dos dados e não da representação. Os limites valem para a JVM de 64 bits com
+// compressed oops (o padrão abaixo de 32 GB de heap); os valores medidos saem no relatório do teste.
+//
+// Cada medição também monta os mesmos registros na representação de antes da compactação (EventoAntes,
+// UsuarioAntes), para comparar. A quantidade de registros vem de pegada.registros (20.000 por padrão); a
+// medição com 1.000.000 é opcional porque o JOL precisa de alguns GB de heap e uns 12 minutos para
+// percorrer o grafo:
+//   mvn test -Dtest=PegadaMemoriaTest -Dpegada.registros=1000000 -Dpegada.jvm=-Xmx4g
+// Medido assim (JDK 17, compressed oops), em bytes por registro, sem os textos próprios (os valores com
+// 20.000 registros são os mesmos):
+//   Evento:  antes 413, depois 88
+//   Usuario: antes 158, depois 32
+class PegadaMemoriaTest {
+
+    private static final int REGISTROS = Integer.getInteger("pegada.registros", 20_000);
+    private static final int CIDADES = 50;
+    private static final int ENDERECOS = 2_000;
+
+    // Limites por registro iguais ao medido (Evento 64 + ConjuntoIds vazio 24, Usuario 32): um objeto
+    // auxiliar por registro (ex: um LocalDateTime, um AtomicInteger, o nome completo) faz o teste falhar
+    private static final long MAXIMO_POR_EVENTO = 88;
+    private static final long MAXIMO_POR_USUARIO = 32;
+
+    // Evento antes da compactação: textos e categoria como String (uma cópia por registro, como na leitura
+    // de um arquivo), horários como LocalDateTime, contador de vagas em um AtomicInteger e o vetor de
+    // participantes criado junto com o evento
+    private static class EventoAntes {
+        int id;
+        String nome;
+        String endereco;
+        String cidade;
+        String categoria;
+        LocalDateTime horarioInicio;
+        LocalDateTime horarioFim;
+        String descricao;
+        int capacidade;
+        final ConjuntoAntes participantes = new ConjuntoAntes();
+        final AtomicInteger vagasOcupadas = new AtomicInteger();
+        LinkedHashSet<Integer> listaEspera;
+    }
+
+    private static class ConjuntoAntes {
+        int[] ids = new int[4];
+        int tamanho;
+    }
+
+    // Usuario antes da compactação: com a cidade copiada por registro e o nome completo calculado
+    private static class UsuarioAntes {
+        int id;
+        String nome;
+        String sobrenome;
+        String nomeCompleto;
+        String email;
+        String cidade;
+    }
+
+    @Test
+    void EventosCompactos() {
+        long antes = BytesPorEventoAntes();
+        Evento[] eventos = new Evento[REGISTROS];
+        Object[] textosProprios = new Object[REGISTROS * 2];
+        for (int i = 0; i < REGISTROS; i++) {
+            // Cada evento recebe uma cópia nova da cidade e do endereço, como na leitura de um arquivo
+            eventos[i] = new Evento(i + 1, "Evento " + i, Endereco(i), Cidade(i), Categoria.SHOWS, 29_000_000 + i,
+                    29_000_060 + i, "Descrição " + i, i % 3 == 0 ? 100 : 0);
+            textosProprios[2 * i] = eventos[i].GetNome();
+            textosProprios[2 * i + 1] = eventos[i].GetDescricao();
+        }
+        long porEvento = (GraphLayout.parseInstance((Object) eventos)
+                .subtract(GraphLayout.parseInstance(textosProprios)).totalSize() - Vetor(eventos.length)) / REGISTROS;
+        System.out.println("Evento: " + ClassLayout.parseClass(Evento.class).instanceSize()
+                + " bytes por objeto; " + REGISTROS + " eventos: antes " + antes + ", depois " + porEvento
+                + " bytes por evento (sem nome e descrição)");
+        assertTrue(porEvento <= MAXIMO_POR_EVENTO, "Evento ocupa " + porEvento + " bytes");
+        assertTrue(porEvento < antes, "Evento ocupa " + porEvento + " bytes, antes " + antes);
+
+        // Cidades e endereços repetidos não ficam nos eventos: só os códigos no dicionário
+        assertSame(eventos[0].GetCidade(), eventos[CIDADES].GetCidade());
+        assertSame(eventos[0].GetEndereco(), eventos[ENDERECOS * 5].GetEndereco());
+    }
+
+    @Test
+    void UsuariosCompactos() {
+        long antes = BytesPorUsuarioAntes();
+        Usuario[] usuarios = new Usuario[REGISTROS];
+        Object[] textosProprios = new Object[REGISTROS * 3];
+        for (int i = 0; i < REGISTROS; i++) {
+            usuarios[i] = new Usuario(i + 1, Nome(i), Sobrenome(i), Email(i), Cidade(i));
+            textosProprios[3 * i] = usuarios[i].GetNome();
+            textosProprios[3 * i + 1] = usuarios[i].GetSobrenome();
+            textosProprios[3 * i + 2] = usuarios[i].GetEmail();
+        }
+        long porUsuario = (GraphLayout.parseInstance((Object) usuarios)
+                .subtract(GraphLayout.parseInstance(textosProprios)).totalSize() - Vetor(usuarios.length)) / REGISTROS;
+        System.out.println("Usuario: " + ClassLayout.parseClass(Usuario.class).instanceSize()
+                + " bytes por objeto; " + REGISTROS + " usuários: antes " + antes + ", depois " + porUsuario
+                + " bytes por usuário (sem nome, sobrenome e e-mail)");
+        assertTrue(porUsuario <= MAXIMO_POR_USUARIO, "Usuario ocupa " + porUsuario + " bytes");
+        assertTrue(porUsuario < antes, "Usuario ocupa " + porUsuario + " bytes, antes " + antes);
+    }
+
+    @Test
+    void DicionarioGuardaCadaTextoUmaVez() {
+        DicionarioTextos dicionario = new DicionarioTextos();
+        for (int i = 0; i < REGISTROS; i++) {
+            dicionario.Codigo(Cidade(i));
+        }
+        assertEquals(CIDADES, dicionario.Tamanho());
+        assertEquals(dicionario.Codigo("Cidade 7"), dicionario.CodigoExistente(new String("Cidade 7")));
+        assertSame(dicionario.Texto(dicionario.Codigo("Cidade 7")), dicionario.Texto(dicionario.Codigo("Cidade 7")));
+        // O dicionário cresce com os textos distintos, não com os registros
+        long tamanho = GraphLayout.parseInstance(dicionario).totalSize();
+        System.out.println("DicionarioTextos: " + tamanho + " bytes para " + CIDADES + " textos distintos em "
+                + REGISTROS + " inclusões");
+        assertTrue(tamanho < 64L * 1024, "DicionarioTextos ocupa " + tamanho + " bytes");
+    }
+
+    // Bytes por evento na representação de antes, com os mesmos dados de EventosCompactos
+    private static long BytesPorEventoAntes() {
+        EventoAntes[] eventos = new EventoAntes[REGISTROS];
+        Object[] textosProprios = new Object[REGISTROS * 2];
+        for (int i = 0; i < REGISTROS; i++) {
+            EventoAntes evento = new EventoAntes();
+            evento.id = i + 1;
+            evento.nome = "Evento " + i;
+            evento.endereco = Endereco(i);
+            evento.cidade = Cidade(i);
+            evento.categoria = new String(Categoria.SHOWS.GetNome());
+            evento.horarioInicio = Evento.DeMinutos(29_000_000 + i);
+            evento.horarioFim = Evento.DeMinutos(29_000_060 + i);
+            evento.descricao = "Descrição " + i;
+            evento.capacidade = i % 3 == 0 ? 100 : 0;
+            eventos[i] = evento;
+            textosProprios[2 * i] = evento.nome;
+            textosProprios[2 * i + 1] = evento.descricao;
+        }
+        return (GraphLayout.parseInstance((Object) eventos).subtract(GraphLayout.parseInstance(textosProprios))
+                .totalSize() - Vetor(eventos.length)) / REGISTROS;
+    }
+
+    // Bytes por usuário na representação de antes, com os mesmos dados de UsuariosCompactos
+    private static long BytesPorUsuarioAntes() {
+        UsuarioAntes[] usuarios = new UsuarioAntes[REGISTROS];
+        Object[] textosProprios = new Object[REGISTROS * 3];
+        for (int i = 0; i < REGISTROS; i++) {
+            UsuarioAntes usuario = new UsuarioAntes();
+            usuario.id = i + 1;
+            usuario.nome = Nome(i);
+            usuario.sobrenome = Sobrenome(i);
+            usuario.nomeCompleto = usuario.nome + " " + usuario.sobrenome;
+            usuario.email = Email(i);
+            usuario.cidade = Cidade(i);
+            usuarios[i] = usuario;
+            textosProprios[3 * i] = usuario.nome;
+            textosProprios[3 * i + 1] = usuario.sobrenome;
+            textosProprios[3 * i + 2] = usuario.email;
+        }
+        return (GraphLayout.parseInstance((Object) usuarios).subtract(GraphLayout.parseInstance(textosProprios))
+                .totalSize() - Vetor(usuarios.length)) / REGISTROS;
+    }
+
+    private static String Cidade(int i) {
+        return new String("Cidade " + (i % CIDADES));
+    }
+
+    private static String Endereco(int i) {
+        return new String("Rua " + (i % ENDERECOS) + ", " + (i % 1000));
+    }
+
+    private static String Nome(int i) {
+        return "Nome" + (i % 500);
+    }
+
+    private static String Sobrenome(int i) {
+        return "Sobrenome" + (i % 700);
+    }
+
+    private static String Email(int i) {
+        return "u" + i + "@teste";
+    }
+
+    // Tamanho de um vetor de referências com 'tamanho' posições
+    private static long Vetor(int tamanho) {
+        return GraphLayout.parseInstance((Object) new Object[tamanho]).totalSize();
+    }
+}
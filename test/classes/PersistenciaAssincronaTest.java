@@ -0,0 +1,192 @@
+package classes;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+class PersistenciaAssincronaTest {
+
+    // Arquivo falso que só conta as chamadas
+    private static class Contador implements PersistenciaAssincrona.Descarregavel {
+        int gravados;
+        int descarregados;
+        int forcados;
+
+        @Override
+        public synchronized void Descarregar() {
+            descarregados++;
+        }
+
+        @Override
+        public synchronized void Forcar() {
+            forcados++;
+        }
+    }
+
+    @Test
+    void FalhaInesperadaNaoParaOGravador() throws Exception {
+        PersistenciaAssincrona persistencia = new PersistenciaAssincrona(PersistenciaAssincrona.Durabilidade.BATCHED,
+                10, 256);
+        Contador arquivo = new Contador();
+        assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+            IOException erro = assertThrows(IOException.class, () -> persistencia.Registrar(arquivo, () -> {
+                throw new IllegalStateException("registro inválido");
+            }));
+            assertEquals(IllegalStateException.class, erro.getCause().getClass());
+            // A thread de gravação continua atendendo os pedidos seguintes
+            persistencia.Registrar(arquivo, () -> arquivo.gravados++);
+            persistencia.Encerrar();
+        });
+        assertEquals(1, arquivo.gravados);
+    }
+
+    // Só falham os pedidos cuja gravação ou arquivo falhou; os dos outros arquivos do mesmo grupo já estão
+    // gravados
+    @Test
+    void FalhaNaDescargaDeUmArquivoNaoAfetaOsOutros() throws Exception {
+        PersistenciaAssincrona persistencia = new PersistenciaAssincrona(PersistenciaAssincrona.Durabilidade.BATCHED,
+                10, 256);
+        Contador bom = new Contador();
+        PersistenciaAssincrona.Descarregavel ruim = new Contador() {
+            @Override
+            public void Descarregar() {
+                throw new IllegalStateException("disco cheio");
+            }
+        };
+        // Segura a thread de gravação para que os dois pedidos seguintes entrem no mesmo grupo
+        CountDownLatch ocupada = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        CompletableFuture<Void> espera = persistencia.Enfileirar(bom, () -> {
+            ocupada.countDown();
+            try {
+                liberar.await();
+            } catch (InterruptedException e) {
+                throw new InterruptedIOException();
+            }
+        });
+        ocupada.await();
+        CompletableFuture<Void> doBom = persistencia.Enfileirar(bom, () -> bom.gravados++);
+        CompletableFuture<Void> doRuim = persistencia.Enfileirar(ruim, () -> {
+        });
+        liberar.countDown();
+        persistencia.Aguardar(espera);
+        persistencia.Aguardar(doBom);
+        assertThrows(IOException.class, () -> persistencia.Aguardar(doRuim));
+        assertEquals(1, bom.gravados);
+        persistencia.Encerrar();
+    }
+
+    // Gravações que chegam durante o encerramento são feitas ou recusadas, nunca ficam esperando para sempre
+    @Test
+    void EncerramentoNaoDeixaGravacaoEsperando() throws Exception {
+        for (int rodada = 0; rodada < 50; rodada++) {
+            PersistenciaAssincrona persistencia = new PersistenciaAssincrona(
+                    PersistenciaAssincrona.Durabilidade.BATCHED, 10, 256);
+            Contador arquivo = new Contador();
+            ExecutorService executor = Executors.newFixedThreadPool(4);
+            try {
+                List<Future<?>> tarefas = new ArrayList<>();
+                for (int t = 0; t < 4; t++) {
+                    tarefas.add(executor.submit(() -> {
+                        try {
+                            while (true) {
+                                persistencia.Registrar(arquivo, () -> {
+                                });
+                            }
+                        } catch (IOException e) {
+                            return null; // recusada depois do encerramento
+                        }
+                    }));
+                }
+                persistencia.Encerrar();
+                for (Future<?> tarefa : tarefas) {
+                    tarefa.get(10, TimeUnit.SECONDS);
+                }
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+    }
+
+    @Test
+    void LoteValeSoParaAThreadQueOIniciou() throws Exception {
+        PersistenciaAssincrona persistencia = new PersistenciaAssincrona(PersistenciaAssincrona.Durabilidade.BATCHED,
+                10, 4);
+        Contador doLote = new Contador();
+        Contador deOutro = new Contador();
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+        persistencia.IniciarLote();
+        for (int i = 0; i < 10; i++) {
+            persistencia.Registrar(doLote, () -> {
+                threads.add(Thread.currentThread().getName());
+                doLote.gravados++;
+            });
+        }
+        // Outra thread, durante o lote, continua esperando a sua gravação ser descarregada
+        Thread outra = new Thread(() -> {
+            try {
+                persistencia.Registrar(deOutro, () -> {
+                    threads.add(Thread.currentThread().getName());
+                    deOutro.gravados++;
+                });
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        outra.start();
+        outra.join();
+        assertEquals(1, deOutro.descarregados);
+        persistencia.ConcluirLote();
+        assertEquals(10, doLote.gravados);
+        assertEquals(1, doLote.descarregados);
+        // Todas as escritas passam pela thread de gravação
+        assertEquals(Set.of("persistencia"), threads);
+        persistencia.Encerrar();
+    }
+
+    @Test
+    void FalhaNoLoteApareceNaConclusao() throws Exception {
+        PersistenciaAssincrona persistencia = new PersistenciaAssincrona(PersistenciaAssincrona.Durabilidade.BATCHED,
+                10, 256);
+        Contador arquivo = new Contador();
+        persistencia.IniciarLote();
+        persistencia.Registrar(arquivo, () -> {
+            throw new IOException("disco cheio");
+        });
+        persistencia.Registrar(arquivo, () -> arquivo.gravados++);
+        IOException erro = assertThrows(IOException.class, persistencia::ConcluirLote);
+        assertEquals("disco cheio", erro.getMessage());
+        assertEquals(1, arquivo.gravados);
+        persistencia.Encerrar();
+    }
+
+    @Test
+    void SyncForcaCadaAlteracaoAoDisco() throws Exception {
+        PersistenciaAssincrona persistencia = new PersistenciaAssincrona(PersistenciaAssincrona.Durabilidade.SYNC,
+                10, 256);
+        Contador arquivo = new Contador();
+        for (int i = 0; i < 3; i++) {
+            persistencia.Registrar(arquivo, () -> arquivo.gravados++);
+            assertEquals(i + 1, arquivo.forcados);
+        }
+        persistencia.Encerrar();
+        assertEquals(3, arquivo.gravados);
+    }
+}
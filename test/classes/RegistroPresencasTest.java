@@ -0,0 +1,148 @@
+package classes;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import org.junit.jupiter.api.Test;
+
+// Várias threads inscrevem e cancelam os mesmos usuários nos mesmos eventos (com e sem capacidade) ao
+// mesmo tempo. Cada operação bem-sucedida é contada por par (usuário, evento); no fim, a memória precisa
+// bater com as contagens: nenhuma presença perdida ou duplicada, e o índice dos participantes de cada
+// evento igual ao índice inverso de eventos de cada usuário.
+class RegistroPresencasTest {
+
+    private static final int THREADS = 16;
+    private static final int OPERACOES_POR_THREAD = 20_000;
+    private static final int USUARIOS = 40;
+    private static final int EVENTOS_SEM_LIMITE = 4;
+    private static final int EVENTOS_COM_LIMITE = 4;
+    private static final int CAPACIDADE = 5;
+
+    @Test
+    void InscricoesECancelamentosConcorrentes() throws Exception {
+        RegistroPresencas presencas = new RegistroPresencas();
+        Usuario[] usuarios = new Usuario[USUARIOS];
+        for (int i = 0; i < USUARIOS; i++) {
+            usuarios[i] = new Usuario(i + 1, "Usuario", "" + (i + 1), "u" + (i + 1) + "@teste", "Recife");
+        }
+        int totalEventos = EVENTOS_SEM_LIMITE + EVENTOS_COM_LIMITE;
+        Evento[] eventos = new Evento[totalEventos];
+        for (int i = 0; i < totalEventos; i++) {
+            eventos[i] = new Evento(i + 1, "Evento " + (i + 1), "Rua 1", "Recife", Categoria.SHOWS, 0, 60, "",
+                    i < EVENTOS_SEM_LIMITE ? 0 : CAPACIDADE);
+        }
+        // Saldo de cada par: presenças confirmadas menos canceladas, entradas na espera menos saídas
+        AtomicIntegerArray saldoPresenca = new AtomicIntegerArray(USUARIOS * totalEventos);
+        AtomicIntegerArray saldoEspera = new AtomicIntegerArray(USUARIOS * totalEventos);
+        AtomicBoolean parar = new AtomicBoolean();
+        CountDownLatch largada = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS + 1);
+        try {
+            List<Future<?>> tarefas = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                long semente = t;
+                tarefas.add(executor.submit(() -> {
+                    Random aleatorio = new Random(semente);
+                    largada.await();
+                    for (int i = 0; i < OPERACOES_POR_THREAD; i++) {
+                        int u = aleatorio.nextInt(USUARIOS);
+                        int e = aleatorio.nextInt(totalEventos);
+                        Evento evento = eventos[e];
+                        if (aleatorio.nextBoolean()) {
+                            switch (presencas.Inscrever(evento, usuarios[u])) {
+                                case CONFIRMADA:
+                                    saldoPresenca.incrementAndGet(Par(u, e));
+                                    break;
+                                case LISTA_DE_ESPERA:
+                                    saldoEspera.incrementAndGet(Par(u, e));
+                                    break;
+                                default:
+                                    break;
+                            }
+                        } else if (presencas.SairDaEspera(evento, u + 1)) {
+                            saldoEspera.decrementAndGet(Par(u, e));
+                        } else if (presencas.Cancelar(evento, u + 1)) {
+                            saldoPresenca.decrementAndGet(Par(u, e));
+                            // Como o MotorEventos: a vaga liberada vai para o primeiro da espera
+                            int promovido = presencas.PromoverDaEspera(evento);
+                            if (promovido > 0) {
+                                saldoEspera.decrementAndGet(Par(promovido - 1, e));
+                                saldoPresenca.incrementAndGet(Par(promovido - 1, e));
+                            }
+                        }
+                    }
+                    return null;
+                }));
+            }
+            // Leitor sem trava do índice inverso: todo conjunto publicado está ordenado e sem repetição
+            Future<?> leitor = executor.submit(() -> {
+                largada.await();
+                while (!parar.get()) {
+                    for (int u = 1; u <= USUARIOS; u++) {
+                        int[] ids = presencas.EventosDoUsuario(u).ParaArray();
+                        for (int i = 1; i < ids.length; i++) {
+                            assertTrue(ids[i - 1] < ids[i], "índice inverso fora de ordem ou repetido");
+                        }
+                    }
+                }
+                return null;
+            });
+            largada.countDown();
+            for (Future<?> tarefa : tarefas) {
+                tarefa.get(2, TimeUnit.MINUTES);
+            }
+            parar.set(true);
+            leitor.get(1, TimeUnit.MINUTES);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        for (int e = 0; e < totalEventos; e++) {
+            Evento evento = eventos[e];
+            int[] participantes = evento.GetParticipantes().ParaArray();
+            for (int i = 1; i < participantes.length; i++) {
+                assertTrue(participantes[i - 1] < participantes[i], "participante repetido no evento " + (e + 1));
+            }
+            assertEquals(participantes.length, evento.GetVagasOcupadas(), "vagas do evento " + (e + 1));
+            if (evento.GetCapacidade() > 0) {
+                assertTrue(participantes.length <= evento.GetCapacidade(), "evento " + (e + 1) + " acima da capacidade");
+                // Só há espera com o evento lotado (toda vaga liberada foi repassada)
+                assertTrue(evento.TamanhoEspera() == 0 || participantes.length == evento.GetCapacidade());
+            }
+            for (int u = 0; u < USUARIOS; u++) {
+                int presenca = saldoPresenca.get(Par(u, e));
+                int espera = saldoEspera.get(Par(u, e));
+                assertTrue(presenca == 0 || presenca == 1, "presença perdida ou duplicada: " + presenca);
+                assertTrue(espera == 0 || espera == 1, "espera perdida ou duplicada: " + espera);
+                assertEquals(presenca == 1, presencas.EstaPresente(evento, u + 1));
+                assertEquals(espera == 1, presencas.EstaNaEspera(evento, u + 1));
+                assertFalse(presenca == 1 && espera == 1, "usuário presente e na espera do mesmo evento");
+                assertEquals(presenca == 1, presencas.EventosDoUsuario(u + 1).Contem(evento.GetId()),
+                        "índice inverso diferente dos participantes");
+            }
+        }
+        for (int u = 0; u < USUARIOS; u++) {
+            int presentes = 0;
+            for (int e = 0; e < totalEventos; e++) {
+                presentes += saldoPresenca.get(Par(u, e));
+            }
+            assertEquals(presentes, presencas.EventosDoUsuario(u + 1).Tamanho(), "eventos do usuário " + (u + 1));
+        }
+    }
+
+    private static int Par(int usuario, int evento) {
+        return evento * USUARIOS + usuario;
+    }
+}